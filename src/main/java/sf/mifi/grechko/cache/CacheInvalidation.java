@@ -0,0 +1,58 @@
+package sf.mifi.grechko.cache;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Сообщение об изменении сущности для локальных кэшей других узлов.
+ * origin - узел-отправитель (свои сообщения узел пропускает), key - ключ в кэше
+ * (id курса, логин пользователя); null - все сущности этого типа.
+ *
+ * В канал уходит строкой "origin|TYPE|key": ключ последний, поэтому может содержать разделитель
+ */
+@Getter
+@RequiredArgsConstructor
+public final class CacheInvalidation {
+
+    private static final char SEPARATOR = '|';
+
+    private final String origin;
+    private final EntityType type;
+    private final String key;
+
+    public enum EntityType {
+        CATEGORY,
+        COURSE,
+        USER,
+        /**
+         * Сообщения могли потеряться (переподключение к каналу) - сбросить все кэши
+         */
+        ALL
+    }
+
+    public boolean isAll() {
+        return key == null;
+    }
+
+    public String encode() {
+        return origin + SEPARATOR + type.name() + SEPARATOR + (key == null ? "" : key);
+    }
+
+    public static CacheInvalidation decode(String payload) {
+        int first = payload.indexOf(SEPARATOR);
+        int second = first < 0 ? -1 : payload.indexOf(SEPARATOR, first + 1);
+        if (second < 0) {
+            throw new IllegalArgumentException("Некорректное сообщение инвалидации: " + payload);
+        }
+        String key = payload.substring(second + 1);
+        return new CacheInvalidation(
+                payload.substring(0, first),
+                EntityType.valueOf(payload.substring(first + 1, second)),
+                key.isEmpty() ? null : key);
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+}
@@ -0,0 +1,24 @@
+package sf.mifi.grechko.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Транспорт инвалидаций локальных кэшей между узлами приложения.
+ * Реализация выбирается свойством app.cache.invalidation.transport:
+ * postgres - LISTEN/NOTIFY через основную БД, loopback - внутри JVM (тесты, один узел).
+ *
+ * Доставка "не более одного раза": сообщение, потерянное при обрыве соединения, не повторяется,
+ * вместо этого транспорт сообщает подписчикам об инвалидации типа ALL
+ */
+public interface CacheInvalidationBus {
+
+    /**
+     * Отправить сообщение всем узлам, включая отправителя. Вызывается уже после коммита
+     */
+    void publish(CacheInvalidation invalidation);
+
+    /**
+     * Подписчик вызывается в потоке транспорта, не в потоке запроса
+     */
+    void subscribe(Consumer<CacheInvalidation> subscriber);
+}
@@ -0,0 +1,115 @@
+package sf.mifi.grechko.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import sf.mifi.grechko.security.AuthenticationCache;
+import sf.mifi.grechko.services.CourseSuggestIndex;
+
+import java.util.UUID;
+
+/**
+ * Связь локальных кэшей узла (ответы каталога, аутентификация, автодополнение) с остальными узлами.
+ *
+ * Сервисы по-прежнему сами сбрасывают свои кэши, а здесь только сообщают об изменении остальным узлам -
+ * после коммита, чтобы получатель не перечитал из БД еще старые данные. Полученное сообщение применяется
+ * к кэшам этого узла; точечные изменения перечитываются из БД, поэтому повтор или сообщение
+ * об уже удаленной сущности безопасны
+ */
+@Slf4j
+@Component
+public class CacheInvalidator {
+
+    private final CacheInvalidationBus bus;
+    private final CatalogResponseCache catalogResponseCache;
+    private final AuthenticationCache authenticationCache;
+    private final CourseSuggestIndex courseSuggestIndex;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Counter sent;
+    private final Counter received;
+
+    public CacheInvalidator(
+            CacheInvalidationBus bus,
+            CatalogResponseCache catalogResponseCache,
+            AuthenticationCache authenticationCache,
+            CourseSuggestIndex courseSuggestIndex,
+            MeterRegistry meterRegistry) {
+        this.bus = bus;
+        this.catalogResponseCache = catalogResponseCache;
+        this.authenticationCache = authenticationCache;
+        this.courseSuggestIndex = courseSuggestIndex;
+
+        this.sent = Counter.builder("cache.invalidation.messages")
+                .description("Сообщения об инвалидации кэшей между узлами")
+                .tag("direction", "sent")
+                .register(meterRegistry);
+        this.received = Counter.builder("cache.invalidation.messages")
+                .description("Сообщения об инвалидации кэшей между узлами")
+                .tag("direction", "received")
+                .register(meterRegistry);
+
+        bus.subscribe(this::apply);
+    }
+
+    /**
+     * Сообщить остальным узлам об изменении сущности (key null - всех сущностей типа).
+     * Внутри транзакции сообщение уходит только после коммита, при откате не уходит вовсе
+     */
+    public void publish(CacheInvalidation.EntityType type, Object key) {
+        CacheInvalidation invalidation = new CacheInvalidation(nodeId, type, key == null ? null : key.toString());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(invalidation);
+                }
+            });
+        } else {
+            send(invalidation);
+        }
+    }
+
+    private void send(CacheInvalidation invalidation) {
+        sent.increment();
+        bus.publish(invalidation);
+    }
+
+    private void apply(CacheInvalidation invalidation) {
+        // Свои кэши узел уже сбросил сам при записи
+        if (nodeId.equals(invalidation.getOrigin())) {
+            return;
+        }
+        received.increment();
+        log.debug("Инвалидация от узла {}: {} {}", invalidation.getOrigin(), invalidation.getType(),
+                invalidation.getKey());
+
+        switch (invalidation.getType()) {
+            case CATEGORY -> catalogResponseCache.invalidate();
+            case COURSE -> {
+                catalogResponseCache.invalidate();
+                if (invalidation.isAll()) {
+                    courseSuggestIndex.rebuild();
+                } else {
+                    courseSuggestIndex.refresh(Integer.valueOf(invalidation.getKey()));
+                }
+            }
+            case USER -> {
+                if (invalidation.isAll()) {
+                    authenticationCache.invalidateAll();
+                } else {
+                    authenticationCache.invalidate(invalidation.getKey());
+                }
+            }
+            case ALL -> {
+                catalogResponseCache.invalidate();
+                authenticationCache.invalidateAll();
+                courseSuggestIndex.rebuild();
+            }
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package sf.mifi.grechko.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import sf.mifi.grechko.dto.CursorPage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Кэш готовых ответов публичного каталога (страницы курсов и категорий).
+ * Хранится уже сериализованный JSON в двух вариантах - как есть и в gzip, контроллер отдает байты без
+ * повторного маппинга и сериализации.
+ *
+ * Актуальность - через номер поколения: любая запись в каталог увеличивает поколение, записи старого
+ * поколения не отдаются. Ответы с данными, которые меняются без записи в каталог (число записей на курсы),
+ * дополнительно живут не дольше заданного TTL. Востребованные записи пересобираются в фоне одним потоком; несколько
+ * инвалидаций подряд сливаются в одну пересборку.
+ *
+ * Число записей ограничено max-entries: при переполнении вытесняется запись, к которой дольше всего
+ * не обращались (LRU), поэтому новые страницы попадают в кэш и после его заполнения.
+ */
+@Slf4j
+@Component
+public class CatalogResponseCache {
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int maxEntries;
+
+    private final AtomicLong generation = new AtomicLong();
+    // Порядок обхода - по последнему обращению; доступ только под synchronized (entries)
+    private final LinkedHashMap<String, Entry> entries;
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-cache-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer renderTimer;
+
+    public CatalogResponseCache(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${app.catalog-cache.enabled:true}") boolean enabled,
+            @Value("${app.catalog-cache.max-entries:256}") int maxEntries) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > CatalogResponseCache.this.maxEntries;
+            }
+        };
+
+        this.hits = Counter.builder("catalog.cache.requests")
+                .description("Обращения к кэшу ответов каталога")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("catalog.cache.requests")
+                .description("Обращения к кэшу ответов каталога")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.renderTimer = Timer.builder("catalog.cache.rebuild")
+                .description("Время сборки ответа каталога (запрос, сериализация, gzip)")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("catalog.cache.hit.ratio", this, CatalogResponseCache::getHitRatio)
+                .description("Доля попаданий в кэш ответов каталога")
+                .register(meterRegistry);
+        Gauge.builder("catalog.cache.entries", this, CatalogResponseCache::size)
+                .description("Число ответов в кэше каталога")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Готовый ответ для ключа; при промахе страница собирается загрузчиком и кладется в кэш
+     */
+    public CachedPage get(String key, Supplier<CursorPage<?>> loader) {
+        return get(key, null, loader);
+    }
+
+    /**
+     * То же, но ответ устаревает и сам по себе через ttl (null - только по инвалидации)
+     */
+    public CachedPage get(String key, Duration ttl, Supplier<CursorPage<?>> loader) {
+        long currentGeneration = generation.get();
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (enabled && entry != null && entry.generation == currentGeneration && !entry.isExpired()) {
+            hits.increment();
+            entry.hits.incrementAndGet();
+            return entry.page;
+        }
+
+        misses.increment();
+        CachedPage page = render(loader);
+        if (enabled && maxEntries > 0) {
+            // Поколение взято до загрузки: если каталог успел измениться, запись сразу будет устаревшей
+            synchronized (entries) {
+                entries.put(key, new Entry(currentGeneration, page, loader, ttl));
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Собрать ответ без обращения к кэшу - для запросов, которые почти не повторяются
+     */
+    public CachedPage render(Supplier<CursorPage<?>> loader) {
+        return renderTimer.record(() -> {
+            CursorPage<?> page = loader.get();
+            try {
+                byte[] identity = objectMapper.writeValueAsBytes(page);
+                return new CachedPage(identity, gzip(identity), etag(identity), page.getNextCursor());
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Ошибка сериализации ответа каталога", e);
+            }
+        });
+    }
+
+    /**
+     * Каталог изменился: все записи устаревают, востребованные пересобираются в фоне.
+     * Внутри транзакции инвалидация повторяется после коммита, чтобы ответ, собранный
+     * параллельным запросом до коммита, не остался в кэше
+     */
+    public void invalidate() {
+        bumpGeneration();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumpGeneration();
+                }
+            });
+        }
+    }
+
+    /**
+     * Часть ключа кэша для страницы: курсор раскодирован, размер приведен к допустимому.
+     * Разные записи одного и того же запроса (size=500 и size=100, пустой курсор и его отсутствие)
+     * дают одну запись вместо нескольких
+     */
+    public static String pageKey(String cursor, Integer size) {
+        return CursorPage.normalizeCursor(cursor) + ":" + CursorPage.normalizeSize(size);
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public double getHitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    private void bumpGeneration() {
+        generation.incrementAndGet();
+        if (enabled && rebuildPending.compareAndSet(false, true)) {
+            rebuildExecutor.execute(this::rebuildStaleEntries);
+        }
+    }
+
+    private void rebuildStaleEntries() {
+        // Инвалидации во время пересборки запланируют еще один проход
+        rebuildPending.set(false);
+        long currentGeneration = generation.get();
+
+        List<Map.Entry<String, Entry>> snapshot;
+        synchronized (entries) {
+            snapshot = entries.entrySet().stream()
+                    .map(item -> Map.entry(item.getKey(), item.getValue()))
+                    .toList();
+        }
+
+        int rebuilt = 0;
+        for (Map.Entry<String, Entry> item : snapshot) {
+            Entry entry = item.getValue();
+            if (entry.generation == currentGeneration) {
+                continue;
+            }
+            // Ни одного обращения с прошлой сборки - не тратим на запись запрос к БД.
+            // Истекшие по TTL тоже не пересобираем: их соберет следующий запрос
+            if (entry.hits.get() == 0 || entry.isExpired()) {
+                remove(item.getKey(), entry);
+                continue;
+            }
+            try {
+                Entry rebuiltEntry = new Entry(currentGeneration, render(entry.loader), entry.loader, entry.ttl);
+                synchronized (entries) {
+                    // Запись могли вытеснить или заменить, пока шла сборка - тогда результат не нужен
+                    if (entries.get(item.getKey()) == entry) {
+                        entries.put(item.getKey(), rebuiltEntry);
+                    }
+                }
+                rebuilt++;
+            } catch (RuntimeException e) {
+                log.warn("Не удалось пересобрать ответ каталога {}: {}", item.getKey(), e.getMessage());
+                remove(item.getKey(), entry);
+            }
+        }
+        log.debug("Кэш каталога: пересобрано {} ответов, поколение {}", rebuilt, currentGeneration);
+    }
+
+    private void remove(String key, Entry entry) {
+        synchronized (entries) {
+            entries.remove(key, entry);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new IllegalStateException("Ошибка сжатия ответа каталога", e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static String etag(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Сериализованная страница: JSON как есть, JSON в gzip, ETag по содержимому и курсор следующей страницы
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static final class CachedPage {
+        private final byte[] identity;
+        private final byte[] gzip;
+        private final String etag;
+        private final String nextCursor;
+    }
+
+    private static final class Entry {
+
+        private final long generation;
+        private final CachedPage page;
+        private final Supplier<CursorPage<?>> loader;
+        private final Duration ttl;
+        private final long expiresAtNanos;
+        private final AtomicInteger hits = new AtomicInteger();
+
+        private Entry(long generation, CachedPage page, Supplier<CursorPage<?>> loader, Duration ttl) {
+            this.generation = generation;
+            this.page = page;
+            this.loader = loader;
+            this.ttl = ttl;
+            this.expiresAtNanos = ttl == null ? Long.MAX_VALUE : System.nanoTime() + ttl.toNanos();
+        }
+
+        private boolean isExpired() {
+            return ttl != null && System.nanoTime() - expiresAtNanos >= 0;
+        }
+    }
+}
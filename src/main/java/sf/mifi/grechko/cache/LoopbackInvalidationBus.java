@@ -0,0 +1,75 @@
+package sf.mifi.grechko.cache;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Транспорт инвалидаций внутри одной JVM.
+ * Все контексты приложения с одной группой (app.cache.invalidation.loopback-group) видят сообщения
+ * друг друга - так в тестах несколько контекстов изображают кластер. Каждый узел получает сообщения
+ * в своем потоке и в порядке отправки, как при доставке через NOTIFY
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidation.transport", havingValue = "loopback")
+public class LoopbackInvalidationBus implements CacheInvalidationBus {
+
+    private static final Map<String, List<LoopbackInvalidationBus>> GROUPS = new ConcurrentHashMap<>();
+
+    private final String group;
+    private final List<Consumer<CacheInvalidation>> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService deliveryExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-invalidation-loopback");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LoopbackInvalidationBus(@Value("${app.cache.invalidation.loopback-group:default}") String group) {
+        this.group = group;
+        GROUPS.computeIfAbsent(group, key -> new CopyOnWriteArrayList<>()).add(this);
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        for (LoopbackInvalidationBus node : GROUPS.getOrDefault(group, List.of())) {
+            node.deliver(invalidation);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        GROUPS.getOrDefault(group, List.of()).remove(this);
+        deliveryExecutor.shutdownNow();
+    }
+
+    private void deliver(CacheInvalidation invalidation) {
+        if (deliveryExecutor.isShutdown()) {
+            return;
+        }
+        deliveryExecutor.execute(() -> {
+            for (Consumer<CacheInvalidation> subscriber : subscribers) {
+                try {
+                    subscriber.accept(invalidation);
+                } catch (RuntimeException e) {
+                    log.warn("Ошибка обработки инвалидации {}: {}", invalidation, e.getMessage());
+                }
+            }
+        });
+    }
+}
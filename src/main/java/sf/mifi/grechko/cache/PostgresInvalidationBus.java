@@ -0,0 +1,157 @@
+package sf.mifi.grechko.cache;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Транспорт инвалидаций через PostgreSQL LISTEN/NOTIFY - отдельный брокер не нужен, все узлы и так ходят в одну БД.
+ *
+ * Отправка - pg_notify из отдельного потока на соединении пула в autocommit: вызов приходит после коммита,
+ * а соединение транзакции в этот момент еще привязано к потоку запроса. Прием - поток, который держит
+ * собственное соединение вне пула с LISTEN и опрашивает уведомления. После обрыва соединение
+ * открывается заново, а подписчики получают ALL: уведомления за время обрыва потеряны
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidation.transport", havingValue = "postgres", matchIfMissing = true)
+public class PostgresInvalidationBus implements CacheInvalidationBus {
+
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final int POLL_TIMEOUT_MILLIS = 500;
+    private static final long RECONNECT_DELAY_MILLIS = 2000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final String channel;
+
+    private final List<Consumer<CacheInvalidation>> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService publishExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-invalidation-notify");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Thread listenerThread;
+    private volatile boolean running = true;
+
+    public PostgresInvalidationBus(
+            JdbcTemplate jdbcTemplate,
+            DataSourceProperties dataSourceProperties,
+            @Value("${app.cache.invalidation.channel:cache_invalidation}") String channel) {
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Некорректное имя канала инвалидации: " + channel);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.channel = channel;
+
+        this.listenerThread = new Thread(this::listen, "cache-invalidation-listen");
+        this.listenerThread.setDaemon(true);
+    }
+
+    /**
+     * Слушать начинаем, когда подписчики (кэши) уже готовы
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!listenerThread.isAlive()) {
+            listenerThread.start();
+        }
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        publishExecutor.execute(() -> {
+            try {
+                jdbcTemplate.query("SELECT pg_notify(?, ?)", resultSet -> null, channel, invalidation.encode());
+            } catch (RuntimeException e) {
+                // Другие узлы догонят по TTL своих кэшей; повтор отправки мог бы переупорядочить сообщения
+                log.warn("Не удалось отправить инвалидацию {}: {}", invalidation, e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        listenerThread.interrupt();
+        publishExecutor.shutdown();
+    }
+
+    private void listen() {
+        boolean reconnect = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                log.info("Инвалидация кэшей: подписка на канал {}", channel);
+                if (reconnect) {
+                    dispatch(new CacheInvalidation("", CacheInvalidation.EntityType.ALL, null));
+                }
+                reconnect = true;
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        try {
+                            dispatch(CacheInvalidation.decode(notification.getParameter()));
+                        } catch (IllegalArgumentException e) {
+                            log.warn("Пропущено уведомление канала {}: {}", channel, e.getMessage());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Канал инвалидации {} недоступен, переподключение: {}", channel, e.getMessage());
+                reconnect = true;
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void dispatch(CacheInvalidation invalidation) {
+        for (Consumer<CacheInvalidation> subscriber : subscribers) {
+            try {
+                subscriber.accept(invalidation);
+            } catch (RuntimeException e) {
+                log.warn("Ошибка обработки инвалидации {}: {}", invalidation, e.getMessage());
+            }
+        }
+    }
+}
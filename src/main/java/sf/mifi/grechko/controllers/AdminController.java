@@ -0,0 +1,26 @@
+package sf.mifi.grechko.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import sf.mifi.grechko.dto.PurgeStatus;
+import sf.mifi.grechko.services.PurgeService;
+
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "bearerAuth")
+public class AdminController {
+
+    private final PurgeService purgeService;
+
+    @GetMapping("/purge-status")
+    @Operation(summary = "Ход фоновой очистки удаленных курсов и пользователей (только для ADMIN)")
+    public ResponseEntity<PurgeStatus> getPurgeStatus() {
+        return ResponseEntity.ok(purgeService.getStatus());
+    }
+}
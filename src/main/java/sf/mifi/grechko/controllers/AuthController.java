@@ -0,0 +1,44 @@
+package sf.mifi.grechko.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import sf.mifi.grechko.dto.LoginRequest;
+import sf.mifi.grechko.dto.RefreshTokenRequest;
+import sf.mifi.grechko.dto.TokenResponse;
+import sf.mifi.grechko.security.LoginAttemptLimiter;
+import sf.mifi.grechko.services.AuthService;
+
+@RestController
+@RequestMapping("/api/auth")
+@RequiredArgsConstructor
+public class AuthController {
+
+    private final AuthService authService;
+    private final LoginAttemptLimiter loginAttemptLimiter;
+
+    @PostMapping("/login")
+    @Operation(summary = "Получить access- и refresh-токены по логину и паролю (доступно всем)")
+    public ResponseEntity<TokenResponse> login(@Valid @RequestBody LoginRequest request,
+                                               HttpServletRequest httpRequest) {
+        String clientAddress = httpRequest.getRemoteAddr();
+        if (!loginAttemptLimiter.isAllowed(request.getLogin(), clientAddress)) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "60")
+                    .build();
+        }
+        // Неудачу учтет ограничитель по событию неверных учетных данных
+        return ResponseEntity.ok(authService.login(request.getLogin(), request.getPassword(), clientAddress));
+    }
+
+    @PostMapping("/refresh")
+    @Operation(summary = "Обновить токены по refresh-токену (доступно всем)")
+    public ResponseEntity<TokenResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        return ResponseEntity.ok(authService.refresh(request.getRefreshToken()));
+    }
+}
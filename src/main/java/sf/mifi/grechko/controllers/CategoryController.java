@@ -3,34 +3,60 @@ package sf.mifi.grechko.controllers;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import sf.mifi.grechko.cache.CatalogResponseCache;
 import sf.mifi.grechko.dto.CategoryDto;
 import sf.mifi.grechko.dto.CreateCategoryRequest;
 import sf.mifi.grechko.dto.UpdateCategoryRequest;
 import sf.mifi.grechko.services.CategoryService;
 
-import java.util.List;
+import java.time.Duration;
 
 @RestController
 @RequestMapping("/api/categories")
-@RequiredArgsConstructor
 @SecurityRequirement(name = "basicAuth")
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final CatalogResponseCache catalogResponseCache;
+    private final ConditionalResponses conditionalResponses;
+    private final Duration statsTtl;
+
+    public CategoryController(CategoryService categoryService,
+                              CatalogResponseCache catalogResponseCache,
+                              ConditionalResponses conditionalResponses,
+                              @Value("${app.catalog-cache.stats-ttl-seconds:30}") long statsTtlSeconds) {
+        this.categoryService = categoryService;
+        this.catalogResponseCache = catalogResponseCache;
+        this.conditionalResponses = conditionalResponses;
+        // Число записей меняется без инвалидации кэша каталога - страницы со статистикой живут недолго
+        this.statsTtl = Duration.ofSeconds(statsTtlSeconds);
+    }
 
     @GetMapping
-    @Operation(summary = "Получить все категории (доступно всем)")
-    public ResponseEntity<List<CategoryDto>> getAllCategories() {
-        return ResponseEntity.ok(categoryService.getAllCategories());
+    @Operation(summary = "Получить страницу категорий, с withStats=true - с числом курсов и активных записей (доступно всем)")
+    public ResponseEntity<byte[]> getAllCategories(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean withStats,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        String page = CatalogResponseCache.pageKey(cursor, size);
+        CatalogResponseCache.CachedPage cached = withStats
+                ? catalogResponseCache.get("categories:stats:" + page, statsTtl,
+                        () -> categoryService.getCategoryStats(cursor, size))
+                : catalogResponseCache.get("categories:" + page, () -> categoryService.getAllCategories(cursor, size));
+        return PageResponses.ok(cached, acceptEncoding, conditionalResponses.catalog());
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Получить категорию по ID (доступно всем)")
-    public ResponseEntity<CategoryDto> getCategoryById(@PathVariable Integer id) {
-        return ResponseEntity.ok(categoryService.getCategoryById(id));
+    public ResponseEntity<CategoryDto> getCategoryById(@PathVariable Integer id, WebRequest request) {
+        return conditionalResponses.catalog(request, categoryService.getCategoryVersion(id),
+                () -> categoryService.getCategoryById(id));
     }
 
     @PostMapping
@@ -0,0 +1,69 @@
+package sf.mifi.grechko.controllers;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+import sf.mifi.grechko.dto.EntityVersion;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Условные GET: сначала легкий запрос версии сущности, и если у клиента актуальная копия -
+ * 304 без загрузки и сериализации тела. Плюс заголовки Cache-Control:
+ * публичный каталог может держать обратный прокси, профили - только клиент, с перепроверкой
+ */
+@Component
+class ConditionalResponses {
+
+    private final CacheControl catalogCacheControl;
+    private final CacheControl privateCacheControl = CacheControl.noCache().cachePrivate();
+
+    ConditionalResponses(@Value("${app.http.catalog-shared-max-age-seconds:60}") long sharedMaxAgeSeconds) {
+        // Браузер перепроверяет каждый раз (дешево, через ETag), прокси отдает сам в пределах s-maxage
+        this.catalogCacheControl = CacheControl.maxAge(Duration.ZERO)
+                .sMaxAge(Duration.ofSeconds(sharedMaxAgeSeconds))
+                .cachePublic();
+    }
+
+    CacheControl catalog() {
+        return catalogCacheControl;
+    }
+
+    <T> ResponseEntity<T> catalog(WebRequest request, Optional<EntityVersion> version, Supplier<T> body) {
+        return respond(request, version, catalogCacheControl, body);
+    }
+
+    <T> ResponseEntity<T> personal(WebRequest request, Optional<EntityVersion> version, Supplier<T> body) {
+        return respond(request, version, privateCacheControl, body);
+    }
+
+    private <T> ResponseEntity<T> respond(WebRequest request, Optional<EntityVersion> version,
+                                          CacheControl cacheControl, Supplier<T> body) {
+        if (version.isEmpty()) {
+            // Сущности нет - обычный путь, он сам ответит ошибкой
+            return ResponseEntity.ok().cacheControl(cacheControl).body(body.get());
+        }
+
+        String etag = version.get().getEtag();
+        long lastModified = version.get().getLastModified() == null
+                ? -1
+                : version.get().getLastModified().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        if (request.checkNotModified(etag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+
+        // Версия прочитана раньше тела: тело может оказаться новее ETag, но не старее
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().eTag(etag).cacheControl(cacheControl);
+        if (lastModified >= 0) {
+            builder.lastModified(lastModified);
+        }
+        return builder.body(body.get());
+    }
+}
@@ -4,12 +4,26 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import sf.mifi.grechko.cache.CatalogResponseCache;
+import sf.mifi.grechko.dto.BulkImportResult;
+import sf.mifi.grechko.dto.CourseDetailsDto;
 import sf.mifi.grechko.dto.CourseDto;
+import sf.mifi.grechko.dto.CourseFilter;
+import sf.mifi.grechko.dto.CourseSuggestionDto;
 import sf.mifi.grechko.dto.CreateCourseRequest;
+import sf.mifi.grechko.dto.CursorPage;
 import sf.mifi.grechko.dto.UpdateCourseRequest;
+import sf.mifi.grechko.services.CourseImportService;
 import sf.mifi.grechko.services.CourseService;
+import sf.mifi.grechko.services.ExportService;
 
 import java.util.List;
 
@@ -20,29 +34,92 @@ import java.util.List;
 public class CourseController {
 
     private final CourseService courseService;
+    private final CatalogResponseCache catalogResponseCache;
+    private final ConditionalResponses conditionalResponses;
+    private final ExportService exportService;
+    private final CourseImportService courseImportService;
 
     @GetMapping
-    @Operation(summary = "Получить все курсы (доступно всем)")
-    public ResponseEntity<List<CourseDto>> getAllCourses() {
-        return ResponseEntity.ok(courseService.getAllCourses());
+    @Operation(summary = "Получить страницу курсов с необязательным фильтром и сортировкой (доступно всем)")
+    public ResponseEntity<byte[]> getAllCourses(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @ParameterObject CourseFilter filter,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        String pageKey = CatalogResponseCache.pageKey(cursor, size);
+        CatalogResponseCache.CachedPage page;
+        if (filter.hasQuery()) {
+            // Произвольный текст дал бы по записи на запрос и вытеснил бы из кэша общие страницы
+            page = catalogResponseCache.render(() -> courseService.filterCourses(filter, cursor, size));
+        } else if (filter.hasCriteria()) {
+            page = catalogResponseCache.get("courses:" + filter.cacheKey() + ":" + pageKey,
+                    () -> courseService.filterCourses(filter, cursor, size));
+        } else {
+            page = catalogResponseCache.get("courses:" + pageKey, () -> courseService.getAllCourses(cursor, size));
+        }
+        return PageResponses.ok(page, acceptEncoding, conditionalResponses.catalog());
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Полнотекстовый поиск курсов по названию и описанию (доступно всем)")
+    public ResponseEntity<CursorPage<CourseDto>> searchCourses(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) Integer categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return PageResponses.ok(courseService.searchCourses(query, categoryId, cursor, size));
+    }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Автодополнение по названию курса (доступно всем)")
+    public ResponseEntity<List<CourseSuggestionDto>> suggestCourses(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(courseService.suggestCourses(query, limit));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Выгрузка всех курсов в NDJSON (только ADMIN)")
+    public ResponseEntity<StreamingResponseBody> exportCourses() {
+        return PageResponses.ndjson("courses", exportService::exportCourses);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Получить курс по ID (доступно всем)")
-    public ResponseEntity<CourseDto> getCourseById(@PathVariable Integer id) {
-        return ResponseEntity.ok(courseService.getCourseById(id));
+    public ResponseEntity<CourseDto> getCourseById(@PathVariable Integer id, WebRequest request) {
+        return conditionalResponses.catalog(request, courseService.getCourseVersion(id),
+                () -> courseService.getCourseById(id));
+    }
+
+    /**
+     * Замена четырех запросов страницы курса (курс, профиль преподавателя, число записей, категория).
+     * Счетчики записей меняются чаще курса, поэтому без ETag - только короткое хранение в прокси
+     */
+    @GetMapping("/{id}/details")
+    @Operation(summary = "Курс с преподавателем, профилем и числом записей одним запросом (доступно всем)")
+    public ResponseEntity<CourseDetailsDto> getCourseDetails(@PathVariable Integer id) {
+        return courseService.getCourseDetails(id)
+                .map(details -> ResponseEntity.ok().cacheControl(conditionalResponses.catalog()).body(details))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @GetMapping("/teacher/{teacherId}")
-    @Operation(summary = "Получить курсы преподавателя (доступно всем)")
-    public ResponseEntity<List<CourseDto>> getCoursesByTeacher(@PathVariable Integer teacherId) {
-        return ResponseEntity.ok(courseService.getCoursesByTeacher(teacherId));
+    @Operation(summary = "Получить страницу курсов преподавателя (доступно всем)")
+    public ResponseEntity<CursorPage<CourseDto>> getCoursesByTeacher(
+            @PathVariable Integer teacherId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return PageResponses.ok(courseService.getCoursesByTeacher(teacherId, cursor, size));
     }
 
     @GetMapping("/category/{categoryId}")
-    @Operation(summary = "Получить курсы категории (доступно всем)")
-    public ResponseEntity<List<CourseDto>> getCoursesByCategory(@PathVariable Integer categoryId) {
-        return ResponseEntity.ok(courseService.getCoursesByCategory(categoryId));
+    @Operation(summary = "Получить страницу курсов категории (доступно всем)")
+    public ResponseEntity<CursorPage<CourseDto>> getCoursesByCategory(
+            @PathVariable Integer categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return PageResponses.ok(courseService.getCoursesByCategory(categoryId, cursor, size));
     }
 
     @GetMapping("/my")
@@ -59,6 +136,18 @@ public class CourseController {
         return ResponseEntity.ok(course);
     }
 
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Массовое создание курсов из JSON-массива (только ADMIN)")
+    public ResponseEntity<BulkImportResult> importCourses(@RequestBody List<CreateCourseRequest> requests) {
+        return ResponseEntity.ok(courseImportService.importCourses(requests));
+    }
+
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    @Operation(summary = "Массовое создание курсов из CSV title,description,categoryId,teacherId,duration,startDate (только ADMIN)")
+    public ResponseEntity<BulkImportResult> importCoursesCsv(@RequestBody String csv) {
+        return ResponseEntity.ok(courseImportService.importCsv(csv));
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Обновить курс (TEACHER - свои, ADMIN - все)")
     public ResponseEntity<CourseDto> updateCourse(
@@ -2,14 +2,27 @@ package sf.mifi.grechko.controllers;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import sf.mifi.grechko.dto.BulkEnrollmentRequest;
+import sf.mifi.grechko.dto.BulkImportResult;
+import sf.mifi.grechko.dto.BulkStatusResult;
+import sf.mifi.grechko.dto.CursorPage;
 import sf.mifi.grechko.dto.EnrollmentDto;
+import sf.mifi.grechko.services.EnrollmentCountStream;
+import sf.mifi.grechko.services.EnrollmentImportService;
 import sf.mifi.grechko.services.EnrollmentService;
+import sf.mifi.grechko.services.EnrollmentStatusService;
+import sf.mifi.grechko.services.ExportService;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/enrollments")
@@ -17,10 +30,26 @@ import java.util.List;
 public class EnrollmentController {
 
     private final EnrollmentService enrollmentService;
+    private final EnrollmentImportService enrollmentImportService;
+    private final EnrollmentStatusService enrollmentStatusService;
+    private final EnrollmentCountStream enrollmentCountStream;
+    private final ExportService exportService;
 
     @GetMapping
-    public ResponseEntity<List<EnrollmentDto>> getAllEnrollments() {
-        return ResponseEntity.ok(enrollmentService.getAllEnrollments());
+    public ResponseEntity<CursorPage<EnrollmentDto>> getAllEnrollments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return PageResponses.ok(enrollmentService.getAllEnrollments(cursor, size));
+    }
+
+    /**
+     * Выгрузка всех записей в NDJSON потоком, без сборки ответа в памяти
+     * Только ADMIN
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportEnrollments() {
+        return PageResponses.ndjson("enrollments", exportService::exportEnrollments);
     }
 
     @GetMapping("/{id}")
@@ -29,13 +58,19 @@ public class EnrollmentController {
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<EnrollmentDto>> getEnrollmentsByUser(@PathVariable Integer userId) {
-        return ResponseEntity.ok(enrollmentService.getEnrollmentsByUser(userId));
+    public ResponseEntity<CursorPage<EnrollmentDto>> getEnrollmentsByUser(
+            @PathVariable Integer userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return PageResponses.ok(enrollmentService.getEnrollmentsByUser(userId, cursor, size));
     }
 
     @GetMapping("/course/{courseId}")
-    public ResponseEntity<List<EnrollmentDto>> getEnrollmentsByCourse(@PathVariable Integer courseId) {
-        return ResponseEntity.ok(enrollmentService.getEnrollmentsByCourse(courseId));
+    public ResponseEntity<CursorPage<EnrollmentDto>> getEnrollmentsByCourse(
+            @PathVariable Integer courseId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return PageResponses.ok(enrollmentService.getEnrollmentsByCourse(courseId, cursor, size));
     }
 
     @GetMapping("/course/{courseId}/active-count")
@@ -43,6 +78,23 @@ public class EnrollmentController {
         return ResponseEntity.ok(enrollmentService.getActiveEnrollmentsCountByCourse(courseId));
     }
 
+    /**
+     * Число активных записей курса потоком Server-Sent Events: текущее значение сразу,
+     * дальше событие active-count при каждом изменении (не чаще app.enrollment.stream.max-updates-per-second)
+     */
+    @GetMapping(value = "/course/{courseId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamActiveEnrollmentsCount(@PathVariable Integer courseId) {
+        return enrollmentCountStream.subscribe(courseId);
+    }
+
+    /**
+     * Число активных записей сразу по нескольким курсам: ?courseIds=1,2,3
+     */
+    @GetMapping("/active-counts")
+    public ResponseEntity<Map<Integer, Long>> getActiveEnrollmentsCounts(@RequestParam List<Integer> courseIds) {
+        return ResponseEntity.ok(enrollmentService.getActiveEnrollmentsCounts(courseIds));
+    }
+
     @PostMapping
     public ResponseEntity<EnrollmentDto> createEnrollment(
             @Valid @RequestBody EnrollmentDto.CreateRequest request) {
@@ -50,6 +102,17 @@ public class EnrollmentController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    /**
+     * Массовая запись: {"courseId": 1, "userIds": [...]} и/или {"pairs": [{"userId": .., "courseId": ..}]}.
+     * Результат по каждой паре; уже записанные - DUPLICATE, не поместившиеся - CREATED в листе ожидания
+     * Только ADMIN
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkImportResult> createEnrollments(@RequestBody BulkEnrollmentRequest request) {
+        return ResponseEntity.ok(enrollmentImportService.importEnrollments(request));
+    }
+
     @PatchMapping("/{id}/status")
     public ResponseEntity<EnrollmentDto> updateEnrollmentStatus(
             @PathVariable Integer id,
@@ -57,6 +120,29 @@ public class EnrollmentController {
         return ResponseEntity.ok(enrollmentService.updateEnrollmentStatus(id, request));
     }
 
+    /**
+     * Перевести все записи курса из fromStatus (по умолчанию ACTIVE) в status, например при закрытии курса
+     * Только ADMIN
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PatchMapping("/course/{courseId}/status")
+    public ResponseEntity<BulkStatusResult> updateCourseEnrollmentsStatus(
+            @PathVariable Integer courseId,
+            @RequestBody EnrollmentDto.CourseStatusRequest request) {
+        return ResponseEntity.ok(enrollmentStatusService.updateCourseStatus(courseId, request));
+    }
+
+    /**
+     * Перевести записи из списка id в status
+     * Только ADMIN
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PatchMapping("/status")
+    public ResponseEntity<BulkStatusResult> updateEnrollmentsStatus(
+            @RequestBody EnrollmentDto.BulkStatusRequest request) {
+        return ResponseEntity.ok(enrollmentStatusService.updateStatuses(request));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteEnrollment(@PathVariable Integer id) {
         enrollmentService.deleteEnrollment(id);
@@ -0,0 +1,106 @@
+package sf.mifi.grechko.controllers;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import sf.mifi.grechko.cache.CatalogResponseCache;
+import sf.mifi.grechko.dto.CursorPage;
+
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Ответ со страницей: ссылка на следующую страницу дублируется в заголовке
+ * {@code Link: <...>; rel="next"} (RFC 8288).
+ * Здесь же потоковая выгрузка - список без страниц
+ */
+final class PageResponses {
+
+    private PageResponses() {
+    }
+
+    static <T> ResponseEntity<CursorPage<T>> ok(CursorPage<T> page) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        addNextLink(builder, page.getNextCursor());
+        return builder.body(page);
+    }
+
+    /**
+     * Готовая страница из кэша: байты пишутся как есть, gzip - если клиент его принимает
+     */
+    static ResponseEntity<byte[]> ok(CatalogResponseCache.CachedPage page, String acceptEncoding,
+                                     CacheControl cacheControl) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(page.getEtag())
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        addNextLink(builder, page.getNextCursor());
+
+        if (acceptsGzip(acceptEncoding)) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(page.getGzip());
+        }
+        return builder.body(page.getIdentity());
+    }
+
+    /**
+     * Потоковая выгрузка: тело пишется в асинхронном потоке после возврата из контроллера
+     */
+    static ResponseEntity<StreamingResponseBody> ndjson(String name, Consumer<OutputStream> writer) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + ".ndjson\"")
+                .cacheControl(CacheControl.noStore())
+                .body(writer::accept);
+    }
+
+    /**
+     * Принимает ли клиент gzip по Accept-Encoding (RFC 9110): явное gzip или * с ненулевым q.
+     * {@code gzip;q=0} - отказ от gzip, даже если разрешено *
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String item : acceptEncoding.split(",")) {
+            String[] parts = item.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = quality;
+            } else if (coding.equals("*")) {
+                any = quality;
+            }
+        }
+        if (gzip != null) {
+            return gzip > 0;
+        }
+        return any != null && any > 0;
+    }
+
+    private static void addNextLink(ResponseEntity.BodyBuilder builder, String nextCursor) {
+        if (nextCursor != null) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", nextCursor)
+                    .build()
+                    .toUriString();
+            builder.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+    }
+}
@@ -3,18 +3,19 @@ package sf.mifi.grechko.controllers;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
-import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import sf.mifi.grechko.dto.EntityVersion;
 import sf.mifi.grechko.dto.ProfileDto;
 import sf.mifi.grechko.dto.UpdateProfileRequest;
-import sf.mifi.grechko.models.User;
 import sf.mifi.grechko.services.ProfileService;
 import sf.mifi.grechko.services.UserService;
 
+import java.util.Optional;
+
 @RestController
 @RequestMapping("/api/profiles")
 @RequiredArgsConstructor
@@ -23,6 +24,7 @@ public class ProfileController {
 
     private final ProfileService profileService;
     private final UserService userService;
+    private final ConditionalResponses conditionalResponses;
 
     /**
      * Получить свой профиль
@@ -30,13 +32,11 @@ public class ProfileController {
      */
     @GetMapping("/me")
     @Operation(summary = "Получить свой профиль")
-    public ResponseEntity<ProfileDto> getMyProfile() {
+    public ResponseEntity<ProfileDto> getMyProfile(WebRequest request) {
 
-        User currentUser = userService.getCurrentUser();
+        Integer currentUserId = userService.getCurrentUserId();
 
-        return profileService.getMyProfile(currentUser.getId())
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        return getProfile(currentUserId, request);
     }
 
     /**
@@ -46,11 +46,9 @@ public class ProfileController {
     @GetMapping("/user/{userId}")
     @Operation(summary = "Получить профиль пользователя по ID")
     public ResponseEntity<ProfileDto> getProfileByUserId(
-            @PathVariable Integer userId) {
+            @PathVariable Integer userId, WebRequest request) {
         // Все аутентифицированные могут смотреть профили
-        return profileService.getProfileByUserId(userId)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        return getProfile(userId, request);
     }
 
     /**
@@ -62,7 +60,7 @@ public class ProfileController {
     public ResponseEntity<ProfileDto> updateMyProfile(
             @Valid @RequestBody UpdateProfileRequest request) {
 
-        User currentUser = userService.getCurrentUser();
+        Integer currentUserId = userService.getCurrentUserId();
 
         ProfileDto profileDto = new ProfileDto();
         profileDto.setBio(request.getBio());
@@ -70,7 +68,7 @@ public class ProfileController {
         profileDto.setEmail(request.getEmail());
 
         ProfileDto updated = profileService.createOrUpdateProfile(
-                currentUser.getId(), profileDto);
+                currentUserId, profileDto);
         return ResponseEntity.ok(updated);
     }
 
@@ -93,4 +91,13 @@ public class ProfileController {
         ProfileDto updated = profileService.createOrUpdateProfile(userId, profileDto);
         return ResponseEntity.ok(updated);
     }
+
+    private ResponseEntity<ProfileDto> getProfile(Integer userId, WebRequest request) {
+        Optional<EntityVersion> version = profileService.getProfileVersion(userId);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return conditionalResponses.personal(request, version, () -> profileService.getProfileByUserId(userId)
+                .orElseThrow(() -> new IllegalArgumentException("Профиль не найден")));
+    }
 }
@@ -4,10 +4,15 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import sf.mifi.grechko.models.User;
+import sf.mifi.grechko.services.UserImportService;
 import sf.mifi.grechko.services.UserService;
+import sf.mifi.grechko.dto.BulkImportResult;
+import sf.mifi.grechko.dto.CursorPage;
+import sf.mifi.grechko.dto.UserSummaryDto;
 import sf.mifi.grechko.dto.CreateUserRequest;
 import sf.mifi.grechko.dto.ChangePasswordRequest;
 
@@ -20,11 +25,15 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final UserImportService userImportService;
 
     @GetMapping
-    @Operation(summary = "Получить всех пользователей (только для ADMIN)")
-    public ResponseEntity<List<User>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    @Operation(summary = "Получить страницу пользователей (только для ADMIN)")
+    public ResponseEntity<CursorPage<UserSummaryDto>> getUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) User.Role role) {
+        return PageResponses.ok(userService.getUsers(cursor, size, role));
     }
 
     @PostMapping
@@ -39,6 +48,18 @@ public class UserController {
         return ResponseEntity.ok(user);
     }
 
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Массовое создание пользователей из JSON-массива (только для ADMIN)")
+    public ResponseEntity<BulkImportResult> importUsers(@RequestBody List<CreateUserRequest> requests) {
+        return ResponseEntity.ok(userImportService.importUsers(requests));
+    }
+
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    @Operation(summary = "Массовое создание пользователей из CSV login,password,role (только для ADMIN)")
+    public ResponseEntity<BulkImportResult> importUsersCsv(@RequestBody String csv) {
+        return ResponseEntity.ok(userImportService.importCsv(csv));
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Удалить пользователя (только для ADMIN)")
     public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
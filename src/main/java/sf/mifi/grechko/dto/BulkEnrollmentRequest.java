@@ -0,0 +1,16 @@
+package sf.mifi.grechko.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Массовая запись на курсы: группа пользователей на один курс (courseId + userIds)
+ * и/или произвольные пары пользователь-курс. Строки результата нумеруются сначала по userIds, затем по pairs
+ */
+@Data
+public class BulkEnrollmentRequest {
+    private Integer courseId;
+    private List<Integer> userIds;
+    private List<EnrollmentDto.CreateRequest> pairs;
+}
@@ -0,0 +1,44 @@
+package sf.mifi.grechko.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Результат массовой операции с построчным статусом
+ */
+@Data
+public class BulkImportResult {
+    private int total;
+    private int created;
+    private int duplicates;
+    private int invalid;
+    private List<RowResult> rows = new ArrayList<>();
+
+    public void addRow(int row, String key, RowStatus status, String message) {
+        rows.add(new RowResult(row, key, status, message));
+        total++;
+        switch (status) {
+            case CREATED -> created++;
+            case DUPLICATE -> duplicates++;
+            case INVALID -> invalid++;
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowResult {
+        private int row;          // номер строки во входных данных, с 1
+        private String key;       // логин / название / пара user:course
+        private RowStatus status;
+        private String message;
+    }
+
+    public enum RowStatus {
+        CREATED, DUPLICATE, INVALID
+    }
+}
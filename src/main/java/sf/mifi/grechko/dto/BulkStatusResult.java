@@ -0,0 +1,19 @@
+package sf.mifi.grechko.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Итог массовой смены статуса записей
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusResult {
+    private String status;
+    // Записи, перешедшие в status
+    private long updated;
+    // Не переведены: уже в этом статусе, не найдены или на курсе кончились места
+    private long skipped;
+}
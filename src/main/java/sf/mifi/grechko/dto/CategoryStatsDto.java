@@ -0,0 +1,26 @@
+package sf.mifi.grechko.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Категория с числом курсов и активных записей на них (GET /api/categories?withStats=true)
+ */
+@Data
+@NoArgsConstructor
+public class CategoryStatsDto {
+    private Integer id;
+    private String name;
+    private long courseCount;
+    private long activeEnrollments;
+
+    /**
+     * Для JPQL-проекции: SUM по пустой группе дает null
+     */
+    public CategoryStatsDto(Integer id, String name, Long courseCount, Long activeEnrollments) {
+        this.id = id;
+        this.name = name;
+        this.courseCount = courseCount != null ? courseCount : 0;
+        this.activeEnrollments = activeEnrollments != null ? activeEnrollments : 0;
+    }
+}
@@ -0,0 +1,65 @@
+package sf.mifi.grechko.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Все для страницы курса одним ответом: курс с категорией, преподаватель с публичной частью
+ * профиля и число записей по статусам
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseDetailsDto {
+    private CourseDto course;
+    private Teacher teacher;
+    private EnrollmentCounts enrollments;
+
+    /**
+     * Для JPQL-проекции (SELECT new ...): одна плоская строка запроса.
+     * Профиля и счетчиков может не быть - тогда null и нули
+     */
+    public CourseDetailsDto(Integer id, String title, String description,
+                            Integer categoryId, String categoryName,
+                            Integer teacherId, String teacherLogin,
+                            String duration, LocalDate startDate, Integer capacity,
+                            LocalDateTime createdAt, LocalDateTime updatedAt,
+                            String teacherBio, String teacherAvatarUrl,
+                            Long activeCount, Long completedCount, Long cancelledCount, Long waitlistedCount) {
+        this.course = new CourseDto(id, title, description, categoryId, categoryName,
+                teacherId, teacherLogin, duration, startDate, capacity, createdAt, updatedAt);
+        this.teacher = new Teacher(teacherId, teacherLogin, teacherBio, teacherAvatarUrl);
+        this.enrollments = new EnrollmentCounts(
+                activeCount != null ? activeCount : 0,
+                completedCount != null ? completedCount : 0,
+                cancelledCount != null ? cancelledCount : 0,
+                waitlistedCount != null ? waitlistedCount : 0);
+    }
+
+    /**
+     * Преподаватель и публичные поля его профиля (без email)
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Teacher {
+        private Integer id;
+        private String login;
+        private String bio;
+        private String avatarUrl;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class EnrollmentCounts {
+        private long active;
+        private long completed;
+        private long cancelled;
+        private long waitlisted;
+    }
+}
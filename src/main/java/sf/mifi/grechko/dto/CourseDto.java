@@ -1,12 +1,16 @@
 package sf.mifi.grechko.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import sf.mifi.grechko.models.Course;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class CourseDto {
     private Integer id;
     private String title;
@@ -17,6 +21,7 @@ public class CourseDto {
     private String teacherLogin;
     private String duration;
     private LocalDate startDate;
+    private Integer capacity;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -38,6 +43,7 @@ public class CourseDto {
 
         dto.setDuration(course.getDuration());
         dto.setStartDate(course.getStartDate());
+        dto.setCapacity(course.getCapacity());
         dto.setCreatedAt(course.getCreatedAt());
         dto.setUpdatedAt(course.getUpdatedAt());
 
@@ -0,0 +1,102 @@
+package sf.mifi.grechko.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Фильтр списка курсов: GET /api/courses?category=&teacher=&startFrom=&startTo=&q=&sort=
+ * Все условия необязательные и объединяются через AND
+ */
+@Data
+public class CourseFilter {
+    private Integer category;
+    private Integer teacher;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate startFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate startTo;
+
+    private String q;      // подстрока названия, без учета регистра
+    private String sort;   // id (по умолчанию), startDate, title, createdAt; "-" в начале - по убыванию
+
+    /**
+     * Задано ли хоть одно условие или сортировка не по умолчанию
+     */
+    public boolean hasCriteria() {
+        return category != null || teacher != null || startFrom != null || startTo != null
+                || hasQuery() || (sort != null && !sort.isBlank());
+    }
+
+    /**
+     * Задана ли подстрока названия: такие запросы почти не повторяются, их ответы не кэшируются
+     */
+    public boolean hasQuery() {
+        return q != null && !q.isBlank();
+    }
+
+    /**
+     * Каноническое представление для ключа кэша ответов (запросы с q не кэшируются)
+     */
+    public String cacheKey() {
+        return category + "|" + teacher + "|" + startFrom + "|" + startTo + "|" + Sort.parse(sort).getParam();
+    }
+
+    public enum Sort {
+        ID("id", "id", false),
+        START_DATE("startDate", "startDate", false),
+        START_DATE_DESC("-startDate", "startDate", true),
+        TITLE("title", "title", false),
+        TITLE_DESC("-title", "title", true),
+        CREATED_AT("createdAt", "createdAt", false),
+        CREATED_AT_DESC("-createdAt", "createdAt", true);
+
+        private final String param;
+        private final String attribute;
+        private final boolean descending;
+
+        Sort(String param, String attribute, boolean descending) {
+            this.param = param;
+            this.attribute = attribute;
+            this.descending = descending;
+        }
+
+        public String getParam() {
+            return param;
+        }
+
+        public String getAttribute() {
+            return attribute;
+        }
+
+        public boolean isDescending() {
+            return descending;
+        }
+
+        public static Sort parse(String value) {
+            if (value == null || value.isBlank()) {
+                return ID;
+            }
+            return Arrays.stream(values())
+                    .filter(sort -> sort.param.equals(value.trim()))
+                    .findFirst()
+                    .orElseThrow(() -> new InvalidSortException(value));
+        }
+    }
+
+    /**
+     * Неизвестное значение sort - ошибка клиента (400), а не сервера
+     */
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public static class InvalidSortException extends IllegalArgumentException {
+        public InvalidSortException(String value) {
+            super("Некорректная сортировка: " + value);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package sf.mifi.grechko.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Подсказка автодополнения: курс и его название
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseSuggestionDto {
+    private Integer id;
+    private String title;
+}
@@ -12,4 +12,5 @@ public class CreateCourseRequest {
     private Integer teacherId;  // Только для ADMIN
     private String duration;
     private LocalDate startDate;
+    private Integer capacity;   // Число мест, null - без ограничения
 }
\ No newline at end of file
@@ -0,0 +1,131 @@
+package sf.mifi.grechko.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Страница keyset-пагинации.
+ * Курсор непрозрачен для клиента: внутри закодирован id последнего элемента страницы,
+ * следующая страница запрашивается условием {@code id > :afterId} по индексу, без OFFSET.
+ * Для выдачи с сортировкой не по id (поиск по релевантности) курсор хранит смещение.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    private static final String CURSOR_PREFIX = "id:";
+    private static final String OFFSET_PREFIX = "off:";
+
+    private List<T> items;
+    private String nextCursor;
+
+    /**
+     * Собрать страницу из выборки размером {@code size + 1}:
+     * лишний элемент означает, что есть следующая страница
+     */
+    public static <T> CursorPage<T> of(List<T> fetched, int size, Function<T, Integer> idExtractor) {
+        if (fetched.size() <= size) {
+            return new CursorPage<>(fetched, null);
+        }
+        List<T> items = fetched.subList(0, size);
+        return new CursorPage<>(List.copyOf(items), encodeCursor(idExtractor.apply(items.get(size - 1))));
+    }
+
+    /**
+     * Размер страницы с учетом значения по умолчанию и верхней границы
+     */
+    public static int normalizeSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+
+    public static String encodeCursor(Integer id) {
+        return encode(CURSOR_PREFIX, id);
+    }
+
+    /**
+     * id, после которого начинается страница (0 - с начала)
+     */
+    public static int decodeCursor(String cursor) {
+        return decode(CURSOR_PREFIX, cursor);
+    }
+
+    public static String encodeOffset(int offset) {
+        return encode(OFFSET_PREFIX, offset);
+    }
+
+    /**
+     * Смещение, с которого начинается страница (0 - с начала)
+     */
+    public static int decodeOffset(String cursor) {
+        return decode(OFFSET_PREFIX, cursor);
+    }
+
+    /**
+     * Курсор в каноническом виде для ключа кэша: "id:42", "off:20", пустая строка - с начала.
+     * Один и тот же курсор в разной записи (лишние нули, паддинг Base64) дает одно значение
+     */
+    public static String normalizeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return "";
+        }
+        String prefix = decodeString(cursor).startsWith(OFFSET_PREFIX) ? OFFSET_PREFIX : CURSOR_PREFIX;
+        return prefix + decode(prefix, cursor);
+    }
+
+    private static String encode(String prefix, int value) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((prefix + value).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int decode(String prefix, String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        String value = decodeString(cursor);
+        if (!value.startsWith(prefix)) {
+            throw new InvalidCursorException(null);
+        }
+        try {
+            int result = Integer.parseInt(value.substring(prefix.length()));
+            if (result < 0) {
+                throw new InvalidCursorException(null);
+            }
+            return result;
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException(e);
+        }
+    }
+
+    private static String decodeString(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(e);
+        }
+    }
+
+    /**
+     * Испорченный или поддельный курсор - ошибка клиента (400), а не сервера
+     */
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public static class InvalidCursorException extends IllegalArgumentException {
+        public InvalidCursorException(Throwable cause) {
+            super("Некорректный курсор", cause);
+        }
+    }
+}
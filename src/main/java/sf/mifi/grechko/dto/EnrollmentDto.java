@@ -1,9 +1,14 @@
 package sf.mifi.grechko.dto;
 
 import lombok.Data;
+import lombok.NoArgsConstructor;
+import sf.mifi.grechko.models.Enrollment;
+
 import java.time.LocalDate;
+import java.util.List;
 
 @Data
+@NoArgsConstructor
 public class EnrollmentDto {
     private Integer id;
     private Integer userId;
@@ -12,6 +17,19 @@ public class EnrollmentDto {
     private LocalDate enrollDate;
     private String status;
 
+    /**
+     * Для JPQL-проекции (SELECT new ...), статус приходит как enum
+     */
+    public EnrollmentDto(Integer id, Integer userId, Integer courseId, String courseTitle,
+                         LocalDate enrollDate, Enrollment.EnrollmentStatus status) {
+        this.id = id;
+        this.userId = userId;
+        this.courseId = courseId;
+        this.courseTitle = courseTitle;
+        this.enrollDate = enrollDate;
+        this.status = status != null ? status.name() : null;
+    }
+
     @Data
     public static class CreateRequest {
         private Integer userId;
@@ -24,4 +42,22 @@ public class EnrollmentDto {
     public static class UpdateRequest {
         private String status;
     }
+
+    /**
+     * Перевод всех записей курса из fromStatus (по умолчанию ACTIVE) в status
+     */
+    @Data
+    public static class CourseStatusRequest {
+        private String fromStatus;
+        private String status;
+    }
+
+    /**
+     * Перевод записей из списка id в status
+     */
+    @Data
+    public static class BulkStatusRequest {
+        private List<Integer> ids;
+        private String status;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package sf.mifi.grechko.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Валидаторы HTTP-кэша для одной сущности: ETag из id и версий строк, Last-Modified из времени изменения.
+ * Читается отдельным легким запросом, чтобы ответить 304 без загрузки и сериализации тела
+ */
+@Data
+@NoArgsConstructor
+public class EntityVersion {
+    private String etag;
+    private LocalDateTime lastModified;
+
+    public EntityVersion(Integer id, Long version, LocalDateTime updatedAt) {
+        this.etag = "\"" + id + "-" + version + "\"";
+        this.lastModified = updatedAt;
+    }
+
+    /**
+     * Сущность, в представление которой входят поля связанной (курс - название категории)
+     */
+    public EntityVersion(Integer id, Long version, Long relatedVersion,
+                         LocalDateTime updatedAt, LocalDateTime relatedUpdatedAt) {
+        this.etag = "\"" + id + "-" + version + "-" + relatedVersion + "\"";
+        this.lastModified = updatedAt == null || (relatedUpdatedAt != null && relatedUpdatedAt.isAfter(updatedAt))
+                ? relatedUpdatedAt
+                : updatedAt;
+    }
+}
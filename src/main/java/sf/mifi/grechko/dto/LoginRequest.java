@@ -0,0 +1,13 @@
+package sf.mifi.grechko.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class LoginRequest {
+    @NotBlank(message = "Логин не может быть пустым")
+    private String login;
+
+    @NotBlank(message = "Пароль не может быть пустым")
+    private String password;
+}
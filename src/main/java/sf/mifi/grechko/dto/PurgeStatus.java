@@ -0,0 +1,26 @@
+package sf.mifi.grechko.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ход фоновой очистки после мягкого удаления курсов и пользователей
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurgeStatus {
+    private boolean running;
+    // Что очищается сейчас, например "course:42"; null - очистка не идет
+    private String current;
+    private long pendingCourses;
+    private long pendingUsers;
+    private long purgedCourses;
+    private long purgedUsers;
+    private long purgedEnrollments;
+    private LocalDateTime lastRunStartedAt;
+    private LocalDateTime lastRunFinishedAt;
+}
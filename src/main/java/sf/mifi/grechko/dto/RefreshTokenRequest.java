@@ -0,0 +1,10 @@
+package sf.mifi.grechko.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class RefreshTokenRequest {
+    @NotBlank(message = "Refresh-токен не может быть пустым")
+    private String refreshToken;
+}
@@ -12,4 +12,5 @@ public class UpdateCourseRequest {
     private Integer teacherId;  // Только для ADMIN
     private String duration;
     private LocalDate startDate;
+    private Integer capacity;   // Число мест, null - без ограничения
 }
@@ -0,0 +1,18 @@
+package sf.mifi.grechko.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import sf.mifi.grechko.models.User;
+
+/**
+ * Пользователь в списках: только поля из таблицы users, без профиля и записей на курсы
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummaryDto {
+    private Integer id;
+    private String login;
+    private User.Role role;
+}
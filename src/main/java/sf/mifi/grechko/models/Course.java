@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SQLRestriction;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDate;
@@ -12,15 +13,19 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+// Удаленные курсы (ждут фоновой очистки) не видны ни в одном запросе к сущности
 @Entity
 @Table(name = "courses")
+@SQLRestriction("deleted_at IS NULL")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Course {
 
+    // Последовательность с шагом 50 (миграция V9): id выделяются пачкой, вставки идут JDBC batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "courses_id_seq")
+    @SequenceGenerator(name = "courses_id_seq", sequenceName = "courses_id_seq", allocationSize = 50)
     private Integer id;
 
     @Column(nullable = false, length = 200)
@@ -45,6 +50,9 @@ public class Course {
     @Column(name = "start_date")
     private LocalDate startDate;
 
+    // Число мест; null - без ограничения. Занятые места - активные записи (CourseEnrollmentCount)
+    private Integer capacity;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -53,6 +61,13 @@ public class Course {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Версия строки: оптимистичная блокировка и ETag
+    @Version
+    private Long version;
+
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     @OneToMany(mappedBy = "course", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Enrollment> enrollments = new ArrayList<>();
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+package sf.mifi.grechko.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Счетчики записей на курс по статусам.
+ * Связь с курсом только по id: строка удаляется вместе с курсом каскадом в БД
+ */
+@Entity
+@Table(name = "course_enrollment_counts")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseEnrollmentCount {
+
+    @Id
+    @Column(name = "course_id")
+    private Integer courseId;
+
+    @Column(name = "active_count", nullable = false)
+    private long activeCount;
+
+    @Column(name = "completed_count", nullable = false)
+    private long completedCount;
+
+    @Column(name = "cancelled_count", nullable = false)
+    private long cancelledCount;
+
+    @Column(name = "waitlisted_count", nullable = false)
+    private long waitlistedCount;
+
+    // Курс закрыт: места не выдаются ни новым записям, ни листу ожидания
+    @Column(name = "enrollment_closed", nullable = false)
+    private boolean enrollmentClosed;
+
+    public long get(Enrollment.EnrollmentStatus status) {
+        return switch (status) {
+            case ACTIVE -> activeCount;
+            case COMPLETED -> completedCount;
+            case CANCELLED -> cancelledCount;
+            case WAITLISTED -> waitlistedCount;
+        };
+    }
+
+    public boolean sameCounts(CourseEnrollmentCount other) {
+        for (Enrollment.EnrollmentStatus status : Enrollment.EnrollmentStatus.values()) {
+            if (get(status) != other.get(status)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void set(Enrollment.EnrollmentStatus status, long value) {
+        switch (status) {
+            case ACTIVE -> activeCount = value;
+            case COMPLETED -> completedCount = value;
+            case CANCELLED -> cancelledCount = value;
+            case WAITLISTED -> waitlistedCount = value;
+        }
+    }
+}
@@ -9,7 +9,8 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "enrollments")
+@Table(name = "enrollments", uniqueConstraints =
+        @UniqueConstraint(name = "uq_enrollment_user_course", columnNames = {"user_id", "course_id"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -44,7 +45,9 @@ public class Enrollment {
     private LocalDateTime updatedAt;
 
     public enum EnrollmentStatus {
-        ACTIVE, COMPLETED, CANCELLED
+        ACTIVE, COMPLETED, CANCELLED,
+        // Мест нет: запись ждет освобождения места, места раздаются в порядке id
+        WAITLISTED
     }
 
     // Дополнительные методы для удобства
@@ -40,4 +40,8 @@ public class Profile {
     @UpdateTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    // Версия строки: оптимистичная блокировка и ETag
+    @Version
+    private Long version;
 }
@@ -5,12 +5,16 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.SQLRestriction;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+// Удаленные пользователи (ждут фоновой очистки) не видны и не могут войти
 @Entity
 @Table(name = "users")
+@SQLRestriction("deleted_at IS NULL")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -30,11 +34,16 @@ public class User {
     @Column(nullable = false, length = 20)
     private Role role;
 
+    @JsonIgnore
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     @OneToOne(mappedBy = "user", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @JsonIgnore  // Чтобы не было циклической ссылки в JSON
     private Profile profile;
 
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
+    @JsonIgnore  // Записи отдаются отдельными эндпоинтами, иначе ленивая загрузка на каждого пользователя
     private List<Enrollment> enrollments = new ArrayList<>();
 
     public enum Role {
@@ -1,9 +1,16 @@
 package sf.mifi.grechko.repositories;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import sf.mifi.grechko.dto.CategoryStatsDto;
+import sf.mifi.grechko.dto.EntityVersion;
 import sf.mifi.grechko.models.Category;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +19,20 @@ public interface CategoryRepository extends JpaRepository<Category, Integer> {
     Optional<Category> findByName(String name);
 
     boolean existsByName(String name);
+
+    List<Category> findByIdGreaterThanOrderByIdAsc(Integer afterId, Pageable pageable);
+
+    // Страница категорий с агрегатами одним GROUP BY: курсы через связь (удаленные исключаются),
+    // активные записи - из денормализованных счетчиков, без обхода enrollments
+    @Query("SELECT new sf.mifi.grechko.dto.CategoryStatsDto(cat.id, cat.name, COUNT(c.id), SUM(ec.activeCount)) " +
+            "FROM Category cat LEFT JOIN cat.courses c " +
+            "LEFT JOIN CourseEnrollmentCount ec ON ec.courseId = c.id " +
+            "WHERE cat.id > :afterId GROUP BY cat.id, cat.name ORDER BY cat.id")
+    List<CategoryStatsDto> findStatsPage(@Param("afterId") Integer afterId, Pageable pageable);
+
+    @Query("SELECT c.id FROM Category c WHERE c.id IN :ids")
+    List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
+    @Query("SELECT new sf.mifi.grechko.dto.EntityVersion(c.id, c.version, c.updatedAt) FROM Category c WHERE c.id = :id")
+    Optional<EntityVersion> findVersionById(@Param("id") Integer id);
 }
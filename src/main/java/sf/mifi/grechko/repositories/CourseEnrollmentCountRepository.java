@@ -0,0 +1,67 @@
+package sf.mifi.grechko.repositories;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import sf.mifi.grechko.models.CourseEnrollmentCount;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CourseEnrollmentCountRepository extends JpaRepository<CourseEnrollmentCount, Integer> {
+
+    // Атомарное изменение на месте: блокировка строки сериализует параллельные записи на один курс
+    @Modifying
+    @Query("UPDATE CourseEnrollmentCount c SET " +
+            "c.activeCount = c.activeCount + :active, " +
+            "c.completedCount = c.completedCount + :completed, " +
+            "c.cancelledCount = c.cancelledCount + :cancelled, " +
+            "c.waitlistedCount = c.waitlistedCount + :waitlisted " +
+            "WHERE c.courseId = :courseId")
+    int addDeltas(@Param("courseId") Integer courseId,
+                  @Param("active") long active,
+                  @Param("completed") long completed,
+                  @Param("cancelled") long cancelled,
+                  @Param("waitlisted") long waitlisted);
+
+    // Занять место: условие проверяется под блокировкой строки, после ожидания - по новой версии.
+    // 0 строк - мест нет, запись на курс закрыта (или строки счетчиков еще нет)
+    @Modifying
+    @Query("UPDATE CourseEnrollmentCount c SET c.activeCount = c.activeCount + 1 " +
+            "WHERE c.courseId = :courseId AND c.activeCount < :capacity AND c.enrollmentClosed = false")
+    int takeSeat(@Param("courseId") Integer courseId, @Param("capacity") long capacity);
+
+    // Открытые курсы, где есть и ожидающие, и свободные места
+    @Query("SELECT c.courseId FROM CourseEnrollmentCount c, Course co " +
+            "WHERE co.id = c.courseId AND c.waitlistedCount > 0 AND c.enrollmentClosed = false " +
+            "AND (co.capacity IS NULL OR c.activeCount < co.capacity) ORDER BY c.courseId")
+    List<Integer> findCoursesToPromote();
+
+    @Modifying
+    @Query(value = "INSERT INTO course_enrollment_counts " +
+            "(course_id, active_count, completed_count, cancelled_count, waitlisted_count, enrollment_closed) " +
+            "VALUES (:courseId, 0, 0, 0, 0, false) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("courseId") Integer courseId);
+
+    @Query("SELECT c.enrollmentClosed FROM CourseEnrollmentCount c WHERE c.courseId = :courseId")
+    Optional<Boolean> findEnrollmentClosed(@Param("courseId") Integer courseId);
+
+    @Modifying
+    @Query("DELETE FROM CourseEnrollmentCount c WHERE c.courseId = :courseId")
+    int deleteByCourseId(@Param("courseId") Integer courseId);
+
+    @Query("SELECT c.courseId FROM CourseEnrollmentCount c WHERE c.courseId IN :courseIds")
+    List<Integer> findExistingIds(@Param("courseIds") Collection<Integer> courseIds);
+
+    // Сверка: строки блокируются в порядке id, чтобы параллельные сверки не взаимоблокировались
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM CourseEnrollmentCount c WHERE c.courseId IN :courseIds ORDER BY c.courseId")
+    List<CourseEnrollmentCount> findForUpdate(@Param("courseIds") Collection<Integer> courseIds);
+}
@@ -0,0 +1,18 @@
+package sf.mifi.grechko.repositories;
+
+import sf.mifi.grechko.dto.CourseDto;
+import sf.mifi.grechko.dto.CourseFilter;
+
+import java.util.List;
+
+/**
+ * Фрагмент CourseRepository: динамический фильтр курсов через Criteria API
+ */
+public interface CourseFilterRepository {
+
+    /**
+     * Страница курсов по фильтру в виде DTO-проекции (один SELECT с join категории и преподавателя).
+     * Для сортировки по id страница задается keyset-условием {@code id > afterId}, для остальных - смещением
+     */
+    List<CourseDto> findFiltered(CourseFilter filter, CourseFilter.Sort sort, int afterId, int offset, int limit);
+}
@@ -0,0 +1,81 @@
+package sf.mifi.grechko.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import sf.mifi.grechko.dto.CourseDto;
+import sf.mifi.grechko.dto.CourseFilter;
+import sf.mifi.grechko.models.Category;
+import sf.mifi.grechko.models.Course;
+import sf.mifi.grechko.models.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Условия добавляются только для заданных параметров, поэтому планировщик видит простой запрос
+ * и может взять составной индекс под конкретную комбинацию (миграция V10)
+ */
+class CourseFilterRepositoryImpl implements CourseFilterRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<CourseDto> findFiltered(CourseFilter filter, CourseFilter.Sort sort, int afterId, int offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CourseDto> query = cb.createQuery(CourseDto.class);
+        Root<Course> course = query.from(Course.class);
+        Join<Course, Category> category = course.join("category");
+        Join<Course, User> teacher = course.join("teacher");
+
+        // Те же колонки, что в CourseRepository.COURSE_DTO_SELECT
+        query.select(cb.construct(CourseDto.class,
+                course.get("id"), course.get("title"), course.get("description"),
+                category.get("id"), category.get("name"),
+                teacher.get("id"), teacher.get("login"),
+                course.get("duration"), course.get("startDate"), course.get("capacity"),
+                course.get("createdAt"), course.get("updatedAt")));
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getCategory() != null) {
+            predicates.add(cb.equal(category.get("id"), filter.getCategory()));
+        }
+        if (filter.getTeacher() != null) {
+            predicates.add(cb.equal(teacher.get("id"), filter.getTeacher()));
+        }
+        if (filter.getStartFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(course.get("startDate"), filter.getStartFrom()));
+        }
+        if (filter.getStartTo() != null) {
+            predicates.add(cb.lessThanOrEqualTo(course.get("startDate"), filter.getStartTo()));
+        }
+        if (filter.getQ() != null && !filter.getQ().isBlank()) {
+            String pattern = "%" + escapeLike(filter.getQ().trim().toLowerCase(Locale.ROOT)) + "%";
+            predicates.add(cb.like(cb.lower(course.get("title")), pattern, '\\'));
+        }
+        if (sort == CourseFilter.Sort.ID && afterId > 0) {
+            predicates.add(cb.greaterThan(course.get("id"), afterId));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+
+        List<Order> orders = new ArrayList<>();
+        if (sort != CourseFilter.Sort.ID) {
+            Path<Object> path = course.get(sort.getAttribute());
+            orders.add(sort.isDescending() ? cb.desc(path) : cb.asc(path));
+        }
+        // id - однозначный порядок при равных значениях, страницы по смещению не пересекаются
+        orders.add(cb.asc(course.get("id")));
+        query.orderBy(orders);
+
+        return entityManager.createQuery(query)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -1,24 +1,40 @@
 package sf.mifi.grechko.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import sf.mifi.grechko.dto.CourseDetailsDto;
+import sf.mifi.grechko.dto.CourseDto;
+import sf.mifi.grechko.dto.CourseSuggestionDto;
+import sf.mifi.grechko.dto.EntityVersion;
 import sf.mifi.grechko.models.Course;
 
-import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface CourseRepository extends JpaRepository<Course, Integer> {
+public interface CourseRepository extends JpaRepository<Course, Integer>, CourseFilterRepository {
+
+    // Проекция ровно в колонки CourseDto: один SELECT с join, без загрузки сущностей и ленивых связей
+    String COURSE_DTO_SELECT = "SELECT new sf.mifi.grechko.dto.CourseDto(" +
+            "c.id, c.title, c.description, cat.id, cat.name, t.id, t.login, " +
+            "c.duration, c.startDate, c.capacity, c.createdAt, c.updatedAt) " +
+            "FROM Course c JOIN c.category cat JOIN c.teacher t ";
+
+    String EXPORT_FETCH_SIZE = "1000";
 
     List<Course> findByTeacherId(Integer teacherId);
 
     List<Course> findByCategoryId(Integer categoryId);
 
-    List<Course> findByStartDateAfter(LocalDate date);
-
     List<Course> findByTitleContainingIgnoreCase(String title);
 
     @Query("SELECT c FROM Course c JOIN FETCH c.teacher JOIN FETCH c.category WHERE c.id = :id")
@@ -27,5 +43,103 @@ public interface CourseRepository extends JpaRepository<Course, Integer> {
     @Query("SELECT c FROM Course c JOIN FETCH c.teacher JOIN FETCH c.category")
     List<Course> findAllWithDetails();
 
+    // В представление курса входит название категории, поэтому ее версия тоже часть ETag
+    @Query("SELECT new sf.mifi.grechko.dto.EntityVersion(c.id, c.version, cat.version, c.updatedAt, cat.updatedAt) " +
+            "FROM Course c JOIN c.category cat WHERE c.id = :id")
+    Optional<EntityVersion> findVersionById(@Param("id") Integer id);
+
+    // Выгрузка: курсор БД порциями по EXPORT_FETCH_SIZE строк, без снимков для dirty checking
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query(COURSE_DTO_SELECT + "ORDER BY c.id")
+    Stream<CourseDto> streamAllDtos();
+
+    @Query(COURSE_DTO_SELECT + "WHERE c.id = :id")
+    Optional<CourseDto> findDtoById(@Param("id") Integer id);
+
+    // Страница курса одним SELECT: профиль и счетчики записей - левые join по ключу, их может не быть
+    @Query("SELECT new sf.mifi.grechko.dto.CourseDetailsDto(" +
+            "c.id, c.title, c.description, cat.id, cat.name, t.id, t.login, " +
+            "c.duration, c.startDate, c.capacity, c.createdAt, c.updatedAt, p.bio, p.avatarUrl, " +
+            "ec.activeCount, ec.completedCount, ec.cancelledCount, ec.waitlistedCount) " +
+            "FROM Course c JOIN c.category cat JOIN c.teacher t " +
+            "LEFT JOIN Profile p ON p.user = t " +
+            "LEFT JOIN CourseEnrollmentCount ec ON ec.courseId = c.id " +
+            "WHERE c.id = :id")
+    Optional<CourseDetailsDto> findDetailsById(@Param("id") Integer id);
+
+    @Query(COURSE_DTO_SELECT + "WHERE c.id IN :ids")
+    List<CourseDto> findDtosByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Query(COURSE_DTO_SELECT + "WHERE t.id = :teacherId ORDER BY c.id")
+    List<CourseDto> findDtosByTeacherId(@Param("teacherId") Integer teacherId);
+
+    // Keyset-страницы: id > :afterId ORDER BY id, лимит задается через Pageable
+    @Query(COURSE_DTO_SELECT + "WHERE c.id > :afterId ORDER BY c.id")
+    List<CourseDto> findPage(@Param("afterId") Integer afterId, Pageable pageable);
+
+    @Query(COURSE_DTO_SELECT + "WHERE t.id = :teacherId AND c.id > :afterId ORDER BY c.id")
+    List<CourseDto> findPageByTeacherId(@Param("teacherId") Integer teacherId,
+                                        @Param("afterId") Integer afterId,
+                                        Pageable pageable);
+
+    @Query(COURSE_DTO_SELECT + "WHERE cat.id = :categoryId AND c.id > :afterId ORDER BY c.id")
+    List<CourseDto> findPageByCategoryId(@Param("categoryId") Integer categoryId,
+                                         @Param("afterId") Integer afterId,
+                                         Pageable pageable);
+
+    // Полнотекстовый поиск по search_vector (GIN-индекс, миграция V7), только PostgreSQL.
+    // Запрос разбирается и русской, и английской конфигурацией, результат ранжируется
+    @Query(value = "SELECT c.id FROM courses c, " +
+            "(SELECT websearch_to_tsquery('russian', :query) || websearch_to_tsquery('english', :query) AS q) sq " +
+            "WHERE c.search_vector @@ sq.q AND c.deleted_at IS NULL " +
+            "AND (CAST(:categoryId AS INTEGER) IS NULL OR c.category_id = :categoryId) " +
+            "ORDER BY ts_rank_cd(c.search_vector, sq.q) DESC, c.id " +
+            "LIMIT :limit OFFSET :offset",
+            nativeQuery = true)
+    List<Integer> searchIds(@Param("query") String query,
+                            @Param("categoryId") Integer categoryId,
+                            @Param("limit") int limit,
+                            @Param("offset") int offset);
+
+    boolean existsByTeacherId(Integer teacherId);
+
+    // Проба по префиксу category_id индекса idx_courses_category_id_id (V6; одноколоночный индекс там удален),
+    // учитывая и курсы, ждущие очистки: внешний ключ видит их
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM courses WHERE category_id = :categoryId)", nativeQuery = true)
+    boolean existsAnyByCategoryId(@Param("categoryId") Integer categoryId);
+
+    // Мягко удаленные курсы скрыты от запросов к сущности, очистка обращается к таблице напрямую
+    @Query(value = "SELECT id FROM courses WHERE deleted_at IS NOT NULL ORDER BY id", nativeQuery = true)
+    List<Integer> findDeletedIds();
+
+    @Query(value = "SELECT COUNT(*) FROM courses WHERE deleted_at IS NOT NULL", nativeQuery = true)
+    long countDeleted();
+
+    @Modifying
+    @Query(value = "DELETE FROM courses WHERE id = :id AND deleted_at IS NOT NULL", nativeQuery = true)
+    int purgeDeleted(@Param("id") Integer id);
+
+    @Query("SELECT c.id FROM Course c WHERE c.id > :afterId ORDER BY c.id")
+    List<Integer> findIdsAfter(@Param("afterId") Integer afterId, Pageable pageable);
+
+    // (id, capacity) существующих курсов: проверка id и вместимость для массовой записи одним запросом
+    @Query("SELECT c.id, c.capacity FROM Course c WHERE c.id IN :ids")
+    List<Object[]> findCapacities(@Param("ids") Collection<Integer> ids);
+
+    @Query("SELECT new sf.mifi.grechko.dto.CourseSuggestionDto(c.id, c.title) FROM Course c")
+    List<CourseSuggestionDto> findAllSuggestions();
+
+    @Query("SELECT new sf.mifi.grechko.dto.CourseSuggestionDto(c.id, c.title) FROM Course c WHERE c.id = :id")
+    Optional<CourseSuggestionDto> findSuggestionById(@Param("id") Integer id);
+
     boolean existsByTitleAndTeacherId(String title, Integer teacherId);
+
+    // Пары (teacherId, title) для проверки дубликатов при импорте одним запросом на пачку
+    @Query("SELECT c.teacher.id, c.title FROM Course c WHERE c.teacher.id IN :teacherIds AND c.title IN :titles")
+    List<Object[]> findTeacherTitles(@Param("teacherIds") Collection<Integer> teacherIds,
+                                     @Param("titles") Collection<String> titles);
 }
@@ -1,17 +1,39 @@
 package sf.mifi.grechko.repositories;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import sf.mifi.grechko.dto.EnrollmentDto;
 import sf.mifi.grechko.models.Enrollment;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface EnrollmentRepository extends JpaRepository<Enrollment, Integer> {
 
+    // Проекция ровно в колонки EnrollmentDto: id пользователя берется из внешнего ключа, без join на users
+    String ENROLLMENT_DTO_SELECT = "SELECT new sf.mifi.grechko.dto.EnrollmentDto(" +
+            "e.id, e.user.id, c.id, c.title, e.enrollDate, e.status) " +
+            "FROM Enrollment e JOIN e.course c ";
+
+    String EXPORT_FETCH_SIZE = "1000";
+
+    // Таймаут блокировки -2 (LockOptions.SKIP_LOCKED): FOR UPDATE SKIP LOCKED
+    String SKIP_LOCKED = "-2";
+
     List<Enrollment> findByUserId(Integer userId);
 
     List<Enrollment> findByCourseId(Integer courseId);
@@ -24,9 +46,100 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, Integer>
 
     long countByCourseIdAndStatus(Integer courseId, Enrollment.EnrollmentStatus status);
 
+    // Есть ли в листе ожидания курса запись раньше данной (очередь - по id)
+    boolean existsByCourseIdAndStatusAndIdLessThan(Integer courseId, Enrollment.EnrollmentStatus status, Integer id);
+
+    // Голова листа ожидания курса. SKIP LOCKED: параллельные обработчики (в том числе на других
+    // экземплярах) берут разные записи, не дожидаясь друг друга
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableSettings.JAKARTA_LOCK_TIMEOUT, value = SKIP_LOCKED))
+    @Query("SELECT e FROM Enrollment e WHERE e.course.id = :courseId " +
+            "AND e.status = sf.mifi.grechko.models.Enrollment.EnrollmentStatus.WAITLISTED ORDER BY e.id")
+    List<Enrollment> lockWaitlistHead(@Param("courseId") Integer courseId, Pageable pageable);
+
+    // Очистка после мягкого удаления: зависимые записи удаляются пачками по :limit строк,
+    // каждая пачка - одна инструкция в своей короткой транзакции
+    @Modifying
+    @Query(value = "DELETE FROM enrollments WHERE id IN " +
+            "(SELECT id FROM enrollments WHERE course_id = :courseId LIMIT :limit)", nativeQuery = true)
+    int deleteChunkByCourseId(@Param("courseId") Integer courseId, @Param("limit") int limit);
+
+    // Смена статуса пачкой записей курса одной инструкцией; порядок id - как в листе ожидания
+    @Modifying
+    @Query(value = "UPDATE enrollments SET status = :toStatus, updated_at = :now WHERE id IN " +
+            "(SELECT id FROM enrollments WHERE course_id = :courseId AND status = :fromStatus ORDER BY id LIMIT :limit)",
+            nativeQuery = true)
+    int updateStatusChunkByCourseId(@Param("courseId") Integer courseId,
+                                    @Param("fromStatus") String fromStatus,
+                                    @Param("toStatus") String toStatus,
+                                    @Param("now") LocalDateTime now,
+                                    @Param("limit") int limit);
+
+    @Query("SELECT DISTINCT e.course.id FROM Enrollment e WHERE e.id IN :ids")
+    List<Integer> findCourseIdsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    // (id, courseId, status) по списку id в порядке id
+    @Query("SELECT e.id, e.course.id, e.status FROM Enrollment e WHERE e.id IN :ids ORDER BY e.id")
+    List<Object[]> findStatusesByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Modifying
+    @Query("UPDATE Enrollment e SET e.status = :status, e.updatedAt = :now WHERE e.id IN :ids")
+    int updateStatusByIdIn(@Param("ids") Collection<Integer> ids,
+                           @Param("status") Enrollment.EnrollmentStatus status,
+                           @Param("now") LocalDateTime now);
+
+    @Query(value = "SELECT id FROM enrollments WHERE user_id = :userId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Integer> findIdChunkByUserId(@Param("userId") Integer userId, @Param("limit") int limit);
+
+    // (course_id, status, count) по пачке записей: поправка счетчиков курсов перед удалением
+    @Query(value = "SELECT course_id, status, COUNT(*) FROM enrollments WHERE id IN (:ids) " +
+            "GROUP BY course_id, status", nativeQuery = true)
+    List<Object[]> countByIdInGroupByCourseAndStatus(@Param("ids") Collection<Integer> ids);
+
+    @Modifying
+    @Query("DELETE FROM Enrollment e WHERE e.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Integer> ids);
+
+    // Уже существующие пары (userId, courseId) из декартова произведения пачки: лишние отсекаются в памяти
+    @Query("SELECT e.user.id, e.course.id FROM Enrollment e " +
+            "WHERE e.user.id IN :userIds AND e.course.id IN :courseIds")
+    List<Object[]> findPairs(@Param("userIds") Collection<Integer> userIds,
+                             @Param("courseIds") Collection<Integer> courseIds);
+
+    // Для сверки счетчиков: (courseId, status, count) по пачке курсов одним запросом
+    @Query("SELECT e.course.id, e.status, COUNT(e) FROM Enrollment e " +
+            "WHERE e.course.id IN :courseIds GROUP BY e.course.id, e.status")
+    List<Object[]> countByCourseIdsGroupByStatus(@Param("courseIds") Collection<Integer> courseIds);
+
     @Query("SELECT e FROM Enrollment e JOIN FETCH e.course WHERE e.user.id = :userId")
     List<Enrollment> findByUserIdWithCourses(@Param("userId") Integer userId);
 
     @Query("SELECT e FROM Enrollment e JOIN FETCH e.user WHERE e.course.id = :courseId")
     List<Enrollment> findByCourseIdWithUsers(@Param("courseId") Integer courseId);
+
+    // Выгрузка: курсор БД порциями по EXPORT_FETCH_SIZE строк, без снимков для dirty checking
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query(ENROLLMENT_DTO_SELECT + "ORDER BY e.id")
+    Stream<EnrollmentDto> streamAllDtos();
+
+    @Query(ENROLLMENT_DTO_SELECT + "WHERE e.id = :id")
+    Optional<EnrollmentDto> findDtoById(@Param("id") Integer id);
+
+    // Keyset-страницы: id > :afterId ORDER BY id, лимит задается через Pageable
+    @Query(ENROLLMENT_DTO_SELECT + "WHERE e.id > :afterId ORDER BY e.id")
+    List<EnrollmentDto> findPage(@Param("afterId") Integer afterId, Pageable pageable);
+
+    @Query(ENROLLMENT_DTO_SELECT + "WHERE e.user.id = :userId AND e.id > :afterId ORDER BY e.id")
+    List<EnrollmentDto> findPageByUserId(@Param("userId") Integer userId,
+                                         @Param("afterId") Integer afterId,
+                                         Pageable pageable);
+
+    @Query(ENROLLMENT_DTO_SELECT + "WHERE c.id = :courseId AND e.id > :afterId ORDER BY e.id")
+    List<EnrollmentDto> findPageByCourseId(@Param("courseId") Integer courseId,
+                                           @Param("afterId") Integer afterId,
+                                           Pageable pageable);
 }
@@ -1,9 +1,11 @@
 package sf.mifi.grechko.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import sf.mifi.grechko.dto.EntityVersion;
 import sf.mifi.grechko.models.Profile;
 
 import java.util.Optional;
@@ -23,6 +25,13 @@ public interface ProfileRepository extends JpaRepository<Profile, Long> {
     @Query("SELECT p FROM Profile p JOIN FETCH p.user WHERE p.user.id = :userId")
     Optional<Profile> findByUserIdWithUser(@Param("userId") Integer userId);
 
+    @Query("SELECT new sf.mifi.grechko.dto.EntityVersion(p.id, p.version, p.updatedAt) FROM Profile p JOIN p.user u WHERE u.id = :userId")
+    Optional<EntityVersion> findVersionByUserId(@Param("userId") Integer userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM profiles WHERE user_id = :userId", nativeQuery = true)
+    int deleteByUserIdNative(@Param("userId") Integer userId);
+
     @Query("SELECT p FROM Profile p JOIN FETCH p.user WHERE p.email = :email")
     Optional<Profile> findByEmail(String email);
 }
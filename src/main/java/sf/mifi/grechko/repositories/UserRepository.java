@@ -1,15 +1,59 @@
 package sf.mifi.grechko.repositories;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import sf.mifi.grechko.dto.UserSummaryDto;
 import sf.mifi.grechko.models.User;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByLogin(String login);
-    boolean existsByLogin(String login);
+
+    // Логин занят и мягко удаленным пользователем, пока строку не удалила очистка:
+    // уникальный индекс видит ее, поэтому проверка идет по таблице напрямую
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM users WHERE login = :login)", nativeQuery = true)
+    boolean existsByLogin(@Param("login") String login);
+
     boolean existsByRole(User.Role role);
     long countByRole(User.Role role);
+
+    // Страница списка пользователей: проекция без профиля и записей, keyset по первичному ключу
+    @Query("SELECT new sf.mifi.grechko.dto.UserSummaryDto(u.id, u.login, u.role) FROM User u " +
+            "WHERE u.id > :afterId AND (:role IS NULL OR u.role = :role) ORDER BY u.id")
+    List<UserSummaryDto> findSummariesAfter(@Param("afterId") Integer afterId,
+                                            @Param("role") User.Role role,
+                                            Pageable pageable);
+
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids AND u.role = :role")
+    List<Integer> findIdsByIdInAndRole(@Param("ids") Collection<Integer> ids, @Param("role") User.Role role);
+
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
+    // Как и existsByLogin - с учетом мягко удаленных
+    @Query(value = "SELECT login FROM users WHERE login IN (:logins)", nativeQuery = true)
+    List<String> findExistingLogins(@Param("logins") Collection<String> logins);
+
+    // Мягко удаленные пользователи скрыты от запросов к сущности, очистка обращается к таблице напрямую
+    @Query(value = "SELECT id FROM users WHERE deleted_at IS NOT NULL ORDER BY id", nativeQuery = true)
+    List<Integer> findDeletedIds();
+
+    @Query(value = "SELECT COUNT(*) FROM users WHERE deleted_at IS NOT NULL", nativeQuery = true)
+    long countDeleted();
+
+    @Modifying
+    @Query(value = "DELETE FROM users WHERE id = :id AND deleted_at IS NOT NULL", nativeQuery = true)
+    int purgeDeleted(@Param("id") Integer id);
+
+    @Modifying
+    @Query("UPDATE User u SET u.passwdHash = :hash WHERE u.login = :login")
+    int updatePasswdHashByLogin(@Param("login") String login, @Param("hash") String hash);
 }
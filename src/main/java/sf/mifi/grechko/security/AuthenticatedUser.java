@@ -0,0 +1,55 @@
+package sf.mifi.grechko.security;
+
+import lombok.Getter;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import sf.mifi.grechko.models.User;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal текущего пользователя.
+ * Хранит id, логин и роль, полученные при аутентификации (из БД или из JWT),
+ * чтобы сервисам не приходилось повторно загружать пользователя.
+ */
+@Getter
+public class AuthenticatedUser implements UserDetails, CredentialsContainer {
+
+    private final Integer id;
+    private final String login;
+    private final User.Role role;
+    private String password;
+
+    public AuthenticatedUser(Integer id, String login, User.Role role, String password) {
+        this.id = id;
+        this.login = login;
+        this.role = role;
+        this.password = password;
+    }
+
+    public static AuthenticatedUser fromEntity(User user) {
+        return new AuthenticatedUser(user.getId(), user.getLogin(), user.getRole(), user.getPasswdHash());
+    }
+
+    public boolean hasRole(User.Role role) {
+        return this.role == role;
+    }
+
+    @Override
+    public String getUsername() {
+        return login;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public void eraseCredentials() {
+        this.password = null;
+    }
+}
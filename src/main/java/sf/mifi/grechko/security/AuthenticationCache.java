@@ -0,0 +1,131 @@
+package sf.mifi.grechko.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Кэш успешных проверок логина/пароля.
+ * Ключ - HMAC-SHA256 от пары логин+пароль на случайном ключе процесса,
+ * поэтому сам пароль в памяти не хранится. Размер ограничен (LRU), записи живут ограниченное время.
+ */
+@Slf4j
+@Component
+public class AuthenticationCache {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final boolean enabled;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final SecretKeySpec secretKey;
+
+    private final Map<String, Entry> entries;
+
+    public AuthenticationCache(
+            @Value("${app.security.auth-cache.enabled:true}") boolean enabled,
+            @Value("${app.security.auth-cache.max-size:10000}") int maxSize,
+            @Value("${app.security.auth-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000;
+
+        byte[] keyBytes = new byte[32];
+        new SecureRandom().nextBytes(keyBytes);
+        this.secretKey = new SecretKeySpec(keyBytes, HMAC_ALGORITHM);
+
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > AuthenticationCache.this.maxSize;
+            }
+        };
+
+        log.info("Кэш аутентификации: enabled={}, maxSize={}, ttl={}s", enabled, maxSize, ttlSeconds);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Вернуть ранее подтвержденную аутентификацию для пары логин/пароль, если она еще не устарела
+     */
+    public Authentication get(String login, String password) {
+        if (!enabled) {
+            return null;
+        }
+
+        String key = digest(login, password);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt < System.currentTimeMillis()) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.authentication;
+        }
+    }
+
+    public void put(String login, String password, Authentication authentication) {
+        if (!enabled) {
+            return;
+        }
+
+        String key = digest(login, password);
+        Entry entry = new Entry(login, authentication, System.currentTimeMillis() + ttlMillis);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * Удалить все записи пользователя (смена пароля, роли, удаление)
+     */
+    public void invalidate(String login) {
+        synchronized (entries) {
+            entries.values().removeIf(entry -> entry.login.equals(login));
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private String digest(String login, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(secretKey);
+            mac.update(login.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            mac.update(password.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(mac.doFinal());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC недоступен", e);
+        }
+    }
+
+    private record Entry(String login, Authentication authentication, long expiresAt) {
+    }
+}
@@ -0,0 +1,45 @@
+package sf.mifi.grechko.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Провайдер-обертка: повторные запросы с теми же логином и паролем
+ * обслуживаются из {@link AuthenticationCache} без обращения к БД и без BCrypt.
+ * Неудачные попытки не кэшируются.
+ */
+@RequiredArgsConstructor
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+    private final AuthenticationCache authenticationCache;
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String login = authentication.getName();
+        Object credentials = authentication.getCredentials();
+        if (login == null || credentials == null) {
+            return delegate.authenticate(authentication);
+        }
+
+        String password = credentials.toString();
+        Authentication cached = authenticationCache.get(login, password);
+        if (cached != null) {
+            return cached;
+        }
+
+        Authentication result = delegate.authenticate(authentication);
+        if (result != null && result.isAuthenticated()) {
+            authenticationCache.put(login, password, result);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+}
@@ -0,0 +1,62 @@
+package sf.mifi.grechko.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+import sf.mifi.grechko.models.User;
+
+import java.io.IOException;
+
+/**
+ * Аутентификация по заголовку {@code Authorization: Bearer <jwt>}.
+ * Пользователь восстанавливается целиком из подписанных claims, без обращения к БД.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtService jwtService;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String token = header.substring(BEARER_PREFIX.length()).trim();
+        try {
+            Claims claims = jwtService.parse(token, JwtService.TYPE_ACCESS);
+            AuthenticatedUser principal = new AuthenticatedUser(
+                    claims.get(JwtService.CLAIM_USER_ID, Integer.class),
+                    claims.getSubject(),
+                    User.Role.valueOf(claims.get(JwtService.CLAIM_ROLE, String.class)),
+                    null);
+
+            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                    principal, null, principal.getAuthorities());
+            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+        } catch (JwtException | IllegalArgumentException e) {
+            // Невалидный токен: запрос продолжается анонимно, защищенные ресурсы ответят 401
+            log.debug("Отклонен JWT: {}", e.getMessage());
+            SecurityContextHolder.clearContext();
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
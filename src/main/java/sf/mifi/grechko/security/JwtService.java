@@ -0,0 +1,108 @@
+package sf.mifi.grechko.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Date;
+
+/**
+ * Выпуск и проверка JWT.
+ * В подписанных claims лежат id, логин и роль пользователя, поэтому
+ * проверка access-токена не требует ни запроса в БД, ни BCrypt.
+ */
+@Slf4j
+@Component
+public class JwtService {
+
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_TYPE = "typ";
+
+    public static final String TYPE_ACCESS = "access";
+    public static final String TYPE_REFRESH = "refresh";
+
+    private static final int MIN_SECRET_LENGTH = 32;
+
+    private final SecretKey signingKey;
+    private final long accessTtlSeconds;
+    private final long refreshTtlSeconds;
+
+    public JwtService(
+            @Value("${app.security.jwt.secret:}") String secret,
+            @Value("${app.security.jwt.access-ttl-seconds:900}") long accessTtlSeconds,
+            @Value("${app.security.jwt.refresh-ttl-seconds:604800}") long refreshTtlSeconds) {
+        this.accessTtlSeconds = accessTtlSeconds;
+        this.refreshTtlSeconds = refreshTtlSeconds;
+
+        if (secret == null || secret.isBlank()) {
+            log.warn("Секрет JWT не задан (app.security.jwt.secret), используется случайный ключ. "
+                    + "Токены перестанут действовать после перезапуска и не будут приниматься другими узлами");
+            byte[] keyBytes = new byte[MIN_SECRET_LENGTH];
+            new SecureRandom().nextBytes(keyBytes);
+            this.signingKey = Keys.hmacShaKeyFor(keyBytes);
+        } else {
+            byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+            if (keyBytes.length < MIN_SECRET_LENGTH) {
+                throw new IllegalStateException("Секрет JWT должен быть не короче " + MIN_SECRET_LENGTH + " байт");
+            }
+            this.signingKey = Keys.hmacShaKeyFor(keyBytes);
+        }
+    }
+
+    public String generateAccessToken(AuthenticatedUser user) {
+        return generateToken(user, TYPE_ACCESS, accessTtlSeconds);
+    }
+
+    public String generateRefreshToken(AuthenticatedUser user) {
+        return generateToken(user, TYPE_REFRESH, refreshTtlSeconds);
+    }
+
+    public long getAccessTtlSeconds() {
+        return accessTtlSeconds;
+    }
+
+    /**
+     * Разобрать и проверить токен ожидаемого типа
+     *
+     * @throws JwtException если подпись неверна, срок истек или тип не совпадает
+     */
+    public Claims parse(String token, String expectedType) {
+        Claims claims;
+        try {
+            claims = Jwts.parserBuilder()
+                    .setSigningKey(signingKey)
+                    .build()
+                    .parseClaimsJws(token)
+                    .getBody();
+        } catch (IllegalArgumentException e) {
+            throw new JwtException("Пустой токен", e);
+        }
+
+        if (!expectedType.equals(claims.get(CLAIM_TYPE, String.class))) {
+            throw new JwtException("Неверный тип токена");
+        }
+        return claims;
+    }
+
+    private String generateToken(AuthenticatedUser user, String type, long ttlSeconds) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setSubject(user.getLogin())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_ROLE, user.getRole().name())
+                .claim(CLAIM_TYPE, type)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + ttlSeconds * 1000))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
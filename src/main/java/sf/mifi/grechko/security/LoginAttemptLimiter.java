@@ -0,0 +1,174 @@
+package sf.mifi.grechko.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.event.AuthenticationFailureBadCredentialsEvent;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Ограничение неудачных проверок пароля: token bucket на логин и на адрес клиента.
+ * Перед проверкой пароля только смотрим, что в обоих бакетах есть токен; токен списывается
+ * лишь при неудаче (событие неверных учетных данных), поэтому успешные и параллельные
+ * запросы лимит не расходуют. Токены восстанавливаются с заданной скоростью.
+ * Если в одном из бакетов токенов нет, попытка отклоняется.
+ *
+ * Состояние хранится в ограниченных LRU-таблицах, разбитых на сегменты со своими блокировками,
+ * чтобы конкурентные запросы не упирались в один монитор.
+ */
+@Slf4j
+@Component
+public class LoginAttemptLimiter {
+
+    private static final int STRIPES = 16;
+
+    private final boolean enabled;
+    private final double capacity;
+    private final double refillPerMillis;
+
+    private final Stripe[] loginStripes = new Stripe[STRIPES];
+    private final Stripe[] clientStripes = new Stripe[STRIPES];
+
+    private final Counter rejectedByLogin;
+    private final Counter rejectedByClient;
+
+    public LoginAttemptLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${app.security.login-limiter.enabled:true}") boolean enabled,
+            @Value("${app.security.login-limiter.capacity:10}") int capacity,
+            @Value("${app.security.login-limiter.refill-per-minute:10}") int refillPerMinute,
+            @Value("${app.security.login-limiter.max-entries:100000}") int maxEntries) {
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.refillPerMillis = refillPerMinute / 60_000.0;
+
+        int perStripe = Math.max(1, maxEntries / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            loginStripes[i] = new Stripe(perStripe);
+            clientStripes[i] = new Stripe(perStripe);
+        }
+
+        this.rejectedByLogin = Counter.builder("auth.limiter.rejected")
+                .description("Попытки входа, отклоненные ограничителем")
+                .tag("key", "login")
+                .register(meterRegistry);
+        this.rejectedByClient = Counter.builder("auth.limiter.rejected")
+                .description("Попытки входа, отклоненные ограничителем")
+                .tag("key", "client")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Можно ли проверять пароль для этой пары логин/клиент. Токен не списывается.
+     * false - лимит неудачных попыток исчерпан
+     */
+    public boolean isAllowed(String login, String clientAddress) {
+        if (!enabled) {
+            return true;
+        }
+
+        long now = System.currentTimeMillis();
+        if (clientAddress != null && !stripeFor(clientStripes, clientAddress).hasToken(clientAddress, now)) {
+            rejectedByClient.increment();
+            return false;
+        }
+        if (login != null && !stripeFor(loginStripes, login).hasToken(login, now)) {
+            rejectedByLogin.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Учесть неудачную проверку пароля: списать токен из обоих бакетов
+     */
+    public void recordFailure(String login, String clientAddress) {
+        if (!enabled) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (clientAddress != null) {
+            stripeFor(clientStripes, clientAddress).consume(clientAddress, now);
+        }
+        if (login != null) {
+            stripeFor(loginStripes, login).consume(login, now);
+        }
+    }
+
+    /**
+     * Неверный логин или пароль - и для HTTP Basic, и для /api/auth/login.
+     * Перегрузка пула хэширования (AuthenticationServiceException) сюда не попадает
+     */
+    @EventListener
+    public void onBadCredentials(AuthenticationFailureBadCredentialsEvent event) {
+        Authentication authentication = event.getAuthentication();
+        String clientAddress = authentication.getDetails() instanceof WebAuthenticationDetails details
+                ? details.getRemoteAddress()
+                : null;
+        recordFailure(authentication.getName(), clientAddress);
+    }
+
+    public double getRejectedCount() {
+        return rejectedByLogin.count() + rejectedByClient.count();
+    }
+
+    private Stripe stripeFor(Stripe[] stripes, String key) {
+        return stripes[(key.hashCode() & 0x7fffffff) % STRIPES];
+    }
+
+    private final class Stripe {
+
+        private final Map<String, Bucket> buckets;
+
+        private Stripe(int maxEntries) {
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        synchronized boolean hasToken(String key, long now) {
+            // Ключи без неудач в таблицу не попадают: полный бакет хранить незачем
+            Bucket bucket = buckets.get(key);
+            if (bucket == null) {
+                return true;
+            }
+            bucket.refill(now);
+            return bucket.tokens >= 1;
+        }
+
+        synchronized void consume(String key, long now) {
+            Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket(capacity, now));
+            bucket.refill(now);
+            bucket.tokens = Math.max(0, bucket.tokens - 1);
+        }
+    }
+
+    private final class Bucket {
+
+        private double tokens;
+        private long updatedAt;
+
+        private Bucket(double tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+
+        private void refill(long now) {
+            if (now > updatedAt) {
+                tokens = Math.min(capacity, tokens + (now - updatedAt) * refillPerMillis);
+                updatedAt = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package sf.mifi.grechko.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Отсекает запросы с HTTP Basic, если для логина или адреса клиента
+ * исчерпан лимит неудачных попыток. Срабатывает до BasicAuthenticationFilter,
+ * то есть до загрузки пользователя и проверки BCrypt. Сам фильтр токены не списывает:
+ * неудачу учитывает {@link LoginAttemptLimiter#onBadCredentials}.
+ */
+@RequiredArgsConstructor
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+
+    private static final String BASIC_PREFIX = "Basic ";
+    private static final String RETRY_AFTER_SECONDS = "60";
+
+    private final LoginAttemptLimiter loginAttemptLimiter;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BASIC_PREFIX, 0, BASIC_PREFIX.length())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String login = extractLogin(header);
+        if (!loginAttemptLimiter.isAllowed(login, request.getRemoteAddr())) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private String extractLogin(String header) {
+        try {
+            byte[] decoded = Base64.getDecoder().decode(header.substring(BASIC_PREFIX.length()).trim());
+            String credentials = new String(decoded, StandardCharsets.UTF_8);
+            int delimiter = credentials.indexOf(':');
+            return delimiter >= 0 ? credentials.substring(0, delimiter) : null;
+        } catch (IllegalArgumentException e) {
+            // Некорректный заголовок отклонит BasicAuthenticationFilter
+            return null;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package sf.mifi.grechko.security;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.security.web.authentication.www.BasicAuthenticationEntryPoint;
+import sf.mifi.grechko.services.PasswordService;
+
+import java.io.IOException;
+
+/**
+ * Ответ на неудачную аутентификацию. Если пароль не проверен из-за перегрузки пула хэширования,
+ * клиент получает 503 с Retry-After вместо 401: учетные данные могут быть верными.
+ * Остальные случаи - как у HTTP Basic по умолчанию
+ */
+public class OverloadAwareEntryPoint implements AuthenticationEntryPoint {
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final BasicAuthenticationEntryPoint basicEntryPoint = new BasicAuthenticationEntryPoint();
+
+    public OverloadAwareEntryPoint() {
+        basicEntryPoint.setRealmName("Realm");
+    }
+
+    @Override
+    public void commence(HttpServletRequest request, HttpServletResponse response,
+                         AuthenticationException authException) throws IOException, ServletException {
+        if (authException != null && authException.getCause() instanceof PasswordService.OverloadedException) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            return;
+        }
+        basicEntryPoint.commence(request, response, authException);
+    }
+}
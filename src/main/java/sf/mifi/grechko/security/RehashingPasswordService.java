@@ -0,0 +1,34 @@
+package sf.mifi.grechko.security;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import sf.mifi.grechko.repositories.UserRepository;
+
+/**
+ * Прозрачное перехэширование: после успешного входа DaoAuthenticationProvider
+ * вызывает этот сервис, если хэш в БД сделан с меньшей стоимостью BCrypt, чем текущая
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RehashingPasswordService implements UserDetailsPasswordService {
+
+    private final UserRepository userRepository;
+
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePasswdHashByLogin(user.getUsername(), newPassword);
+        log.debug("Хэш пароля пользователя {} обновлен до текущей стоимости", user.getUsername());
+
+        if (user instanceof AuthenticatedUser authenticatedUser) {
+            return new AuthenticatedUser(authenticatedUser.getId(), authenticatedUser.getLogin(),
+                    authenticatedUser.getRole(), newPassword);
+        }
+        return user;
+    }
+}
@@ -1,55 +1,66 @@
 package sf.mifi.grechko.security;
 
+import io.swagger.v3.oas.annotations.enums.SecuritySchemeType;
+import io.swagger.v3.oas.annotations.security.SecurityScheme;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
 import sf.mifi.grechko.repositories.UserRepository;
-
-import static org.springframework.security.config.Customizer.withDefaults;
+import sf.mifi.grechko.services.PasswordService;
 
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
 @RequiredArgsConstructor
+@SecurityScheme(name = "basicAuth", type = SecuritySchemeType.HTTP, scheme = "basic")
+@SecurityScheme(name = "bearerAuth", type = SecuritySchemeType.HTTP, scheme = "bearer", bearerFormat = "JWT")
 public class SecurityConfig {
 
     private final UserRepository userRepository;
+    private final AuthenticationCache authenticationCache;
+    private final JwtService jwtService;
+    private final PasswordService passwordService;
+    private final RehashingPasswordService rehashingPasswordService;
+    private final LoginAttemptLimiter loginAttemptLimiter;
 
     @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder() {
+        // Откалиброванный BCrypt, выполняемый на ограниченном пуле PasswordService
+        return passwordService.getPasswordEncoder();
     }
 
     @Bean
     public UserDetailsService userDetailsService() {
         return username -> userRepository.findByLogin(username)
-                .map(user -> org.springframework.security.core.userdetails.User.builder()
-                        .username(user.getLogin())
-                        .password(user.getPasswdHash())
-                        .roles(user.getRole().name())
-                        .build())
+                .map(AuthenticatedUser::fromEntity)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
     }
 
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService());
         authProvider.setPasswordEncoder(passwordEncoder());
-        return authProvider;
+        // Хэши со старой стоимостью обновляются при успешном входе
+        authProvider.setUserDetailsPasswordService(rehashingPasswordService);
+        // Повторные запросы с теми же учетными данными не проходят BCrypt заново
+        return new CachingAuthenticationProvider(authProvider, authenticationCache);
     }
 
     @Bean
@@ -60,9 +71,18 @@ public class SecurityConfig {
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        OverloadAwareEntryPoint authenticationEntryPoint = new OverloadAwareEntryPoint();
         http
                 .csrf(AbstractHttpConfigurer::disable)
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authz -> authz
+                        // Выдача токенов
+                        .requestMatchers("/api/auth/**").permitAll()
+
+                        // Метрики и служебные эндпоинты
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
+
                         // ADMIN only
                         .requestMatchers("/api/users/**").hasRole("ADMIN")
                         //.requestMatchers("/api/categories/**").hasRole("ADMIN")
@@ -86,7 +106,11 @@ public class SecurityConfig {
                         .anyRequest().permitAll()
                 )
                 .authenticationProvider(authenticationProvider())
-                .httpBasic(withDefaults());
+                .addFilterBefore(new LoginRateLimitFilter(loginAttemptLimiter), BasicAuthenticationFilter.class)
+                .addFilterBefore(new JwtAuthenticationFilter(jwtService), BasicAuthenticationFilter.class)
+                // Перегрузка пула хэширования - 503, а не 401 (и для Basic, и для /api/auth/login)
+                .httpBasic(basic -> basic.authenticationEntryPoint(authenticationEntryPoint))
+                .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint(authenticationEntryPoint));
 
         return http.build();
     }
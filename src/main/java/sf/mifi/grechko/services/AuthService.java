@@ -0,0 +1,71 @@
+package sf.mifi.grechko.services;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import sf.mifi.grechko.dto.TokenResponse;
+import sf.mifi.grechko.models.User;
+import sf.mifi.grechko.repositories.UserRepository;
+import sf.mifi.grechko.security.AuthenticatedUser;
+import sf.mifi.grechko.security.JwtService;
+
+@Service
+@RequiredArgsConstructor
+public class AuthService {
+
+    private static final String TOKEN_TYPE = "Bearer";
+
+    private final AuthenticationManager authenticationManager;
+    private final UserRepository userRepository;
+    private final JwtService jwtService;
+
+    /**
+     * Вход по логину и паролю: единственная проверка BCrypt,
+     * дальше клиент работает с access-токеном
+     */
+    public TokenResponse login(String login, String password, String clientAddress) {
+        UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(login, password);
+        // Адрес клиента нужен ограничителю неудачных попыток
+        token.setDetails(new WebAuthenticationDetails(clientAddress, null));
+        Authentication authentication = authenticationManager.authenticate(token);
+
+        // Principal уже содержит id и роль, повторная загрузка пользователя не нужна
+        return issueTokens((AuthenticatedUser) authentication.getPrincipal());
+    }
+
+    /**
+     * Обмен refresh-токена на новую пару токенов.
+     * Пользователь перечитывается из БД, чтобы учесть смену роли или удаление
+     */
+    @Transactional(readOnly = true)
+    public TokenResponse refresh(String refreshToken) {
+        Claims claims;
+        try {
+            claims = jwtService.parse(refreshToken, JwtService.TYPE_REFRESH);
+        } catch (JwtException e) {
+            throw new BadCredentialsException("Недействительный refresh-токен", e);
+        }
+
+        Integer userId = claims.get(JwtService.CLAIM_USER_ID, Integer.class);
+        User user = userRepository.findById(Long.valueOf(userId))
+                .filter(u -> u.getLogin().equals(claims.getSubject()))
+                .orElseThrow(() -> new BadCredentialsException("Пользователь не найден"));
+        return issueTokens(AuthenticatedUser.fromEntity(user));
+    }
+
+    private TokenResponse issueTokens(AuthenticatedUser user) {
+        return new TokenResponse(
+                jwtService.generateAccessToken(user),
+                jwtService.generateRefreshToken(user),
+                TOKEN_TYPE,
+                jwtService.getAccessTtlSeconds()
+        );
+    }
+}
@@ -1,25 +1,51 @@
 package sf.mifi.grechko.services;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import sf.mifi.grechko.cache.CacheInvalidation;
+import sf.mifi.grechko.cache.CacheInvalidator;
+import sf.mifi.grechko.cache.CatalogResponseCache;
 import sf.mifi.grechko.dto.CategoryDto;
+import sf.mifi.grechko.dto.CategoryStatsDto;
+import sf.mifi.grechko.dto.CursorPage;
+import sf.mifi.grechko.dto.EntityVersion;
 import sf.mifi.grechko.models.Category;
 import sf.mifi.grechko.repositories.CategoryRepository;
+import sf.mifi.grechko.repositories.CourseRepository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final CourseRepository courseRepository;
+    private final CatalogResponseCache catalogResponseCache;
+    private final CacheInvalidator cacheInvalidator;
 
     @Transactional(readOnly = true)
-    public List<CategoryDto> getAllCategories() {
-        return categoryRepository.findAll().stream()
+    public CursorPage<CategoryDto> getAllCategories(String cursor, Integer size) {
+        int pageSize = CursorPage.normalizeSize(size);
+        List<CategoryDto> fetched = categoryRepository.findByIdGreaterThanOrderByIdAsc(
+                        CursorPage.decodeCursor(cursor), PageRequest.of(0, pageSize + 1)).stream()
                 .map(CategoryDto::fromEntity)
                 .toList();
+        return CursorPage.of(fetched, pageSize, CategoryDto::getId);
+    }
+
+    /**
+     * Страница категорий с числом курсов и активных записей - один агрегирующий запрос
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<CategoryStatsDto> getCategoryStats(String cursor, Integer size) {
+        int pageSize = CursorPage.normalizeSize(size);
+        List<CategoryStatsDto> fetched = categoryRepository.findStatsPage(
+                CursorPage.decodeCursor(cursor), PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(fetched, pageSize, CategoryStatsDto::getId);
     }
 
     @Transactional(readOnly = true)
@@ -29,6 +55,11 @@ public class CategoryService {
                 .orElseThrow(() -> new IllegalArgumentException("Категория не найдена: " + id));
     }
 
+    @Transactional(readOnly = true)
+    public Optional<EntityVersion> getCategoryVersion(Integer id) {
+        return categoryRepository.findVersionById(id);
+    }
+
     @Transactional
     public CategoryDto createCategory(String name) {
         if (categoryRepository.existsByName(name)) {
@@ -39,6 +70,8 @@ public class CategoryService {
         category.setName(name);
 
         Category saved = categoryRepository.save(category);
+        catalogResponseCache.invalidate();
+        cacheInvalidator.publish(CacheInvalidation.EntityType.CATEGORY, saved.getId());
         return CategoryDto.fromEntity(saved);
     }
 
@@ -53,6 +86,8 @@ public class CategoryService {
 
         category.setName(newName);
         Category saved = categoryRepository.save(category);
+        catalogResponseCache.invalidate();
+        cacheInvalidator.publish(CacheInvalidation.EntityType.CATEGORY, saved.getId());
         return CategoryDto.fromEntity(saved);
     }
 
@@ -61,11 +96,13 @@ public class CategoryService {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Категория не найдена: " + id));
 
-        // Проверяем, есть ли курсы в этой категории
-        if (!category.getCourses().isEmpty()) {
+        // Проверяем, есть ли курсы в этой категории: EXISTS по индексу вместо загрузки коллекции
+        if (courseRepository.existsAnyByCategoryId(id)) {
             throw new IllegalStateException("Нельзя удалить категорию, к которой привязаны курсы");
         }
 
         categoryRepository.delete(category);
+        catalogResponseCache.invalidate();
+        cacheInvalidator.publish(CacheInvalidation.EntityType.CATEGORY, id);
     }
 }
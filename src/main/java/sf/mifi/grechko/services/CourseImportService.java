@@ -0,0 +1,261 @@
+package sf.mifi.grechko.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import sf.mifi.grechko.cache.CacheInvalidation;
+import sf.mifi.grechko.cache.CacheInvalidator;
+import sf.mifi.grechko.cache.CatalogResponseCache;
+import sf.mifi.grechko.dto.BulkImportResult;
+import sf.mifi.grechko.dto.CreateCourseRequest;
+import sf.mifi.grechko.models.Course;
+import sf.mifi.grechko.models.User;
+import sf.mifi.grechko.repositories.CategoryRepository;
+import sf.mifi.grechko.repositories.CourseRepository;
+import sf.mifi.grechko.repositories.UserRepository;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * Массовый импорт курсов (загрузка каталога семестра):
+ * категории и преподаватели проверяются одним запросом на пачку id, дубликаты (преподаватель + название) -
+ * одним запросом на пачку, вставка через saveAll пачками в своей транзакции. id курсов выделяются
+ * из последовательности блоками, поэтому Hibernate отправляет INSERT пакетами JDBC (hibernate.jdbc.batch_size)
+ */
+@Slf4j
+@Service
+public class CourseImportService {
+
+    private static final int MAX_TITLE_LENGTH = 200;
+    private static final int MAX_DURATION_LENGTH = 50;
+
+    private final CourseRepository courseRepository;
+    private final CategoryRepository categoryRepository;
+    private final UserRepository userRepository;
+    private final CourseSuggestIndex courseSuggestIndex;
+    private final CatalogResponseCache catalogResponseCache;
+    private final CacheInvalidator cacheInvalidator;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public CourseImportService(CourseRepository courseRepository,
+                               CategoryRepository categoryRepository,
+                               UserRepository userRepository,
+                               CourseSuggestIndex courseSuggestIndex,
+                               CatalogResponseCache catalogResponseCache,
+                               CacheInvalidator cacheInvalidator,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.import.chunk-size:1000}") int chunkSize) {
+        this.courseRepository = courseRepository;
+        this.categoryRepository = categoryRepository;
+        this.userRepository = userRepository;
+        this.courseSuggestIndex = courseSuggestIndex;
+        this.catalogResponseCache = catalogResponseCache;
+        this.cacheInvalidator = cacheInvalidator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Импорт из CSV с заголовком title,description,categoryId,teacherId,duration,startDate[,capacity]
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    public BulkImportResult importCsv(String csv) {
+        Map<Integer, String> parseErrors = new HashMap<>();
+        List<Map<String, String>> rows = CsvParser.parse(csv);
+        List<CreateCourseRequest> requests = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Map<String, String> row = rows.get(i);
+            CreateCourseRequest request = new CreateCourseRequest();
+            request.setTitle(row.get("title"));
+            request.setDescription(row.get("description"));
+            request.setDuration(row.get("duration"));
+            try {
+                request.setCategoryId(parseInteger(row.get("categoryid")));
+                request.setTeacherId(parseInteger(row.get("teacherid")));
+                request.setCapacity(parseInteger(row.get("capacity")));
+                request.setStartDate(row.get("startdate") == null ? null : LocalDate.parse(row.get("startdate")));
+            } catch (NumberFormatException | DateTimeParseException e) {
+                parseErrors.put(i + 1, "Некорректное значение: " + e.getMessage());
+            }
+            requests.add(request);
+        }
+        return importCourses(requests, parseErrors);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    public BulkImportResult importCourses(List<CreateCourseRequest> requests) {
+        return importCourses(requests, Map.of());
+    }
+
+    private BulkImportResult importCourses(List<CreateCourseRequest> requests, Map<Integer, String> parseErrors) {
+        long start = System.currentTimeMillis();
+        Map<Integer, BulkImportResult.RowResult> results = new TreeMap<>();
+
+        // 1. Валидация полей
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            int row = i + 1;
+            CreateCourseRequest request = requests.get(i);
+            String error = parseErrors.containsKey(row) ? parseErrors.get(row) : validate(request);
+            if (error != null) {
+                results.put(row, rowResult(row, request == null ? null : request.getTitle(),
+                        BulkImportResult.RowStatus.INVALID, error));
+            } else {
+                valid.add(row);
+            }
+        }
+
+        // 2. Категории и преподаватели - множеством id, один запрос на пачку
+        Set<Integer> categoryIds = new HashSet<>();
+        Set<Integer> teacherIds = new HashSet<>();
+        for (int row : valid) {
+            categoryIds.add(requests.get(row - 1).getCategoryId());
+            teacherIds.add(requests.get(row - 1).getTeacherId());
+        }
+        Set<Integer> existingCategories = new HashSet<>();
+        for (List<Integer> chunk : chunks(new ArrayList<>(categoryIds))) {
+            existingCategories.addAll(categoryRepository.findExistingIds(chunk));
+        }
+        Set<Integer> existingTeachers = new HashSet<>();
+        for (List<Integer> chunk : chunks(new ArrayList<>(teacherIds))) {
+            existingTeachers.addAll(userRepository.findIdsByIdInAndRole(chunk, User.Role.TEACHER));
+        }
+
+        // 3. Дубликаты внутри запроса
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+        for (int row : valid) {
+            CreateCourseRequest request = requests.get(row - 1);
+            if (!existingCategories.contains(request.getCategoryId())) {
+                results.put(row, rowResult(row, request.getTitle(), BulkImportResult.RowStatus.INVALID,
+                        "Категория не найдена: " + request.getCategoryId()));
+            } else if (!existingTeachers.contains(request.getTeacherId())) {
+                results.put(row, rowResult(row, request.getTitle(), BulkImportResult.RowStatus.INVALID,
+                        "Преподаватель не найден: " + request.getTeacherId()));
+            } else if (candidates.putIfAbsent(courseKey(request.getTeacherId(), request.getTitle()), row) != null) {
+                results.put(row, rowResult(row, request.getTitle(), BulkImportResult.RowStatus.DUPLICATE,
+                        "Курс повторяется в запросе"));
+            }
+        }
+
+        // 4. Уже существующие курсы с тем же названием у того же преподавателя
+        List<Integer> candidateRows = new ArrayList<>(candidates.values());
+        for (int from = 0; from < candidateRows.size(); from += chunkSize) {
+            List<Integer> chunkRows = candidateRows.subList(from, Math.min(from + chunkSize, candidateRows.size()));
+            Set<Integer> chunkTeachers = new HashSet<>();
+            Set<String> chunkTitles = new HashSet<>();
+            for (int row : chunkRows) {
+                chunkTeachers.add(requests.get(row - 1).getTeacherId());
+                chunkTitles.add(requests.get(row - 1).getTitle());
+            }
+            for (Object[] existing : courseRepository.findTeacherTitles(chunkTeachers, chunkTitles)) {
+                Integer row = candidates.remove(courseKey((Integer) existing[0], (String) existing[1]));
+                if (row != null) {
+                    results.put(row, rowResult(row, (String) existing[1], BulkImportResult.RowStatus.DUPLICATE,
+                            "У этого преподавателя уже есть курс с таким названием"));
+                }
+            }
+        }
+
+        // 5. Вставка пачками: ссылки на категорию и преподавателя без загрузки сущностей
+        List<Integer> rows = new ArrayList<>(candidates.values());
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            List<Integer> chunkRows = rows.subList(from, Math.min(from + chunkSize, rows.size()));
+            List<Course> saved = transactionTemplate.execute(status -> {
+                List<Course> courses = new ArrayList<>(chunkRows.size());
+                for (int row : chunkRows) {
+                    courses.add(toCourse(requests.get(row - 1)));
+                }
+                return courseRepository.saveAll(courses);
+            });
+
+            for (int i = 0; i < chunkRows.size(); i++) {
+                Course course = saved.get(i);
+                results.put(chunkRows.get(i), rowResult(chunkRows.get(i), course.getTitle(),
+                        BulkImportResult.RowStatus.CREATED, null));
+                courseSuggestIndex.put(course.getId(), course.getTitle());
+            }
+        }
+        if (!rows.isEmpty()) {
+            catalogResponseCache.invalidate();
+            // Одно сообщение на весь импорт: другие узлы перестроят индекс автодополнения целиком
+            cacheInvalidator.publish(CacheInvalidation.EntityType.COURSE, null);
+        }
+
+        BulkImportResult result = new BulkImportResult();
+        results.values().forEach(r -> result.addRow(r.getRow(), r.getKey(), r.getStatus(), r.getMessage()));
+
+        log.info("Импорт курсов: всего {}, создано {}, дубликатов {}, ошибок {} за {} мс",
+                result.getTotal(), result.getCreated(), result.getDuplicates(), result.getInvalid(),
+                System.currentTimeMillis() - start);
+        return result;
+    }
+
+    private Course toCourse(CreateCourseRequest request) {
+        Course course = new Course();
+        course.setTitle(request.getTitle());
+        course.setDescription(request.getDescription());
+        course.setCategory(categoryRepository.getReferenceById(request.getCategoryId()));
+        course.setTeacher(userRepository.getReferenceById(Long.valueOf(request.getTeacherId())));
+        course.setDuration(request.getDuration());
+        course.setStartDate(request.getStartDate());
+        course.setCapacity(request.getCapacity());
+        return course;
+    }
+
+    private String validate(CreateCourseRequest request) {
+        // null в JSON-массиве - строка без данных, а не ошибка всего запроса
+        if (request == null) {
+            return "Пустая строка импорта";
+        }
+        if (request.getTitle() == null || request.getTitle().isBlank()) {
+            return "Название курса не может быть пустым";
+        }
+        if (request.getTitle().length() > MAX_TITLE_LENGTH) {
+            return "Название курса длиннее " + MAX_TITLE_LENGTH + " символов";
+        }
+        if (request.getCategoryId() == null) {
+            return "Категория должна быть указана";
+        }
+        if (request.getTeacherId() == null) {
+            return "Преподаватель должен быть указан";
+        }
+        if (request.getDuration() != null && (request.getDuration().isBlank()
+                || request.getDuration().length() > MAX_DURATION_LENGTH)) {
+            return "Некорректная продолжительность курса";
+        }
+        // То же, что проверка даты начала при вставке (триггер trg_courses_start_date): иначе откатилась бы вся пачка
+        if (request.getStartDate() != null && request.getStartDate().isBefore(LocalDate.now())) {
+            return "Дата начала курса в прошлом";
+        }
+        if (request.getCapacity() != null && request.getCapacity() <= 0) {
+            return "Число мест на курсе должно быть положительным";
+        }
+        return null;
+    }
+
+    private static String courseKey(Integer teacherId, String title) {
+        return teacherId + ":" + title;
+    }
+
+    private static Integer parseInteger(String value) {
+        return value == null ? null : Integer.valueOf(value);
+    }
+
+    private <T> List<List<T>> chunks(List<T> values) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += chunkSize) {
+            chunks.add(values.subList(from, Math.min(from + chunkSize, values.size())));
+        }
+        return chunks;
+    }
+
+    private BulkImportResult.RowResult rowResult(int row, String key, BulkImportResult.RowStatus status, String message) {
+        return new BulkImportResult.RowResult(row, key, status, message);
+    }
+}
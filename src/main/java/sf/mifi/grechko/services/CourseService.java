@@ -1,12 +1,23 @@
 package sf.mifi.grechko.services;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import sf.mifi.grechko.cache.CacheInvalidation;
+import sf.mifi.grechko.cache.CacheInvalidator;
+import sf.mifi.grechko.cache.CatalogResponseCache;
+import sf.mifi.grechko.dto.CourseDetailsDto;
 import sf.mifi.grechko.dto.CourseDto;
+import sf.mifi.grechko.dto.CourseFilter;
+import sf.mifi.grechko.dto.EntityVersion;
+import sf.mifi.grechko.dto.CourseSuggestionDto;
 import sf.mifi.grechko.dto.CreateCourseRequest;
+import sf.mifi.grechko.dto.CursorPage;
 import sf.mifi.grechko.dto.UpdateCourseRequest;
 import sf.mifi.grechko.models.Category;
 import sf.mifi.grechko.models.Course;
@@ -14,8 +25,15 @@ import sf.mifi.grechko.models.User;
 import sf.mifi.grechko.repositories.CategoryRepository;
 import sf.mifi.grechko.repositories.CourseRepository;
 import sf.mifi.grechko.repositories.UserRepository;
+import sf.mifi.grechko.security.AuthenticatedUser;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -25,15 +43,87 @@ public class CourseService {
     private final CategoryRepository categoryRepository;
     private final UserRepository userRepository;
     private final UserService userContextService;
+    private final CourseSuggestIndex courseSuggestIndex;
+    private final CatalogResponseCache catalogResponseCache;
+    private final CacheInvalidator cacheInvalidator;
+    private final PurgeService purgeService;
+
+    private static final int MAX_SEARCH_RESULTS = 1000;
 
     /**
-     * Получить все курсы (доступно всем)
+     * Получить страницу курсов (доступно всем)
      */
     @Transactional(readOnly = true)
-    public List<CourseDto> getAllCourses() {
-        return courseRepository.findAllWithDetails().stream()
-                .map(CourseDto::fromEntity)
+    public CursorPage<CourseDto> getAllCourses(String cursor, Integer size) {
+        int pageSize = CursorPage.normalizeSize(size);
+        List<CourseDto> fetched = courseRepository.findPage(
+                CursorPage.decodeCursor(cursor), PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(fetched, pageSize, CourseDto::getId);
+    }
+
+    /**
+     * Полнотекстовый поиск курсов по названию и описанию (доступно всем).
+     * Выдача отсортирована по релевантности, глубина ограничена MAX_SEARCH_RESULTS
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<CourseDto> searchCourses(String query, Integer categoryId, String cursor, Integer size) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Поисковый запрос не может быть пустым");
+        }
+
+        int pageSize = CursorPage.normalizeSize(size);
+        int offset = CursorPage.decodeOffset(cursor);
+        if (offset >= MAX_SEARCH_RESULTS) {
+            return new CursorPage<>(List.of(), null);
+        }
+
+        List<Integer> ids = courseRepository.searchIds(query.trim(), categoryId, pageSize + 1, offset);
+        boolean hasNext = ids.size() > pageSize && offset + pageSize < MAX_SEARCH_RESULTS;
+        List<Integer> pageIds = ids.size() > pageSize ? ids.subList(0, pageSize) : ids;
+
+        // Второй запрос - проекция страницы в DTO, порядок - как в ранжированной выдаче
+        Map<Integer, CourseDto> courses = courseRepository.findDtosByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(CourseDto::getId, Function.identity()));
+        List<CourseDto> items = pageIds.stream()
+                .map(courses::get)
+                .filter(Objects::nonNull)
                 .toList();
+
+        return new CursorPage<>(items, hasNext ? CursorPage.encodeOffset(offset + pageSize) : null);
+    }
+
+    /**
+     * Страница курсов по фильтру (доступно всем).
+     * При сортировке по id курсор keyset, при остальных сортировках - смещение
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<CourseDto> filterCourses(CourseFilter filter, String cursor, Integer size) {
+        if (filter.getStartFrom() != null && filter.getStartTo() != null
+                && filter.getStartFrom().isAfter(filter.getStartTo())) {
+            throw new IllegalArgumentException("startFrom не может быть позже startTo");
+        }
+
+        int pageSize = CursorPage.normalizeSize(size);
+        CourseFilter.Sort sort = CourseFilter.Sort.parse(filter.getSort());
+        if (sort == CourseFilter.Sort.ID) {
+            List<CourseDto> fetched = courseRepository.findFiltered(
+                    filter, sort, CursorPage.decodeCursor(cursor), 0, pageSize + 1);
+            return CursorPage.of(fetched, pageSize, CourseDto::getId);
+        }
+
+        int offset = CursorPage.decodeOffset(cursor);
+        List<CourseDto> fetched = courseRepository.findFiltered(filter, sort, 0, offset, pageSize + 1);
+        if (fetched.size() <= pageSize) {
+            return new CursorPage<>(fetched, null);
+        }
+        return new CursorPage<>(List.copyOf(fetched.subList(0, pageSize)), CursorPage.encodeOffset(offset + pageSize));
+    }
+
+    /**
+     * Подсказки по началу названия курса (доступно всем), без обращения к БД
+     */
+    public List<CourseSuggestionDto> suggestCourses(String query, Integer limit) {
+        return courseSuggestIndex.suggest(query, limit);
     }
 
     /**
@@ -41,11 +131,26 @@ public class CourseService {
      */
     @Transactional(readOnly = true)
     public CourseDto getCourseById(Integer id) {
-        return courseRepository.findByIdWithDetails(id)
-                .map(CourseDto::fromEntity)
+        return courseRepository.findDtoById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Курс не найден: " + id));
     }
 
+    /**
+     * Страница курса: курс, преподаватель с профилем и число записей одним запросом
+     */
+    @Transactional(readOnly = true)
+    public Optional<CourseDetailsDto> getCourseDetails(Integer id) {
+        return courseRepository.findDetailsById(id);
+    }
+
+    /**
+     * Валидаторы кэша курса без загрузки самого курса
+     */
+    @Transactional(readOnly = true)
+    public Optional<EntityVersion> getCourseVersion(Integer id) {
+        return courseRepository.findVersionById(id);
+    }
+
     /**
      * Создать курс
      * TEACHER: автоматически назначается как преподаватель
@@ -53,7 +158,7 @@ public class CourseService {
      */
     @Transactional
     public CourseDto createCourse(CreateCourseRequest request) {
-        User currentUser = userContextService.getCurrentUser();
+        AuthenticatedUser currentUser = userContextService.getCurrentPrincipal();
 
         // Проверяем категорию
         Category category = categoryRepository.findById(request.getCategoryId())
@@ -73,13 +178,13 @@ public class CourseService {
                 throw new IllegalArgumentException("Указанный пользователь не является преподавателем");
             }
         } else if (currentUser.getRole() == User.Role.TEACHER) {
-            // TEACHER автоматически становится преподавателем курса
-            teacher = currentUser;
-
             // TEACHER не может указать другого преподавателя
             if (request.getTeacherId() != null && !request.getTeacherId().equals(currentUser.getId())) {
                 throw new AccessDeniedException("Преподаватель может создавать курсы только за себя");
             }
+
+            // TEACHER автоматически становится преподавателем курса (ссылка без загрузки сущности)
+            teacher = userRepository.getReferenceById(Long.valueOf(currentUser.getId()));
         } else {
             throw new AccessDeniedException("Только преподаватели и администраторы могут создавать курсы");
         }
@@ -97,8 +202,12 @@ public class CourseService {
         course.setTeacher(teacher);
         course.setDuration(request.getDuration());
         course.setStartDate(request.getStartDate());
+        course.setCapacity(validCapacity(request.getCapacity()));
 
         Course saved = courseRepository.save(course);
+        afterCommit(() -> courseSuggestIndex.put(saved.getId(), saved.getTitle()));
+        catalogResponseCache.invalidate();
+        cacheInvalidator.publish(CacheInvalidation.EntityType.COURSE, saved.getId());
         return CourseDto.fromEntity(saved);
     }
 
@@ -112,7 +221,7 @@ public class CourseService {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new IllegalArgumentException("Курс не найден: " + courseId));
 
-        User currentUser = userContextService.getCurrentUser();
+        AuthenticatedUser currentUser = userContextService.getCurrentPrincipal();
 
         // Проверяем права
         if (currentUser.getRole() == User.Role.TEACHER &&
@@ -159,7 +268,15 @@ public class CourseService {
             course.setStartDate(request.getStartDate());
         }
 
+        // Уменьшение ниже числа записанных не выгоняет их: новые записи пойдут в лист ожидания
+        if (request.getCapacity() != null) {
+            course.setCapacity(validCapacity(request.getCapacity()));
+        }
+
         Course saved = courseRepository.save(course);
+        afterCommit(() -> courseSuggestIndex.put(saved.getId(), saved.getTitle()));
+        catalogResponseCache.invalidate();
+        cacheInvalidator.publish(CacheInvalidation.EntityType.COURSE, saved.getId());
         return CourseDto.fromEntity(saved);
     }
 
@@ -173,7 +290,7 @@ public class CourseService {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new IllegalArgumentException("Курс не найден: " + courseId));
 
-        User currentUser = userContextService.getCurrentUser();
+        AuthenticatedUser currentUser = userContextService.getCurrentPrincipal();
 
         // Проверяем права
         if (currentUser.getRole() == User.Role.TEACHER &&
@@ -181,27 +298,34 @@ public class CourseService {
             throw new AccessDeniedException("Вы можете удалять только свои курсы");
         }
 
-        courseRepository.delete(course);
+        // Курс сразу скрывается, записи на него удалит фоновая очистка пачками
+        course.setDeletedAt(LocalDateTime.now());
+        afterCommit(() -> courseSuggestIndex.remove(courseId));
+        catalogResponseCache.invalidate();
+        cacheInvalidator.publish(CacheInvalidation.EntityType.COURSE, courseId);
+        purgeService.requestPurge();
     }
 
     /**
-     * Получить курсы преподавателя
+     * Получить страницу курсов преподавателя
      */
     @Transactional(readOnly = true)
-    public List<CourseDto> getCoursesByTeacher(Integer teacherId) {
-        return courseRepository.findByTeacherId(teacherId).stream()
-                .map(CourseDto::fromEntity)
-                .toList();
+    public CursorPage<CourseDto> getCoursesByTeacher(Integer teacherId, String cursor, Integer size) {
+        int pageSize = CursorPage.normalizeSize(size);
+        List<CourseDto> fetched = courseRepository.findPageByTeacherId(
+                teacherId, CursorPage.decodeCursor(cursor), PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(fetched, pageSize, CourseDto::getId);
     }
 
     /**
-     * Получить курсы категории
+     * Получить страницу курсов категории
      */
     @Transactional(readOnly = true)
-    public List<CourseDto> getCoursesByCategory(Integer categoryId) {
-        return courseRepository.findByCategoryId(categoryId).stream()
-                .map(CourseDto::fromEntity)
-                .toList();
+    public CursorPage<CourseDto> getCoursesByCategory(Integer categoryId, String cursor, Integer size) {
+        int pageSize = CursorPage.normalizeSize(size);
+        List<CourseDto> fetched = courseRepository.findPageByCategoryId(
+                categoryId, CursorPage.decodeCursor(cursor), PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(fetched, pageSize, CourseDto::getId);
     }
 
     /**
@@ -209,13 +333,34 @@ public class CourseService {
      */
     @Transactional(readOnly = true)
     public List<CourseDto> getMyCourses() {
-        User currentUser = userContextService.getCurrentUser();
+        AuthenticatedUser currentUser = userContextService.getCurrentPrincipal();
         if (currentUser.getRole() != User.Role.TEACHER) {
             throw new AccessDeniedException("Только преподаватели могут просматривать свои курсы");
         }
 
-        return courseRepository.findByTeacherId(currentUser.getId()).stream()
-                .map(CourseDto::fromEntity)
-                .toList();
+        return courseRepository.findDtosByTeacherId(currentUser.getId());
+    }
+
+    private static Integer validCapacity(Integer capacity) {
+        if (capacity != null && capacity <= 0) {
+            throw new IllegalArgumentException("Число мест на курсе должно быть положительным");
+        }
+        return capacity;
+    }
+
+    /**
+     * Индекс автодополнения обновляется только после успешного коммита
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
 }
@@ -0,0 +1,334 @@
+package sf.mifi.grechko.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import sf.mifi.grechko.dto.CourseSuggestionDto;
+import sf.mifi.grechko.repositories.CourseRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Индекс автодополнения по названиям курсов в памяти процесса.
+ * Названия нормализуются и режутся на токены; токен отображается в отсортированный массив id курсов.
+ * Поиск по префиксу - диапазон в отсортированной карте токенов, несколько слов запроса пересекаются.
+ *
+ * Строится целиком при старте, дальше обновляется точечно из CourseService после коммита,
+ * а изменения с других узлов приходят через CacheInvalidator.
+ * Чтение без блокировок: массивы id не изменяются, а заменяются целиком; перестроенный индекс
+ * публикуется одной записью volatile-поля.
+ */
+@Slf4j
+@Component
+public class CourseSuggestIndex {
+
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 20;
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private final CourseRepository courseRepository;
+
+    private final Object rebuildLock = new Object();
+
+    private volatile Index index = new Index(new ConcurrentSkipListMap<>(), new ConcurrentHashMap<>());
+    // Изменения, пришедшие во время перестройки (null - значение удалено): повторяются на новом индексе
+    private Map<Integer, String> changedDuringRebuild;
+
+    public CourseSuggestIndex(CourseRepository courseRepository) {
+        this.courseRepository = courseRepository;
+    }
+
+    /**
+     * Полная перестройка индекса из БД
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        rebuild(courseRepository::findAllSuggestions);
+        Index current = index;
+        log.info("Индекс автодополнения курсов: {} курсов, {} токенов за {} мс",
+                current.titles().size(), current.postings().size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Перестройка из источника. Новый индекс собирается в стороне, без блокировки точечных обновлений:
+     * поиск до публикации видит старый индекс целиком, а изменения, пришедшие за время чтения
+     * источника, повторяются на новом индексе перед публикацией
+     */
+    void rebuild(Supplier<? extends Collection<CourseSuggestionDto>> source) {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                changedDuringRebuild = new HashMap<>();
+            }
+            Index built = null;
+            try {
+                built = build(source.get());
+            } finally {
+                publish(built);
+            }
+        }
+    }
+
+    void load(Collection<CourseSuggestionDto> courses) {
+        rebuild(() -> courses);
+    }
+
+    /**
+     * Загрузка всего каталога разом: списки id собираются и сортируются один раз,
+     * а не копируются на каждый курс, как при точечном обновлении
+     */
+    private static Index build(Collection<CourseSuggestionDto> courses) {
+        Index built = new Index(new ConcurrentSkipListMap<>(), new ConcurrentHashMap<>());
+        Map<String, List<Integer>> collected = new HashMap<>();
+        for (CourseSuggestionDto course : courses) {
+            if (course.getId() == null || course.getTitle() == null) {
+                continue;
+            }
+            built.titles().put(course.getId(), course.getTitle());
+            for (String token : new HashSet<>(tokenize(course.getTitle()))) {
+                collected.computeIfAbsent(token, key -> new ArrayList<>()).add(course.getId());
+            }
+        }
+        collected.forEach((token, ids) -> built.postings().put(token,
+                ids.stream().mapToInt(Integer::intValue).sorted().distinct().toArray()));
+        return built;
+    }
+
+    private synchronized void publish(Index built) {
+        Map<Integer, String> changed = changedDuringRebuild;
+        changedDuringRebuild = null;
+        if (built == null) {
+            return;
+        }
+        changed.forEach((courseId, title) -> {
+            removeInternal(built, courseId);
+            add(built, courseId, title);
+        });
+        index = built;
+    }
+
+    /**
+     * Добавить курс или обновить его название
+     */
+    public synchronized void put(Integer courseId, String title) {
+        Index current = index;
+        removeInternal(current, courseId);
+        add(current, courseId, title);
+        if (changedDuringRebuild != null && courseId != null) {
+            changedDuringRebuild.put(courseId, title);
+        }
+    }
+
+    public synchronized void remove(Integer courseId) {
+        removeInternal(index, courseId);
+        if (changedDuringRebuild != null && courseId != null) {
+            changedDuringRebuild.put(courseId, null);
+        }
+    }
+
+    /**
+     * Перечитать один курс из БД: изменение пришло с другого узла, название в сообщении не передается.
+     * Удаленного (в том числе мягко) курса в БД нет - он убирается из индекса
+     */
+    public void refresh(Integer courseId) {
+        courseRepository.findSuggestionById(courseId).ifPresentOrElse(
+                course -> put(course.getId(), course.getTitle()),
+                () -> remove(courseId));
+    }
+
+    /**
+     * Курсы, в названии которых для каждого слова запроса есть слово с таким префиксом.
+     * Сначала названия, начинающиеся с запроса, затем более короткие
+     */
+    public List<CourseSuggestionDto> suggest(String query, Integer limit) {
+        int max = limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty()) {
+            return List.of();
+        }
+
+        // Один снимок на весь запрос: перестройка может опубликовать новый индекс посреди поиска
+        Index current = index;
+        Map<Integer, String> titles = current.titles();
+
+        // Более длинные префиксы избирательнее - начинаем с них
+        queryTokens.sort(Comparator.comparingInt(String::length).reversed());
+        int[] candidates = null;
+        for (String token : queryTokens) {
+            int[] ids = idsByPrefix(current.postings(), token);
+            candidates = candidates == null ? ids : intersect(candidates, ids);
+            if (candidates.length == 0) {
+                return List.of();
+            }
+        }
+
+        // Ранг упакован в long: [не начинается с запроса][длина названия][id], меньше - лучше.
+        // Top-N держится в маленьком отсортированном массиве, без объектов на каждого кандидата
+        String trimmedQuery = query.trim();
+        long[] top = new long[max];
+        int found = 0;
+        for (int id : candidates) {
+            String title = titles.get(id);
+            if (title == null) {
+                continue;
+            }
+            long notPrefix = title.regionMatches(true, 0, trimmedQuery, 0, trimmedQuery.length()) ? 0 : 1;
+            long key = (notPrefix << 62) | ((long) Math.min(title.length(), 0x3fffffff) << 31) | id;
+            if (found < max) {
+                found++;
+            } else if (key >= top[max - 1]) {
+                continue;
+            }
+            int position = found - 1;
+            while (position > 0 && top[position - 1] > key) {
+                top[position] = top[position - 1];
+                position--;
+            }
+            top[position] = key;
+        }
+
+        List<CourseSuggestionDto> result = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            int id = (int) (top[i] & 0x7fffffff);
+            String title = titles.get(id);
+            if (title != null) {
+                result.add(new CourseSuggestionDto(id, title));
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return index.titles().size();
+    }
+
+    private static void add(Index target, Integer courseId, String title) {
+        if (courseId == null || title == null) {
+            return;
+        }
+        target.titles().put(courseId, title);
+        for (String token : new HashSet<>(tokenize(title))) {
+            target.postings().merge(token, new int[]{courseId}, CourseSuggestIndex::union);
+        }
+    }
+
+    private static void removeInternal(Index target, Integer courseId) {
+        if (courseId == null) {
+            return;
+        }
+        String title = target.titles().remove(courseId);
+        if (title == null) {
+            return;
+        }
+        for (String token : new HashSet<>(tokenize(title))) {
+            target.postings().computeIfPresent(token, (key, ids) -> {
+                int[] rest = without(ids, courseId);
+                return rest.length == 0 ? null : rest;
+            });
+        }
+    }
+
+    private static int[] idsByPrefix(ConcurrentSkipListMap<String, int[]> postings, String prefix) {
+        ConcurrentNavigableMap<String, int[]> range = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        int[] single = null;
+        BitSet merged = null;
+        for (int[] ids : range.values()) {
+            if (single == null && merged == null) {
+                single = ids;
+                continue;
+            }
+            // Короткий префикс покрывает много токенов: попарное слияние было бы квадратичным
+            if (merged == null) {
+                merged = new BitSet();
+                for (int id : single) {
+                    merged.set(id);
+                }
+            }
+            for (int id : ids) {
+                merged.set(id);
+            }
+        }
+        if (merged != null) {
+            return merged.stream().toArray();
+        }
+        return single == null ? new int[0] : single;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : TOKEN_SEPARATOR.split(normalize(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+    }
+
+    private record Index(ConcurrentSkipListMap<String, int[]> postings, Map<Integer, String> titles) {
+    }
+
+    // Операции над отсортированными массивами id без дубликатов
+
+    private static int[] union(int[] a, int[] b) {
+        int[] result = new int[a.length + b.length];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                result[k++] = a[i++];
+            } else if (a[i] > b[j]) {
+                result[k++] = b[j++];
+            } else {
+                result[k++] = a[i++];
+                j++;
+            }
+        }
+        while (i < a.length) {
+            result[k++] = a[i++];
+        }
+        while (j < b.length) {
+            result[k++] = b[j++];
+        }
+        return k == result.length ? result : Arrays.copyOf(result, k);
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[k++] = a[i++];
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, k);
+    }
+
+    private static int[] without(int[] ids, int id) {
+        int position = Arrays.binarySearch(ids, id);
+        if (position < 0) {
+            return ids;
+        }
+        int[] result = new int[ids.length - 1];
+        System.arraycopy(ids, 0, result, 0, position);
+        System.arraycopy(ids, position + 1, result, position, ids.length - position - 1);
+        return result;
+    }
+}
@@ -0,0 +1,91 @@
+package sf.mifi.grechko.services;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Минимальный разбор CSV для импорта: первая строка - заголовок,
+ * поддерживаются поля в кавычках (с запятыми, переводами строк и "" внутри)
+ */
+final class CsvParser {
+
+    private CsvParser() {
+    }
+
+    /**
+     * @return строки данных в виде "имя колонки (в нижнем регистре) -> значение"
+     */
+    static List<Map<String, String>> parse(String content) {
+        List<List<String>> records = readRecords(content);
+        if (records.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> header = records.get(0).stream()
+                .map(name -> name.trim().toLowerCase())
+                .toList();
+
+        List<Map<String, String>> rows = new ArrayList<>(records.size() - 1);
+        for (List<String> record : records.subList(1, records.size())) {
+            Map<String, String> row = new LinkedHashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                String value = i < record.size() ? record.get(i).trim() : "";
+                row.put(header.get(i), value.isEmpty() ? null : value);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static List<List<String>> readRecords(String content) {
+        List<List<String>> records = new ArrayList<>();
+        List<String> record = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < content.length() && content.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                record.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && i + 1 < content.length() && content.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                record.add(field.toString());
+                field.setLength(0);
+                addRecord(records, record);
+                record = new ArrayList<>();
+            } else {
+                field.append(c);
+            }
+        }
+
+        record.add(field.toString());
+        addRecord(records, record);
+        return records;
+    }
+
+    private static void addRecord(List<List<String>> records, List<String> record) {
+        // Пустые строки пропускаем
+        if (record.size() == 1 && record.get(0).isBlank()) {
+            return;
+        }
+        records.add(record);
+    }
+}
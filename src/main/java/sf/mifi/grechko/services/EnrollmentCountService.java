@@ -0,0 +1,241 @@
+package sf.mifi.grechko.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import sf.mifi.grechko.models.CourseEnrollmentCount;
+import sf.mifi.grechko.models.Enrollment;
+import sf.mifi.grechko.repositories.CourseEnrollmentCountRepository;
+import sf.mifi.grechko.repositories.CourseRepository;
+import sf.mifi.grechko.repositories.EnrollmentRepository;
+
+import java.util.*;
+
+/**
+ * Денормализованные счетчики записей на курс по статусам (таблица course_enrollment_counts).
+ * Изменяются в транзакции самой записи атомарным UPDATE ... SET x = x + delta, так что чтение
+ * числа записей - одна строка по первичному ключу вместо COUNT по enrollments.
+ *
+ * Сверка по расписанию пересчитывает счетчики по enrollments пачками курсов и исправляет
+ * расхождения (записи, измененные в обход сервиса)
+ */
+@Slf4j
+@Service
+public class EnrollmentCountService {
+
+    public static final int MAX_COURSE_IDS = 500;
+
+    private final CourseEnrollmentCountRepository countRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final CourseRepository courseRepository;
+    private final EnrollmentCountStream enrollmentCountStream;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public EnrollmentCountService(CourseEnrollmentCountRepository countRepository,
+                                  EnrollmentRepository enrollmentRepository,
+                                  CourseRepository courseRepository,
+                                  EnrollmentCountStream enrollmentCountStream,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.enrollment-counts.reconcile-chunk-size:500}") int chunkSize) {
+        this.countRepository = countRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.courseRepository = courseRepository;
+        this.enrollmentCountStream = enrollmentCountStream;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Перенос записи между статусами курса; null - запись появилась или удалена.
+     * Вызывается только внутри транзакции, меняющей саму запись
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyChange(Integer courseId,
+                            Enrollment.EnrollmentStatus oldStatus,
+                            Enrollment.EnrollmentStatus newStatus) {
+        if (courseId == null || oldStatus == newStatus) {
+            return;
+        }
+        long[] deltas = new long[Enrollment.EnrollmentStatus.values().length];
+        if (oldStatus != null) {
+            deltas[oldStatus.ordinal()]--;
+        }
+        if (newStatus != null) {
+            deltas[newStatus.ordinal()]++;
+        }
+
+        if (addDeltas(courseId, deltas) == 0) {
+            // Первая запись на курс: строки счетчиков еще нет. Параллельная вставка не конфликтует
+            countRepository.insertIfAbsent(courseId);
+            addDeltas(courseId, deltas);
+        }
+        enrollmentCountStream.countsChanged(courseId);
+    }
+
+    /**
+     * Сдвиг одного счетчика на delta: массовое удаление записей пачкой
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyDelta(Integer courseId, Enrollment.EnrollmentStatus status, long delta) {
+        long[] deltas = new long[Enrollment.EnrollmentStatus.values().length];
+        deltas[status.ordinal()] = delta;
+        addDeltas(courseId, deltas);
+        enrollmentCountStream.countsChanged(courseId);
+    }
+
+    /**
+     * Занять место на курсе под активную запись: один условный UPDATE строки счетчиков,
+     * поэтому при любом числе параллельных запросов мест не выдается больше вместимости.
+     * capacity == null - курс без ограничения (но запись на него тоже может быть закрыта)
+     *
+     * @return false - мест нет или запись на курс закрыта
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean tryTakeSeat(Integer courseId, Integer capacity) {
+        long limit = capacity != null ? capacity : Long.MAX_VALUE;
+        boolean taken = countRepository.takeSeat(courseId, limit) == 1;
+        if (!taken) {
+            // Строки счетчиков могло еще не быть: создаем (или дожидаемся чужой вставки) и пробуем еще раз
+            countRepository.insertIfAbsent(courseId);
+            taken = countRepository.takeSeat(courseId, limit) == 1;
+        }
+        if (taken) {
+            enrollmentCountStream.countsChanged(courseId);
+        }
+        return taken;
+    }
+
+    /**
+     * Заблокировать до конца транзакции строки счетчиков курсов, создав недостающие.
+     * Массовые операции меняют возвращенные управляемые сущности сами: изменения уйдут при коммите,
+     * а одиночные записи на эти курсы до коммита ждут на блокировке строки
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Integer, CourseEnrollmentCount> lockCounts(Collection<Integer> courseIds) {
+        // Только id: загруженные сущности блокирующий запрос не перечитал бы, счетчики остались бы старыми
+        Set<Integer> existing = new HashSet<>(countRepository.findExistingIds(courseIds));
+        for (Integer courseId : courseIds) {
+            if (!existing.contains(courseId)) {
+                countRepository.insertIfAbsent(courseId);
+            }
+        }
+
+        Map<Integer, CourseEnrollmentCount> locked = new HashMap<>();
+        countRepository.findForUpdate(courseIds).forEach(count -> locked.put(count.getCourseId(), count));
+        // Вызывающий меняет заблокированные строки сам: подписчики узнают об этом после коммита
+        courseIds.forEach(enrollmentCountStream::countsChanged);
+        return locked;
+    }
+
+    /**
+     * Закрыть или снова открыть запись на курс. Строка счетчиков блокируется до конца транзакции:
+     * после коммита ни одно занятие места на курсе не пройдет, пока запись не откроют
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void setEnrollmentClosed(Integer courseId, boolean closed) {
+        lockCounts(List.of(courseId)).get(courseId).setEnrollmentClosed(closed);
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isEnrollmentClosed(Integer courseId) {
+        return countRepository.findEnrollmentClosed(courseId).orElse(false);
+    }
+
+    /**
+     * Число активных записей по каждому из курсов одним чтением по первичному ключу.
+     * Курсы без записей (и несуществующие) получают 0
+     */
+    @Transactional(readOnly = true)
+    public Map<Integer, Long> getActiveCounts(Collection<Integer> courseIds) {
+        Set<Integer> ids = new LinkedHashSet<>(courseIds);
+        ids.remove(null);
+        if (ids.size() > MAX_COURSE_IDS) {
+            throw new IllegalArgumentException("Не более " + MAX_COURSE_IDS + " курсов в одном запросе");
+        }
+
+        Map<Integer, Long> result = new LinkedHashMap<>();
+        ids.forEach(id -> result.put(id, 0L));
+        if (!ids.isEmpty()) {
+            countRepository.findAllById(ids)
+                    .forEach(count -> result.put(count.getCourseId(), count.getActiveCount()));
+        }
+        return result;
+    }
+
+    @Transactional(readOnly = true)
+    public long getCount(Integer courseId, Enrollment.EnrollmentStatus status) {
+        return countRepository.findById(courseId)
+                .map(count -> count.get(status))
+                .orElse(0L);
+    }
+
+    /**
+     * Пересчет всех счетчиков по enrollments. Каждая пачка курсов - своя транзакция:
+     * строки счетчиков блокируются до подсчета, поэтому параллельные записи на эти курсы
+     * дожидаются сверки и не теряются
+     *
+     * @return число исправленных строк
+     */
+    @Scheduled(cron = "${app.enrollment-counts.reconcile-cron:0 30 3 * * *}")
+    public int reconcile() {
+        long start = System.currentTimeMillis();
+        int fixed = 0;
+        int courses = 0;
+        Integer afterId = 0;
+        while (true) {
+            List<Integer> courseIds = courseRepository.findIdsAfter(afterId, PageRequest.of(0, chunkSize));
+            if (courseIds.isEmpty()) {
+                break;
+            }
+            Integer chunkFixed = transactionTemplate.execute(status -> reconcileChunk(courseIds));
+            fixed += chunkFixed == null ? 0 : chunkFixed;
+            courses += courseIds.size();
+            afterId = courseIds.get(courseIds.size() - 1);
+        }
+        log.info("Сверка счетчиков записей: {} курсов, исправлено {} за {} мс",
+                courses, fixed, System.currentTimeMillis() - start);
+        return fixed;
+    }
+
+    private int reconcileChunk(List<Integer> courseIds) {
+        Map<Integer, CourseEnrollmentCount> locked = lockCounts(courseIds);
+
+        Map<Integer, CourseEnrollmentCount> actual = new HashMap<>();
+        for (Object[] row : enrollmentRepository.countByCourseIdsGroupByStatus(courseIds)) {
+            Integer courseId = (Integer) row[0];
+            actual.computeIfAbsent(courseId, id -> new CourseEnrollmentCount(id, 0, 0, 0, 0, false))
+                    .set((Enrollment.EnrollmentStatus) row[1], (Long) row[2]);
+        }
+
+        int fixed = 0;
+        for (CourseEnrollmentCount count : locked.values()) {
+            CourseEnrollmentCount expected = actual.getOrDefault(count.getCourseId(),
+                    new CourseEnrollmentCount(count.getCourseId(), 0, 0, 0, 0, false));
+            if (!expected.sameCounts(count)) {
+                log.warn("Счетчики записей курса {} расходятся: {}, по факту {}",
+                        count.getCourseId(), count, expected);
+                // Управляемая сущность: изменения уйдут при коммите пачкой JDBC
+                for (Enrollment.EnrollmentStatus status : Enrollment.EnrollmentStatus.values()) {
+                    count.set(status, expected.get(status));
+                }
+                fixed++;
+            }
+        }
+        return fixed;
+    }
+
+    private int addDeltas(Integer courseId, long[] deltas) {
+        return countRepository.addDeltas(courseId,
+                deltas[Enrollment.EnrollmentStatus.ACTIVE.ordinal()],
+                deltas[Enrollment.EnrollmentStatus.COMPLETED.ordinal()],
+                deltas[Enrollment.EnrollmentStatus.CANCELLED.ordinal()],
+                deltas[Enrollment.EnrollmentStatus.WAITLISTED.ordinal()]);
+    }
+}
@@ -0,0 +1,341 @@
+package sf.mifi.grechko.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import sf.mifi.grechko.models.CourseEnrollmentCount;
+import sf.mifi.grechko.repositories.CourseEnrollmentCountRepository;
+import sf.mifi.grechko.repositories.CourseRepository;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Подписки на число активных записей курса (Server-Sent Events) вместо опроса active-count.
+ *
+ * Соединение подписчика - асинхронный запрос: пока оно простаивает, поток сервера не занят.
+ * Изменение счетчиков только помечает курс после коммита; один поток рассылки раз в 1/N секунды
+ * читает счетчики всех помеченных курсов (одна выборка на пачку курсов) и раздает подписчикам
+ * новое значение, поэтому всплеск записей на курс дает не больше N событий в секунду.
+ *
+ * Запись в соединение идет в отдельном пуле, у каждого подписчика не больше одной отправки за раз:
+ * пока медленный клиент не принял предыдущее событие, для него копится только последнее значение,
+ * а рассылка остальным не ждет. Подписчик, отправка которому висит дольше send-timeout-seconds,
+ * снимается с рассылки.
+ *
+ * Изменения с других узлов здесь не видны сразу: раз в heartbeat-seconds счетчики всех курсов
+ * с подписчиками перечитываются, и вместе с этим каждому подписчику уходит комментарий, по ошибке
+ * отправки которого отсекаются оборванные соединения.
+ *
+ * При остановке приложения соединения закрываются до ожидания незавершенных запросов (graceful
+ * shutdown ждал бы их до таймаута)
+ */
+@Slf4j
+@Service
+public class EnrollmentCountStream implements SmartLifecycle {
+
+    private static final String EVENT_NAME = "active-count";
+
+    private final CourseEnrollmentCountRepository countRepository;
+    private final CourseRepository courseRepository;
+    private final long timeoutMillis;
+    private final long flushMillis;
+    private final long heartbeatSeconds;
+    private final long sendTimeoutNanos;
+
+    private final Map<Integer, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Set<Integer> changed = ConcurrentHashMap.newKeySet();
+    private volatile boolean running;
+
+    private final ScheduledExecutorService flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "enrollment-count-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService sendExecutor;
+
+    public EnrollmentCountStream(CourseEnrollmentCountRepository countRepository,
+                                 CourseRepository courseRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.enrollment.stream.max-updates-per-second:2}") int maxUpdatesPerSecond,
+                                 @Value("${app.enrollment.stream.heartbeat-seconds:30}") long heartbeatSeconds,
+                                 @Value("${app.enrollment.stream.timeout-minutes:30}") long timeoutMinutes,
+                                 @Value("${app.enrollment.stream.send-threads:4}") int sendThreads,
+                                 @Value("${app.enrollment.stream.send-timeout-seconds:10}") long sendTimeoutSeconds) {
+        this.countRepository = countRepository;
+        this.courseRepository = courseRepository;
+        this.timeoutMillis = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+        this.flushMillis = Math.max(1, 1000L / Math.max(1, maxUpdatesPerSecond));
+        this.heartbeatSeconds = heartbeatSeconds;
+        this.sendTimeoutNanos = TimeUnit.SECONDS.toNanos(sendTimeoutSeconds);
+        this.sendExecutor = Executors.newFixedThreadPool(Math.max(1, sendThreads), new ThreadFactory() {
+            private int number;
+
+            @Override
+            public synchronized Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "enrollment-count-send-" + (++number));
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        Gauge.builder("enrollment.stream.subscribers", subscribers,
+                        map -> map.values().stream().mapToInt(Set::size).sum())
+                .description("Открытые подписки на число записей курсов")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Новая подписка на курс: текущее значение уходит сразу, дальше - только изменения.
+     * По истечении таймаута соединение закрывается, EventSource браузера переподключается сам
+     */
+    public SseEmitter subscribe(Integer courseId) {
+        if (!courseRepository.existsById(courseId)) {
+            throw new CourseNotFoundException(courseId);
+        }
+
+        Subscriber subscriber = new Subscriber(courseId, new SseEmitter(timeoutMillis));
+        SseEmitter emitter = subscriber.emitter;
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+        if (!running) {
+            emitter.complete();
+            return emitter;
+        }
+        subscribers.computeIfAbsent(courseId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+
+        long count = countRepository.findById(courseId)
+                .map(CourseEnrollmentCount::getActiveCount)
+                .orElse(0L);
+        subscriber.deliver(count);
+        return emitter;
+    }
+
+    /**
+     * Счетчики курса изменились. Внутри транзакции курс помечается только после коммита,
+     * курсы без подписчиков на этом узле пропускаются
+     */
+    public void countsChanged(Integer courseId) {
+        if (courseId == null || !subscribers.containsKey(courseId)) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            changed.add(courseId);
+            return;
+        }
+
+        // Одна синхронизация на транзакцию, сколько бы записей она ни меняла
+        @SuppressWarnings("unchecked")
+        Set<Integer> pending = (Set<Integer>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<Integer> courses = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, courses);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    changed.addAll(courses);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(EnrollmentCountStream.this);
+                }
+            });
+            pending = courses;
+        }
+        pending.add(courseId);
+    }
+
+    @Override
+    public void start() {
+        flushExecutor.scheduleWithFixedDelay(this::flushSafely, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        flushExecutor.scheduleWithFixedDelay(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+        running = true;
+    }
+
+    /**
+     * Остановка раньше веб-сервера (фаза по умолчанию - самая поздняя при старте, первая при остановке):
+     * открытые соединения завершаются, и graceful shutdown не ждет их
+     */
+    @Override
+    public void stop() {
+        running = false;
+        flushExecutor.shutdownNow();
+        sendExecutor.shutdownNow();
+        List<Subscriber> open = subscribers.values().stream().flatMap(Set::stream).toList();
+        subscribers.clear();
+        open.forEach(subscriber -> subscriber.emitter.complete());
+        log.info("Поток счетчиков записей остановлен, закрыто подписок: {}", open.size());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Разослать новые значения помеченных курсов
+     */
+    private void flush() {
+        if (changed.isEmpty()) {
+            return;
+        }
+        List<Integer> courseIds = new ArrayList<>();
+        for (Iterator<Integer> it = changed.iterator(); it.hasNext(); ) {
+            Integer courseId = it.next();
+            it.remove();
+            if (subscribers.containsKey(courseId)) {
+                courseIds.add(courseId);
+            }
+        }
+
+        for (int from = 0; from < courseIds.size(); from += EnrollmentCountService.MAX_COURSE_IDS) {
+            List<Integer> chunk = courseIds.subList(from,
+                    Math.min(from + EnrollmentCountService.MAX_COURSE_IDS, courseIds.size()));
+            Map<Integer, Long> counts = new HashMap<>();
+            chunk.forEach(id -> counts.put(id, 0L));
+            countRepository.findAllById(chunk)
+                    .forEach(count -> counts.put(count.getCourseId(), count.getActiveCount()));
+
+            counts.forEach((courseId, count) -> {
+                for (Subscriber subscriber : subscribers.getOrDefault(courseId, Set.of())) {
+                    subscriber.deliver(count);
+                }
+            });
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            dropStalled();
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Не удалось разослать счетчики записей: {}", e.getMessage());
+        }
+    }
+
+    private void heartbeat() {
+        subscribers.values().forEach(course -> course.forEach(Subscriber::ping));
+        // Подхватить изменения, сделанные на других узлах или в обход сервисов
+        changed.addAll(subscribers.keySet());
+    }
+
+    /**
+     * Клиент не принимает данные: снять его с рассылки, чтобы новые события не занимали пул отправки.
+     * Само соединение закроется, когда зависшая запись завершится ошибкой или истечет таймаут подписки
+     */
+    private void dropStalled() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(course -> course.forEach(subscriber -> {
+            long startedAt = subscriber.sendStartedAt;
+            if (startedAt != 0 && now - startedAt > sendTimeoutNanos) {
+                log.debug("Подписчик курса {} не принимает события, подписка снята", subscriber.courseId);
+                unsubscribe(subscriber);
+            }
+        }));
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.courseId, (id, course) -> {
+            course.remove(subscriber);
+            return course.isEmpty() ? null : course;
+        });
+    }
+
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public static class CourseNotFoundException extends RuntimeException {
+        public CourseNotFoundException(Integer courseId) {
+            super("Course not found with id: " + courseId);
+        }
+    }
+
+    /**
+     * Соединение одного клиента. Отправки ему идут строго по одной: пока предыдущая не закончилась,
+     * новое значение только заменяет еще не отправленное
+     */
+    private final class Subscriber {
+
+        private final Integer courseId;
+        private final SseEmitter emitter;
+        // Значение, еще не отправленное клиенту; null - отправлять нечего
+        private final AtomicReference<Long> pending = new AtomicReference<>();
+        private final AtomicBoolean pingPending = new AtomicBoolean();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        // Начало текущей отправки (System.nanoTime), 0 - отправки нет
+        private volatile long sendStartedAt;
+        // Последнее отправленное значение: повторно одно и то же число не уходит.
+        // Доступ только из drain, а он выполняется не больше чем в одном потоке за раз
+        private Long lastSent;
+
+        private Subscriber(Integer courseId, SseEmitter emitter) {
+            this.courseId = courseId;
+            this.emitter = emitter;
+        }
+
+        private void deliver(long count) {
+            pending.set(count);
+            schedule();
+        }
+
+        private void ping() {
+            pingPending.set(true);
+            schedule();
+        }
+
+        private void schedule() {
+            if (!scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                sendExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Приложение останавливается
+                scheduled.set(false);
+            }
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    Long count = pending.getAndSet(null);
+                    boolean ping = pingPending.getAndSet(false);
+                    if (count == null && !ping) {
+                        break;
+                    }
+                    sendStartedAt = System.nanoTime();
+                    if (count != null && !count.equals(lastSent)) {
+                        emitter.send(SseEmitter.event().name(EVENT_NAME).data(count));
+                        lastSent = count;
+                    } else if (ping) {
+                        emitter.send(SseEmitter.event().comment("ping"));
+                    }
+                    sendStartedAt = 0;
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Клиент отключился: соединение закрывается, подписка снимается
+                sendStartedAt = 0;
+                emitter.completeWithError(e);
+                unsubscribe(this);
+                return;
+            } finally {
+                scheduled.set(false);
+            }
+            // Значение могло прийти между последней проверкой и снятием флага
+            if (pending.get() != null || pingPending.get()) {
+                schedule();
+            }
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package sf.mifi.grechko.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import sf.mifi.grechko.dto.BulkEnrollmentRequest;
+import sf.mifi.grechko.dto.BulkImportResult;
+import sf.mifi.grechko.dto.EnrollmentDto;
+import sf.mifi.grechko.models.CourseEnrollmentCount;
+import sf.mifi.grechko.models.Enrollment;
+import sf.mifi.grechko.repositories.CourseRepository;
+import sf.mifi.grechko.repositories.EnrollmentRepository;
+import sf.mifi.grechko.repositories.UserRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Массовая запись на курсы:
+ * проверка пользователей и курсов одним IN-запросом на пачку, отсечение уже существующих пар,
+ * вставка пакетами JDBC с ON CONFLICT DO NOTHING (каждая пачка в своей транзакции).
+ * Места на курсах раздаются в порядке строк под блокировкой строк счетчиков, не поместившиеся
+ * активные записи встают в лист ожидания - как при одиночной записи
+ */
+@Slf4j
+@Service
+public class EnrollmentImportService {
+
+    // Кроме id у enrollments одно уникальное ограничение - (user_id, course_id)
+    private static final String INSERT_SQL =
+            "INSERT INTO enrollments (user_id, course_id, enroll_date, status, created_at, updated_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private final UserRepository userRepository;
+    private final CourseRepository courseRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final EnrollmentCountService enrollmentCountService;
+    private final WaitlistService waitlistService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public EnrollmentImportService(UserRepository userRepository,
+                                   CourseRepository courseRepository,
+                                   EnrollmentRepository enrollmentRepository,
+                                   EnrollmentCountService enrollmentCountService,
+                                   WaitlistService waitlistService,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${app.import.chunk-size:1000}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.courseRepository = courseRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.enrollmentCountService = enrollmentCountService;
+        this.waitlistService = waitlistService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    public BulkImportResult importEnrollments(BulkEnrollmentRequest request) {
+        long start = System.currentTimeMillis();
+        List<EnrollmentDto.CreateRequest> requests = expand(request);
+        Map<Integer, BulkImportResult.RowResult> results = new TreeMap<>();
+
+        // 1. Валидация и дубликаты внутри самого запроса
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            int row = i + 1;
+            EnrollmentDto.CreateRequest pair = requests.get(i);
+            String error = validate(pair);
+            if (error != null) {
+                results.put(row, rowResult(row, pairKey(pair), BulkImportResult.RowStatus.INVALID, error));
+            } else if (candidates.putIfAbsent(pairKey(pair), row) != null) {
+                results.put(row, rowResult(row, pairKey(pair), BulkImportResult.RowStatus.DUPLICATE,
+                        "Пара повторяется в запросе"));
+            }
+        }
+
+        // 2. Пользователи и курсы (с вместимостью) - множеством id, один запрос на пачку
+        Set<Integer> userIds = new HashSet<>();
+        Set<Integer> courseIds = new HashSet<>();
+        for (int row : candidates.values()) {
+            userIds.add(requests.get(row - 1).getUserId());
+            courseIds.add(requests.get(row - 1).getCourseId());
+        }
+        Set<Integer> existingUsers = new HashSet<>();
+        for (List<Integer> chunk : chunks(new ArrayList<>(userIds))) {
+            existingUsers.addAll(userRepository.findExistingIds(chunk));
+        }
+        // null - курс без ограничения мест
+        Map<Integer, Integer> capacities = new HashMap<>();
+        for (List<Integer> chunk : chunks(new ArrayList<>(courseIds))) {
+            for (Object[] course : courseRepository.findCapacities(chunk)) {
+                capacities.put((Integer) course[0], (Integer) course[1]);
+            }
+        }
+
+        List<Integer> rows = new ArrayList<>();
+        for (int row : candidates.values()) {
+            EnrollmentDto.CreateRequest pair = requests.get(row - 1);
+            if (!existingUsers.contains(pair.getUserId())) {
+                results.put(row, rowResult(row, pairKey(pair), BulkImportResult.RowStatus.INVALID,
+                        "Пользователь не найден: " + pair.getUserId()));
+            } else if (!capacities.containsKey(pair.getCourseId())) {
+                results.put(row, rowResult(row, pairKey(pair), BulkImportResult.RowStatus.INVALID,
+                        "Курс не найден: " + pair.getCourseId()));
+            } else {
+                rows.add(row);
+            }
+        }
+
+        // 3. Вставка пачками
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            List<Integer> chunkRows = rows.subList(from, Math.min(from + chunkSize, rows.size()));
+            List<BulkImportResult.RowResult> chunkResults = transactionTemplate.execute(
+                    status -> insertChunk(requests, chunkRows, capacities));
+            chunkResults.forEach(r -> results.put(r.getRow(), r));
+        }
+
+        BulkImportResult result = new BulkImportResult();
+        results.values().forEach(r -> result.addRow(r.getRow(), r.getKey(), r.getStatus(), r.getMessage()));
+
+        log.info("Массовая запись на курсы: всего {}, создано {}, дубликатов {}, ошибок {} за {} мс",
+                result.getTotal(), result.getCreated(), result.getDuplicates(), result.getInvalid(),
+                System.currentTimeMillis() - start);
+        return result;
+    }
+
+    private List<BulkImportResult.RowResult> insertChunk(List<EnrollmentDto.CreateRequest> requests,
+                                                         List<Integer> chunkRows,
+                                                         Map<Integer, Integer> capacities) {
+        List<BulkImportResult.RowResult> results = new ArrayList<>(chunkRows.size());
+
+        Set<Integer> userIds = new HashSet<>();
+        Set<Integer> courseIds = new HashSet<>();
+        for (int row : chunkRows) {
+            userIds.add(requests.get(row - 1).getUserId());
+            courseIds.add(requests.get(row - 1).getCourseId());
+        }
+
+        // Счетчики заблокированы до коммита: места раздаются по ним, одиночные записи на эти курсы ждут.
+        // Кто успел занять место раньше, уже закоммитил свою запись - она видна проверке пар ниже,
+        // поэтому места не планируются под пары, которые окажутся дубликатами
+        Map<Integer, CourseEnrollmentCount> counts = enrollmentCountService.lockCounts(courseIds);
+
+        // Уже существующие пары пачки - один запрос по множествам пользователей и курсов
+        Set<String> existing = new HashSet<>();
+        for (Object[] pair : enrollmentRepository.findPairs(userIds, courseIds)) {
+            existing.add(pairKey((Integer) pair[0], (Integer) pair[1]));
+        }
+
+        List<Integer> insertRows = new ArrayList<>(chunkRows.size());
+        for (int row : chunkRows) {
+            EnrollmentDto.CreateRequest pair = requests.get(row - 1);
+            if (existing.contains(pairKey(pair))) {
+                results.add(rowResult(row, pairKey(pair), BulkImportResult.RowStatus.DUPLICATE,
+                        "Пользователь уже записан на курс"));
+            } else {
+                insertRows.add(row);
+            }
+        }
+        if (insertRows.isEmpty()) {
+            return results;
+        }
+
+        Map<Integer, Long> seatsTaken = new HashMap<>();
+        List<Integer> plannedRows = new ArrayList<>(insertRows.size());
+        List<Enrollment.EnrollmentStatus> statuses = new ArrayList<>(insertRows.size());
+        List<Object[]> args = new ArrayList<>(insertRows.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (int row : insertRows) {
+            EnrollmentDto.CreateRequest pair = requests.get(row - 1);
+            if (counts.get(pair.getCourseId()).isEnrollmentClosed()) {
+                results.add(rowResult(row, pairKey(pair), BulkImportResult.RowStatus.INVALID,
+                        "Запись на курс закрыта: " + pair.getCourseId()));
+                continue;
+            }
+            Enrollment.EnrollmentStatus status = requestedStatus(pair);
+            if (status == Enrollment.EnrollmentStatus.ACTIVE) {
+                Integer capacity = capacities.get(pair.getCourseId());
+                long taken = seatsTaken.getOrDefault(pair.getCourseId(), 0L);
+                if (capacity != null && counts.get(pair.getCourseId()).getActiveCount() + taken >= capacity) {
+                    status = Enrollment.EnrollmentStatus.WAITLISTED;
+                } else {
+                    seatsTaken.merge(pair.getCourseId(), 1L, Long::sum);
+                }
+            }
+            plannedRows.add(row);
+            statuses.add(status);
+            args.add(new Object[]{pair.getUserId(), pair.getCourseId(),
+                    pair.getEnrollDate() != null ? pair.getEnrollDate() : LocalDate.now(), status.name(), now, now});
+        }
+
+        if (args.isEmpty()) {
+            return results;
+        }
+
+        int[] inserted = jdbcTemplate.batchUpdate(INSERT_SQL, args);
+        for (int i = 0; i < plannedRows.size(); i++) {
+            int row = plannedRows.get(i);
+            EnrollmentDto.CreateRequest pair = requests.get(row - 1);
+            // 0 - пару успел вставить параллельный запрос в обход счетчиков (ON CONFLICT DO NOTHING)
+            if (inserted[i] == 0) {
+                results.add(rowResult(row, pairKey(pair), BulkImportResult.RowStatus.DUPLICATE,
+                        "Пользователь уже записан на курс"));
+                if (statuses.get(i) == Enrollment.EnrollmentStatus.ACTIVE) {
+                    // Запланированное место не занято: после коммита его получит лист ожидания
+                    waitlistService.requestPromotion(pair.getCourseId());
+                }
+                continue;
+            }
+            Enrollment.EnrollmentStatus status = statuses.get(i);
+            // Управляемая заблокированная сущность: новые значения уйдут при коммите
+            CourseEnrollmentCount count = counts.get(pair.getCourseId());
+            count.set(status, count.get(status) + 1);
+            results.add(rowResult(row, pairKey(pair), BulkImportResult.RowStatus.CREATED,
+                    status == Enrollment.EnrollmentStatus.WAITLISTED && requestedStatus(pair) != status
+                            ? "Мест нет, запись в листе ожидания" : null));
+        }
+        return results;
+    }
+
+    private List<EnrollmentDto.CreateRequest> expand(BulkEnrollmentRequest request) {
+        List<EnrollmentDto.CreateRequest> requests = new ArrayList<>();
+        if (request.getUserIds() != null) {
+            for (Integer userId : request.getUserIds()) {
+                EnrollmentDto.CreateRequest pair = new EnrollmentDto.CreateRequest();
+                pair.setUserId(userId);
+                pair.setCourseId(request.getCourseId());
+                requests.add(pair);
+            }
+        }
+        if (request.getPairs() != null) {
+            requests.addAll(request.getPairs());
+        }
+        return requests;
+    }
+
+    private String validate(EnrollmentDto.CreateRequest pair) {
+        if (pair == null || pair.getUserId() == null) {
+            return "Пользователь должен быть указан";
+        }
+        if (pair.getCourseId() == null) {
+            return "Курс должен быть указан";
+        }
+        if (pair.getStatus() != null) {
+            try {
+                Enrollment.EnrollmentStatus.valueOf(pair.getStatus());
+            } catch (IllegalArgumentException e) {
+                return "Некорректный статус: " + pair.getStatus();
+            }
+        }
+        return null;
+    }
+
+    private Enrollment.EnrollmentStatus requestedStatus(EnrollmentDto.CreateRequest pair) {
+        return pair.getStatus() != null
+                ? Enrollment.EnrollmentStatus.valueOf(pair.getStatus())
+                : Enrollment.EnrollmentStatus.ACTIVE;
+    }
+
+    private List<List<Integer>> chunks(List<Integer> values) {
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += chunkSize) {
+            chunks.add(values.subList(from, Math.min(from + chunkSize, values.size())));
+        }
+        return chunks;
+    }
+
+    private static String pairKey(EnrollmentDto.CreateRequest pair) {
+        return pair == null ? null : pairKey(pair.getUserId(), pair.getCourseId());
+    }
+
+    private static String pairKey(Integer userId, Integer courseId) {
+        return userId + ":" + courseId;
+    }
+
+    private BulkImportResult.RowResult rowResult(int row, String key, BulkImportResult.RowStatus status, String message) {
+        return new BulkImportResult.RowResult(row, key, status, message);
+    }
+}
@@ -1,8 +1,12 @@
 package sf.mifi.grechko.services;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import sf.mifi.grechko.dto.CursorPage;
 import sf.mifi.grechko.dto.EnrollmentDto;
 import sf.mifi.grechko.mapper.EnrollmentMapper;
 import sf.mifi.grechko.models.Course;
@@ -13,6 +17,7 @@ import sf.mifi.grechko.repositories.EnrollmentRepository;
 import sf.mifi.grechko.repositories.UserRepository;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,20 +28,21 @@ public class EnrollmentService {
     private final UserRepository userRepository;
     private final CourseRepository courseRepository;
     private final EnrollmentMapper enrollmentMapper;
+    private final EnrollmentCountService enrollmentCountService;
+    private final WaitlistService waitlistService;
 
     @Transactional(readOnly = true)
-    public List<EnrollmentDto> getAllEnrollments() {
-        return enrollmentRepository.findAll()
-                .stream()
-                .map(enrollmentMapper::toDTO)
-                .collect(Collectors.toList());
+    public CursorPage<EnrollmentDto> getAllEnrollments(String cursor, Integer size) {
+        int pageSize = CursorPage.normalizeSize(size);
+        List<EnrollmentDto> fetched = enrollmentRepository.findPage(
+                CursorPage.decodeCursor(cursor), PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(fetched, pageSize, EnrollmentDto::getId);
     }
 
     @Transactional(readOnly = true)
     public EnrollmentDto getEnrollmentById(Integer id) {
-        Enrollment enrollment = enrollmentRepository.findById(id)
+        return enrollmentRepository.findDtoById(id)
                 .orElseThrow(() -> new RuntimeException("Enrollment not found with id: " + id));
-        return enrollmentMapper.toDTO(enrollment);
     }
 
     @Transactional
@@ -51,15 +57,30 @@ public class EnrollmentService {
 
         Course course = courseRepository.findById(request.getCourseId())
                 .orElseThrow(() -> new RuntimeException("Course not found with id: " + request.getCourseId()));
+        if (enrollmentCountService.isEnrollmentClosed(course.getId())) {
+            throw new EnrollmentClosedException(course.getId());
+        }
 
         Enrollment enrollment = enrollmentMapper.toEntity(request);
         enrollment.setUser(user);
         enrollment.setCourse(course);
 
-        // Устанавливаем статус, если не указан в запросе
-        if (request.getStatus() != null) {
-            enrollment.setStatus(Enrollment.EnrollmentStatus.valueOf(request.getStatus()));
+        // Статус по умолчанию - ACTIVE, но активная запись сначала занимает место на курсе.
+        // Мест нет - запись встает в лист ожидания
+        Enrollment.EnrollmentStatus status = request.getStatus() != null
+                ? Enrollment.EnrollmentStatus.valueOf(request.getStatus())
+                : Enrollment.EnrollmentStatus.ACTIVE;
+        if (status != Enrollment.EnrollmentStatus.ACTIVE) {
+            enrollmentCountService.applyChange(course.getId(), null, status);
+        } else if (!enrollmentCountService.tryTakeSeat(course.getId(), course.getCapacity())) {
+            // Место не выдано и потому, что курс закрыли, пока запрос ждал блокировку счетчиков
+            if (enrollmentCountService.isEnrollmentClosed(course.getId())) {
+                throw new EnrollmentClosedException(course.getId());
+            }
+            status = Enrollment.EnrollmentStatus.WAITLISTED;
+            enrollmentCountService.applyChange(course.getId(), null, status);
         }
+        enrollment.setStatus(status);
 
         Enrollment savedEnrollment = enrollmentRepository.save(enrollment);
         return enrollmentMapper.toDTO(savedEnrollment);
@@ -70,7 +91,34 @@ public class EnrollmentService {
         Enrollment enrollment = enrollmentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Enrollment not found with id: " + id));
 
-        enrollment.setStatus(Enrollment.EnrollmentStatus.valueOf(request.getStatus()));
+        Enrollment.EnrollmentStatus oldStatus = enrollment.getStatus();
+        Enrollment.EnrollmentStatus newStatus = Enrollment.EnrollmentStatus.valueOf(request.getStatus());
+        Course course = enrollment.getCourse();
+
+        if (oldStatus != newStatus) {
+            // Места из листа ожидания раздаются по очереди: вручную можно перевести только первого
+            if (oldStatus == Enrollment.EnrollmentStatus.WAITLISTED && newStatus == Enrollment.EnrollmentStatus.ACTIVE
+                    && enrollmentRepository.existsByCourseIdAndStatusAndIdLessThan(
+                            course.getId(), Enrollment.EnrollmentStatus.WAITLISTED, enrollment.getId())) {
+                throw new WaitlistOrderException(course.getId());
+            }
+            if (newStatus == Enrollment.EnrollmentStatus.ACTIVE) {
+                if (!enrollmentCountService.tryTakeSeat(course.getId(), course.getCapacity())) {
+                    if (enrollmentCountService.isEnrollmentClosed(course.getId())) {
+                        throw new EnrollmentClosedException(course.getId());
+                    }
+                    throw new NoSeatsException(course.getId());
+                }
+                enrollmentCountService.applyChange(course.getId(), oldStatus, null);
+            } else {
+                enrollmentCountService.applyChange(course.getId(), oldStatus, newStatus);
+            }
+            if (oldStatus == Enrollment.EnrollmentStatus.ACTIVE) {
+                waitlistService.requestPromotion(course.getId());
+            }
+        }
+
+        enrollment.setStatus(newStatus);
         Enrollment updatedEnrollment = enrollmentRepository.save(enrollment);
 
         return enrollmentMapper.toDTO(updatedEnrollment);
@@ -78,33 +126,59 @@ public class EnrollmentService {
 
     @Transactional
     public void deleteEnrollment(Integer id) {
-        if (!enrollmentRepository.existsById(id)) {
-            throw new RuntimeException("Enrollment not found with id: " + id);
+        Enrollment enrollment = enrollmentRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Enrollment not found with id: " + id));
+        enrollmentRepository.delete(enrollment);
+        enrollmentCountService.applyChange(enrollment.getCourse().getId(), enrollment.getStatus(), null);
+        if (enrollment.isActive()) {
+            waitlistService.requestPromotion(enrollment.getCourse().getId());
         }
-        enrollmentRepository.deleteById(id);
     }
 
     @Transactional(readOnly = true)
-    public List<EnrollmentDto> getEnrollmentsByUser(Integer userId) {
-        return enrollmentRepository.findByUserIdWithCourses(userId)
-                .stream()
-                .map(enrollmentMapper::toDTO)
-                .collect(Collectors.toList());
+    public CursorPage<EnrollmentDto> getEnrollmentsByUser(Integer userId, String cursor, Integer size) {
+        int pageSize = CursorPage.normalizeSize(size);
+        List<EnrollmentDto> fetched = enrollmentRepository.findPageByUserId(
+                userId, CursorPage.decodeCursor(cursor), PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(fetched, pageSize, EnrollmentDto::getId);
     }
 
     @Transactional(readOnly = true)
-    public List<EnrollmentDto> getEnrollmentsByCourse(Integer courseId) {
-        return enrollmentRepository.findByCourseIdWithUsers(courseId)
-                .stream()
-                .map(enrollmentMapper::toDTO)
-                .collect(Collectors.toList());
+    public CursorPage<EnrollmentDto> getEnrollmentsByCourse(Integer courseId, String cursor, Integer size) {
+        int pageSize = CursorPage.normalizeSize(size);
+        List<EnrollmentDto> fetched = enrollmentRepository.findPageByCourseId(
+                courseId, CursorPage.decodeCursor(cursor), PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(fetched, pageSize, EnrollmentDto::getId);
     }
 
     @Transactional(readOnly = true)
     public long getActiveEnrollmentsCountByCourse(Integer courseId) {
-        return enrollmentRepository.countByCourseIdAndStatus(
-                courseId,
-                Enrollment.EnrollmentStatus.ACTIVE
-        );
+        return enrollmentCountService.getCount(courseId, Enrollment.EnrollmentStatus.ACTIVE);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Integer, Long> getActiveEnrollmentsCounts(List<Integer> courseIds) {
+        return enrollmentCountService.getActiveCounts(courseIds);
+    }
+
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public static class NoSeatsException extends RuntimeException {
+        public NoSeatsException(Integer courseId) {
+            super("No seats available in course: " + courseId);
+        }
+    }
+
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public static class EnrollmentClosedException extends RuntimeException {
+        public EnrollmentClosedException(Integer courseId) {
+            super("Enrollment is closed in course: " + courseId);
+        }
+    }
+
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public static class WaitlistOrderException extends RuntimeException {
+        public WaitlistOrderException(Integer courseId) {
+            super("Waitlisted enrollments are activated in queue order in course: " + courseId);
+        }
     }
 }
@@ -0,0 +1,227 @@
+package sf.mifi.grechko.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import sf.mifi.grechko.dto.BulkStatusResult;
+import sf.mifi.grechko.dto.EnrollmentDto;
+import sf.mifi.grechko.models.CourseEnrollmentCount;
+import sf.mifi.grechko.models.Enrollment;
+import sf.mifi.grechko.repositories.CourseRepository;
+import sf.mifi.grechko.repositories.EnrollmentRepository;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Массовая смена статуса записей (закрытие курса, отмена группы) без загрузки сущностей:
+ * пачка - одна инструкция UPDATE в своей короткой транзакции.
+ *
+ * Счетчики затронутых курсов блокируются на время пачки и сдвигаются ровно на число переведенных
+ * записей; в ACTIVE переводится не больше, чем осталось мест. Освободившиеся места раздаются
+ * листу ожидания после коммита, как при одиночной смене статуса. Исключение - завершение или отмена
+ * всех активных записей курса: сначала отдельной транзакцией закрывается запись на курс
+ * (места больше не выдаются никому - ни новым записям, ни листу ожидания), затем пачками
+ * отменяется лист ожидания и переводятся активные записи
+ */
+@Slf4j
+@Service
+public class EnrollmentStatusService {
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final CourseRepository courseRepository;
+    private final EnrollmentCountService enrollmentCountService;
+    private final WaitlistService waitlistService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public EnrollmentStatusService(EnrollmentRepository enrollmentRepository,
+                                   CourseRepository courseRepository,
+                                   EnrollmentCountService enrollmentCountService,
+                                   WaitlistService waitlistService,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${app.enrollment.status-chunk-size:1000}") int chunkSize) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.courseRepository = courseRepository;
+        this.enrollmentCountService = enrollmentCountService;
+        this.waitlistService = waitlistService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Перевести все записи курса из fromStatus (по умолчанию ACTIVE) в status
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    public BulkStatusResult updateCourseStatus(Integer courseId, EnrollmentDto.CourseStatusRequest request) {
+        long start = System.currentTimeMillis();
+        Enrollment.EnrollmentStatus from = request.getFromStatus() != null
+                ? parseStatus(request.getFromStatus())
+                : Enrollment.EnrollmentStatus.ACTIVE;
+        Enrollment.EnrollmentStatus to = parseStatus(request.getStatus());
+        List<Object[]> course = courseRepository.findCapacities(List.of(courseId));
+        if (course.isEmpty()) {
+            throw new CourseNotFoundException(courseId);
+        }
+        Integer capacity = (Integer) course.get(0)[1];
+        if (from == to) {
+            return new BulkStatusResult(to.name(), 0, 0);
+        }
+
+        boolean closing = from == Enrollment.EnrollmentStatus.ACTIVE && isFinal(to);
+        if (closing) {
+            // Курс закрыт или отменен целиком. Запись закрывается до первой пачки: иначе места,
+            // освобожденные ранними пачками, успели бы занять новые записи и лист ожидания
+            transactionTemplate.executeWithoutResult(status -> enrollmentCountService.setEnrollmentClosed(courseId, true));
+            long cancelled = updateCourse(courseId, capacity,
+                    Enrollment.EnrollmentStatus.WAITLISTED, Enrollment.EnrollmentStatus.CANCELLED);
+            if (cancelled > 0) {
+                log.info("Курс {}: запись закрыта, лист ожидания отменен, {} записей", courseId, cancelled);
+            }
+        } else if (isFinal(from) && to == Enrollment.EnrollmentStatus.ACTIVE) {
+            // Обратный перевод завершенных или отмененных записей снова открывает запись на курс
+            transactionTemplate.executeWithoutResult(status -> enrollmentCountService.setEnrollmentClosed(courseId, false));
+        }
+
+        long updated = updateCourse(courseId, capacity, from, to);
+        if (!closing && updated > 0 && from == Enrollment.EnrollmentStatus.ACTIVE) {
+            waitlistService.requestPromotion(courseId);
+        }
+
+        long skipped = enrollmentCountService.getCount(courseId, from);
+        log.info("Курс {}: {} записей переведено из {} в {}, осталось {} за {} мс",
+                courseId, updated, from, to, skipped, System.currentTimeMillis() - start);
+        return new BulkStatusResult(to.name(), updated, skipped);
+    }
+
+    /**
+     * Перевести записи из списка в status. Записи в ACTIVE переводятся в порядке id, пока на курсе есть места
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    public BulkStatusResult updateStatuses(EnrollmentDto.BulkStatusRequest request) {
+        Enrollment.EnrollmentStatus to = parseStatus(request.getStatus());
+        List<Integer> ids = request.getIds() == null ? List.of() : request.getIds().stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+
+        long updated = 0;
+        Set<Integer> freedCourses = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            updated += transactionTemplate.execute(status -> updateChunk(chunk, to, freedCourses));
+        }
+        freedCourses.forEach(waitlistService::requestPromotion);
+
+        return new BulkStatusResult(to.name(), updated, ids.size() - updated);
+    }
+
+    private long updateCourse(Integer courseId, Integer capacity,
+                              Enrollment.EnrollmentStatus from, Enrollment.EnrollmentStatus to) {
+        long updated = 0;
+        while (true) {
+            Integer moved = transactionTemplate.execute(status -> updateCourseChunk(courseId, capacity, from, to));
+            updated += moved;
+            // Меньше полной пачки - записи в исходном статусе кончились (или кончились места)
+            if (moved < chunkSize) {
+                return updated;
+            }
+        }
+    }
+
+    private int updateCourseChunk(Integer courseId, Integer capacity,
+                                  Enrollment.EnrollmentStatus from, Enrollment.EnrollmentStatus to) {
+        CourseEnrollmentCount count = enrollmentCountService.lockCounts(List.of(courseId)).get(courseId);
+        int limit = chunkSize;
+        if (to == Enrollment.EnrollmentStatus.ACTIVE && count.isEnrollmentClosed()) {
+            limit = 0;
+        } else if (to == Enrollment.EnrollmentStatus.ACTIVE && capacity != null) {
+            limit = (int) Math.min(limit, Math.max(0, capacity - count.getActiveCount()));
+        }
+        if (limit == 0) {
+            return 0;
+        }
+
+        int moved = enrollmentRepository.updateStatusChunkByCourseId(
+                courseId, from.name(), to.name(), LocalDateTime.now(), limit);
+        // Управляемая заблокированная сущность: новые значения уйдут при коммите
+        count.set(from, count.get(from) - moved);
+        count.set(to, count.get(to) + moved);
+        return moved;
+    }
+
+    private int updateChunk(List<Integer> ids, Enrollment.EnrollmentStatus to, Set<Integer> freedCourses) {
+        List<Integer> courseIds = enrollmentRepository.findCourseIdsByIdIn(ids);
+        if (courseIds.isEmpty()) {
+            return 0;
+        }
+        // Статусы читаются уже под блокировкой счетчиков: одиночные изменения этих курсов ждут коммита пачки
+        Map<Integer, CourseEnrollmentCount> counts = enrollmentCountService.lockCounts(courseIds);
+        Map<Integer, Integer> capacities = new HashMap<>();
+        if (to == Enrollment.EnrollmentStatus.ACTIVE) {
+            for (Object[] course : courseRepository.findCapacities(courseIds)) {
+                capacities.put((Integer) course[0], (Integer) course[1]);
+            }
+        }
+
+        List<Integer> moveIds = new ArrayList<>(ids.size());
+        for (Object[] row : enrollmentRepository.findStatusesByIdIn(ids)) {
+            Integer courseId = (Integer) row[1];
+            Enrollment.EnrollmentStatus from = (Enrollment.EnrollmentStatus) row[2];
+            CourseEnrollmentCount count = counts.get(courseId);
+            if (from == to || count == null) {
+                continue;
+            }
+            Integer capacity = capacities.get(courseId);
+            if (to == Enrollment.EnrollmentStatus.ACTIVE
+                    && (count.isEnrollmentClosed() || capacity != null && count.getActiveCount() >= capacity)) {
+                continue;
+            }
+            count.set(from, count.get(from) - 1);
+            count.set(to, count.get(to) + 1);
+            if (from == Enrollment.EnrollmentStatus.ACTIVE) {
+                freedCourses.add(courseId);
+            }
+            moveIds.add((Integer) row[0]);
+        }
+
+        if (!moveIds.isEmpty()) {
+            enrollmentRepository.updateStatusByIdIn(moveIds, to, LocalDateTime.now());
+        }
+        return moveIds.size();
+    }
+
+    private static boolean isFinal(Enrollment.EnrollmentStatus status) {
+        return status == Enrollment.EnrollmentStatus.COMPLETED || status == Enrollment.EnrollmentStatus.CANCELLED;
+    }
+
+    private Enrollment.EnrollmentStatus parseStatus(String status) {
+        if (status == null) {
+            throw new InvalidStatusException("Status is required");
+        }
+        try {
+            return Enrollment.EnrollmentStatus.valueOf(status);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidStatusException("Invalid status: " + status);
+        }
+    }
+
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public static class CourseNotFoundException extends RuntimeException {
+        public CourseNotFoundException(Integer courseId) {
+            super("Course not found with id: " + courseId);
+        }
+    }
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public static class InvalidStatusException extends RuntimeException {
+        public InvalidStatusException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package sf.mifi.grechko.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import sf.mifi.grechko.repositories.CourseRepository;
+import sf.mifi.grechko.repositories.EnrollmentRepository;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Выгрузка таблиц целиком в NDJSON (один JSON-объект на строку).
+ * Строки читаются потоком через курсор БД (fetch size в хинтах репозитория) прямо в DTO-проекции -
+ * сущности не создаются и не копятся в контексте персистентности, поэтому память не зависит от размера таблицы
+ */
+@Slf4j
+@Service
+public class ExportService {
+
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    private final CourseRepository courseRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final ObjectWriter ndjsonWriter;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ExportService(CourseRepository courseRepository,
+                         EnrollmentRepository enrollmentRepository,
+                         ObjectMapper objectMapper,
+                         PlatformTransactionManager transactionManager) {
+        this.courseRepository = courseRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.ndjsonWriter = objectMapper.writer().withRootValueSeparator("\n");
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public long exportCourses(OutputStream out) {
+        return export("courses", courseRepository::streamAllDtos, out);
+    }
+
+    public long exportEnrollments(OutputStream out) {
+        return export("enrollments", enrollmentRepository::streamAllDtos, out);
+    }
+
+    // Курсор PostgreSQL с fetch size работает только внутри транзакции
+    private long export(String name, Supplier<Stream<?>> source, OutputStream out) {
+        long start = System.currentTimeMillis();
+        Long exported = readOnlyTransaction.execute(status -> {
+            BufferedOutputStream buffered = new BufferedOutputStream(out, OUTPUT_BUFFER_SIZE);
+            // Между корневыми значениями Jackson по умолчанию пишет пробел - разделителем делаем перевод строки
+            try (Stream<?> stream = source.get();
+                 SequenceWriter writer = ndjsonWriter.writeValues(buffered)) {
+                long count = 0;
+                Iterator<?> rows = stream.iterator();
+                while (rows.hasNext()) {
+                    writer.write(rows.next());
+                    count++;
+                }
+                if (count > 0) {
+                    // Последняя строка тоже завершается переводом строки
+                    writer.flush();
+                    buffered.write('\n');
+                }
+                return count;
+            } catch (IOException e) {
+                // Клиент оборвал соединение - транзакция откатится, курсор закроется
+                throw new UncheckedIOException("Ошибка записи выгрузки " + name, e);
+            }
+        });
+        log.info("Выгрузка {}: {} строк за {} мс", name, exported, System.currentTimeMillis() - start);
+        return exported == null ? 0 : exported;
+    }
+}
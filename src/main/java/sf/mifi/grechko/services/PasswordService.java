@@ -1,17 +1,235 @@
 package sf.mifi.grechko.services;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.ResponseStatus;
 
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Единая точка хэширования паролей.
+ * - стоимость BCrypt подбирается при старте под целевое время на текущем железе
+ *   (или задается явно через app.security.password.strength);
+ * - хэширование выполняется на отдельном ограниченном пуле, чтобы всплеск логинов
+ *   не занимал все потоки обработки запросов: очередь пула намного короче пула потоков сервера,
+ *   при заполненной очереди вызов сразу отклоняется (503), а не ждет;
+ * - длительность операций публикуется как метрика password.hash.duration;
+ * - массовое хэширование (импорт) идет на отдельном fork-join пуле по всем ядрам.
+ */
+@Slf4j
 @Component
 public class PasswordService {
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+
+    private static final int CALIBRATION_STRENGTH = 8;
+    private static final String CALIBRATION_SAMPLE = "calibration-sample-password";
+
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final int strength;
+    private final long timeoutMillis;
+    private final int queueCapacity;
+    private final ThreadPoolExecutor hashingExecutor;
+    private final ForkJoinPool bulkHashingPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final PasswordEncoder boundedPasswordEncoder = new BoundedPasswordEncoder();
+
+    public PasswordService(
+            MeterRegistry meterRegistry,
+            @Value("${app.security.password.strength:0}") int configuredStrength,
+            @Value("${app.security.password.target-hash-millis:250}") long targetHashMillis,
+            @Value("${app.security.password.min-strength:10}") int minStrength,
+            @Value("${app.security.password.max-strength:14}") int maxStrength,
+            @Value("${app.security.password.hashing-threads:0}") int hashingThreads,
+            @Value("${app.security.password.hashing-queue-capacity:0}") int configuredQueueCapacity,
+            @Value("${app.security.password.hashing-timeout-millis:1000}") long timeoutMillis) {
+        this.strength = configuredStrength > 0
+                ? configuredStrength
+                : calibrate(targetHashMillis, minStrength, maxStrength);
+        this.passwordEncoder = new BCryptPasswordEncoder(strength);
+        this.timeoutMillis = timeoutMillis;
+
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        // Ждущих хэширования не больше, чем потоков хэширования: остальные получают отказ сразу
+        this.queueCapacity = configuredQueueCapacity > 0 ? configuredQueueCapacity : threads;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.hashingExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("password.hash.duration")
+                .description("Время хэширования/проверки пароля")
+                .tag("operation", "encode")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("password.hash.duration")
+                .description("Время хэширования/проверки пароля")
+                .tag("operation", "matches")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("password.hash.strength", () -> strength)
+                .description("Текущая стоимость BCrypt")
+                .register(meterRegistry);
+        Gauge.builder("password.hash.queue.size", hashingExecutor, executor -> executor.getQueue().size())
+                .description("Очередь задач хэширования")
+                .register(meterRegistry);
+
+        log.info("BCrypt: стоимость {}, потоков хэширования {}, очередь {}", strength, threads, queueCapacity);
+    }
 
     public String hashPassword(String plainPassword) {
-        return passwordEncoder.encode(plainPassword);
+        return execute(() -> encodeTimer.record(() -> passwordEncoder.encode(plainPassword)));
     }
 
     public boolean verifyPassword(String plainPassword, String hashedPassword) {
-        return passwordEncoder.matches(plainPassword, hashedPassword);
+        return execute(() -> matchesTimer.record(() -> passwordEncoder.matches(plainPassword, hashedPassword)));
+    }
+
+    /**
+     * Хэширование пачки паролей параллельно на всех ядрах (для массового импорта).
+     * Порядок результатов совпадает с порядком входных паролей
+     */
+    public List<String> hashPasswords(List<String> plainPasswords) {
+        try {
+            return bulkHashingPool.submit(() -> plainPasswords.parallelStream()
+                    .map(password -> encodeTimer.record(() -> passwordEncoder.encode(password)))
+                    .toList()
+            ).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Хэширование паролей прервано", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ошибка хэширования паролей", e.getCause());
+        }
+    }
+
+    /**
+     * Нужно ли перехэшировать пароль (хэш сделан с меньшей стоимостью, чем текущая)
+     */
+    public boolean needsRehash(String hashedPassword) {
+        return passwordEncoder.upgradeEncoding(hashedPassword);
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * PasswordEncoder для Spring Security, работающий через тот же ограниченный пул.
+     * При перегрузке пула аутентификация отклоняется, а не ждет бесконечно.
+     */
+    public PasswordEncoder getPasswordEncoder() {
+        return boundedPasswordEncoder;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingExecutor.shutdownNow();
+        bulkHashingPool.shutdownNow();
+    }
+
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = hashingExecutor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new OverloadedException("Сервис хэширования паролей перегружен", e);
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new OverloadedException("Превышено время ожидания хэширования пароля", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Хэширование пароля прервано", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Ошибка хэширования пароля", e.getCause());
+        }
+    }
+
+    /**
+     * Каждая единица стоимости BCrypt удваивает время, поэтому достаточно
+     * одного замера на небольшой стоимости и экстраполяции
+     */
+    private static int calibrate(long targetHashMillis, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(CALIBRATION_STRENGTH);
+        probe.encode(CALIBRATION_SAMPLE); // прогрев
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            probe.encode(CALIBRATION_SAMPLE);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        double probeMillis = Math.max(best / 1_000_000.0, 0.01);
+        int calibrated = CALIBRATION_STRENGTH + (int) Math.floor(Math.log(targetHashMillis / probeMillis) / Math.log(2));
+        int result = Math.max(minStrength, Math.min(maxStrength, calibrated));
+
+        log.info("Калибровка BCrypt: стоимость {} = {} мс, цель {} мс, выбрана стоимость {}",
+                CALIBRATION_STRENGTH, String.format("%.2f", probeMillis), targetHashMillis, result);
+        return result;
+    }
+
+    /**
+     * Пул хэширования занят: запрос стоит повторить позже
+     */
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public static class OverloadedException extends IllegalStateException {
+
+        public OverloadedException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    private class BoundedPasswordEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            try {
+                return hashPassword(rawPassword.toString());
+            } catch (IllegalStateException e) {
+                throw new AuthenticationServiceException(e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            try {
+                return verifyPassword(rawPassword.toString(), encodedPassword);
+            } catch (IllegalStateException e) {
+                throw new AuthenticationServiceException(e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return needsRehash(encodedPassword);
+        }
     }
-}
\ No newline at end of file
+}
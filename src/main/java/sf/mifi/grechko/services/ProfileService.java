@@ -5,6 +5,7 @@ import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import sf.mifi.grechko.dto.EntityVersion;
 import sf.mifi.grechko.dto.ProfileDto;
 import sf.mifi.grechko.models.Profile;
 import sf.mifi.grechko.models.User;
@@ -30,6 +31,14 @@ public class ProfileService {
                 .map(ProfileDto::fromEntity);
     }
 
+    /**
+     * Валидаторы кэша профиля без загрузки профиля и пользователя
+     */
+    @Transactional(readOnly = true)
+    public Optional<EntityVersion> getProfileVersion(Integer userId) {
+        return profileRepository.findVersionByUserId(userId);
+    }
+
     /**
      * Получить свой профиль
      */
@@ -0,0 +1,235 @@
+package sf.mifi.grechko.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import sf.mifi.grechko.dto.PurgeStatus;
+import sf.mifi.grechko.models.Enrollment;
+import sf.mifi.grechko.repositories.*;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Фоновая очистка после мягкого удаления. Удаление курса или пользователя только ставит
+ * deleted_at (строка сразу пропадает из чтения), а зависимые записи удаляются здесь пачками
+ * по chunk-size строк: каждая пачка - одна инструкция DELETE в своей короткой транзакции,
+ * без загрузки сущностей и без долгих блокировок.
+ *
+ * Запускается после коммита удаления и по расписанию (подстраховка после перезапуска)
+ */
+@Slf4j
+@Service
+public class PurgeService {
+
+    private final CourseRepository courseRepository;
+    private final UserRepository userRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final ProfileRepository profileRepository;
+    private final CourseEnrollmentCountRepository countRepository;
+    private final EnrollmentCountService enrollmentCountService;
+    private final WaitlistService waitlistService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    private final AtomicBoolean purgePending = new AtomicBoolean();
+    private final ExecutorService purgeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "purge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter purgedEnrollmentsCounter;
+    private final AtomicLong purgedCourses = new AtomicLong();
+    private final AtomicLong purgedUsers = new AtomicLong();
+    private final AtomicLong purgedEnrollments = new AtomicLong();
+    private volatile String current;
+    private volatile LocalDateTime lastRunStartedAt;
+    private volatile LocalDateTime lastRunFinishedAt;
+
+    public PurgeService(CourseRepository courseRepository,
+                        UserRepository userRepository,
+                        EnrollmentRepository enrollmentRepository,
+                        ProfileRepository profileRepository,
+                        CourseEnrollmentCountRepository countRepository,
+                        EnrollmentCountService enrollmentCountService,
+                        WaitlistService waitlistService,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.purge.chunk-size:1000}") int chunkSize) {
+        this.courseRepository = courseRepository;
+        this.userRepository = userRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.profileRepository = profileRepository;
+        this.countRepository = countRepository;
+        this.enrollmentCountService = enrollmentCountService;
+        this.waitlistService = waitlistService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+
+        this.purgedEnrollmentsCounter = Counter.builder("purge.enrollments.deleted")
+                .description("Записи на курсы, удаленные фоновой очисткой")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Запланировать очистку после коммита текущей транзакции.
+     * Несколько удалений подряд сливаются в один проход
+     */
+    public void requestPurge() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    schedulePurge();
+                }
+            });
+        } else {
+            schedulePurge();
+        }
+    }
+
+    /**
+     * Очистить все помеченные курсы, затем пользователей: преподаватель удаляется
+     * только после своих курсов (внешний ключ courses.teacher_id)
+     */
+    @Scheduled(cron = "${app.purge.cron:0 */5 * * * *}")
+    public synchronized void purgeAll() {
+        purgePending.set(false);
+        lastRunStartedAt = LocalDateTime.now();
+        try {
+            for (Integer courseId : courseRepository.findDeletedIds()) {
+                purgeCourse(courseId);
+            }
+            for (Integer userId : userRepository.findDeletedIds()) {
+                purgeUser(userId);
+            }
+        } finally {
+            current = null;
+            lastRunFinishedAt = LocalDateTime.now();
+        }
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    public PurgeStatus getStatus() {
+        return new PurgeStatus(
+                current != null,
+                current,
+                courseRepository.countDeleted(),
+                userRepository.countDeleted(),
+                purgedCourses.get(),
+                purgedUsers.get(),
+                purgedEnrollments.get(),
+                lastRunStartedAt,
+                lastRunFinishedAt);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        purgeExecutor.shutdownNow();
+    }
+
+    private void schedulePurge() {
+        if (purgePending.compareAndSet(false, true)) {
+            purgeExecutor.execute(() -> {
+                try {
+                    purgeAll();
+                } catch (RuntimeException e) {
+                    log.warn("Фоновая очистка прервана: {}", e.getMessage());
+                }
+            });
+        }
+    }
+
+    private void purgeCourse(Integer courseId) {
+        current = "course:" + courseId;
+        long start = System.currentTimeMillis();
+        long deleted = 0;
+        while (true) {
+            Integer chunk = transactionTemplate.execute(status ->
+                    enrollmentRepository.deleteChunkByCourseId(courseId, chunkSize));
+            int count = chunk == null ? 0 : chunk;
+            deleted += count;
+            countPurgedEnrollments(count);
+            if (count < chunkSize) {
+                break;
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            countRepository.deleteByCourseId(courseId);
+            courseRepository.purgeDeleted(courseId);
+        });
+        purgedCourses.incrementAndGet();
+        log.info("Очистка курса {}: удалено {} записей за {} мс", courseId, deleted, System.currentTimeMillis() - start);
+    }
+
+    private void purgeUser(Integer userId) {
+        current = "user:" + userId;
+        long start = System.currentTimeMillis();
+        long deleted = 0;
+        Set<Integer> freedCourses = new HashSet<>();
+        while (true) {
+            Integer chunk = transactionTemplate.execute(status -> deleteUserEnrollmentsChunk(userId, freedCourses));
+            int count = chunk == null ? 0 : chunk;
+            deleted += count;
+            countPurgedEnrollments(count);
+            if (count < chunkSize) {
+                break;
+            }
+        }
+        // Освободившиеся места раздаются ожидающим
+        freedCourses.forEach(waitlistService::requestPromotion);
+
+        if (courseRepository.existsByTeacherId(userId)) {
+            // Курс назначили удаленному преподавателю между пометкой и очисткой - ждем его удаления
+            log.warn("Очистка пользователя {} отложена: он преподает на курсах", userId);
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            profileRepository.deleteByUserIdNative(userId);
+            userRepository.purgeDeleted(userId);
+        });
+        purgedUsers.incrementAndGet();
+        log.info("Очистка пользователя {}: удалено {} записей за {} мс", userId, deleted, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Пачка записей пользователя: поправить счетчики затронутых курсов и удалить одной инструкцией
+     */
+    private int deleteUserEnrollmentsChunk(Integer userId, Set<Integer> freedCourses) {
+        List<Integer> ids = enrollmentRepository.findIdChunkByUserId(userId, chunkSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        for (Object[] row : enrollmentRepository.countByIdInGroupByCourseAndStatus(ids)) {
+            Integer courseId = ((Number) row[0]).intValue();
+            Enrollment.EnrollmentStatus status = Enrollment.EnrollmentStatus.valueOf((String) row[1]);
+            enrollmentCountService.applyDelta(courseId, status, -((Number) row[2]).longValue());
+            if (status == Enrollment.EnrollmentStatus.ACTIVE) {
+                freedCourses.add(courseId);
+            }
+        }
+        return enrollmentRepository.deleteByIdIn(ids);
+    }
+
+    private void countPurgedEnrollments(int count) {
+        purgedEnrollments.addAndGet(count);
+        purgedEnrollmentsCounter.increment(count);
+    }
+}
@@ -0,0 +1,170 @@
+package sf.mifi.grechko.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import sf.mifi.grechko.dto.BulkImportResult;
+import sf.mifi.grechko.dto.CreateUserRequest;
+import sf.mifi.grechko.models.User;
+import sf.mifi.grechko.repositories.UserRepository;
+
+import java.util.*;
+
+/**
+ * Массовое создание пользователей:
+ * проверка занятых логинов одним запросом на пачку, параллельное хэширование,
+ * вставка пакетами JDBC (каждая пачка в своей транзакции)
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO users (login, passwd_hash, role) VALUES (?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private final UserRepository userRepository;
+    private final PasswordService passwordService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public UserImportService(UserRepository userRepository,
+                             PasswordService passwordService,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.import.chunk-size:1000}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.passwordService = passwordService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Импорт из CSV с заголовком login,password,role
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    public BulkImportResult importCsv(String csv) {
+        List<CreateUserRequest> requests = CsvParser.parse(csv).stream()
+                .map(row -> {
+                    CreateUserRequest request = new CreateUserRequest();
+                    request.setLogin(row.get("login"));
+                    request.setPassword(row.get("password"));
+                    request.setRole(parseRole(row.get("role")));
+                    return request;
+                })
+                .toList();
+        return importUsers(requests);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    public BulkImportResult importUsers(List<CreateUserRequest> requests) {
+        long start = System.currentTimeMillis();
+        Map<Integer, BulkImportResult.RowResult> results = new TreeMap<>();
+
+        // 1. Валидация и дубликаты внутри самого запроса
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            int row = i + 1;
+            CreateUserRequest request = requests.get(i);
+            String error = validate(request);
+            if (error != null) {
+                results.put(row, rowResult(row, request == null ? null : request.getLogin(),
+                        BulkImportResult.RowStatus.INVALID, error));
+            } else if (candidates.putIfAbsent(request.getLogin(), row) != null) {
+                results.put(row, rowResult(row, request.getLogin(), BulkImportResult.RowStatus.DUPLICATE,
+                        "Логин повторяется в запросе"));
+            }
+        }
+
+        // 2. Уже занятые логины - один IN-запрос на пачку
+        List<String> logins = new ArrayList<>(candidates.keySet());
+        Set<String> existing = new HashSet<>();
+        for (List<String> chunk : chunks(logins)) {
+            existing.addAll(userRepository.findExistingLogins(chunk));
+        }
+        for (String login : existing) {
+            int row = candidates.remove(login);
+            results.put(row, rowResult(row, login, BulkImportResult.RowStatus.DUPLICATE,
+                    "Пользователь с таким логином уже существует"));
+        }
+
+        // 3. Хэширование вне транзакции, параллельно на всех ядрах
+        List<Integer> rows = new ArrayList<>(candidates.values());
+        List<String> hashes = passwordService.hashPasswords(rows.stream()
+                .map(row -> requests.get(row - 1).getPassword())
+                .toList());
+
+        // 4. Пакетная вставка
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            List<Integer> chunkRows = rows.subList(from, Math.min(from + chunkSize, rows.size()));
+            List<Object[]> args = new ArrayList<>(chunkRows.size());
+            for (int i = 0; i < chunkRows.size(); i++) {
+                CreateUserRequest request = requests.get(chunkRows.get(i) - 1);
+                args.add(new Object[]{request.getLogin(), hashes.get(from + i), request.getRole().name()});
+            }
+
+            int[] counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(INSERT_SQL, args));
+            for (int i = 0; i < chunkRows.size(); i++) {
+                int row = chunkRows.get(i);
+                String login = requests.get(row - 1).getLogin();
+                // 0 - строку успел вставить параллельный запрос (ON CONFLICT DO NOTHING)
+                results.put(row, counts[i] == 0
+                        ? rowResult(row, login, BulkImportResult.RowStatus.DUPLICATE, "Пользователь с таким логином уже существует")
+                        : rowResult(row, login, BulkImportResult.RowStatus.CREATED, null));
+            }
+        }
+
+        BulkImportResult result = new BulkImportResult();
+        results.values().forEach(r -> result.addRow(r.getRow(), r.getKey(), r.getStatus(), r.getMessage()));
+
+        log.info("Импорт пользователей: всего {}, создано {}, дубликатов {}, ошибок {} за {} мс",
+                result.getTotal(), result.getCreated(), result.getDuplicates(), result.getInvalid(),
+                System.currentTimeMillis() - start);
+        return result;
+    }
+
+    private String validate(CreateUserRequest request) {
+        // null в JSON-массиве - строка без данных, а не ошибка всего запроса
+        if (request == null) {
+            return "Пустая строка импорта";
+        }
+        if (request.getLogin() == null || request.getLogin().isBlank()) {
+            return "Логин не может быть пустым";
+        }
+        if (request.getPassword() == null || request.getPassword().isBlank()) {
+            return "Пароль не может быть пустым";
+        }
+        if (request.getRole() == null) {
+            return "Роль должна быть указана";
+        }
+        return null;
+    }
+
+    private User.Role parseRole(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return User.Role.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private List<List<String>> chunks(List<String> values) {
+        List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += chunkSize) {
+            chunks.add(values.subList(from, Math.min(from + chunkSize, values.size())));
+        }
+        return chunks;
+    }
+
+    private BulkImportResult.RowResult rowResult(int row, String key, BulkImportResult.RowStatus status, String message) {
+        return new BulkImportResult.RowResult(row, key, status, message);
+    }
+}
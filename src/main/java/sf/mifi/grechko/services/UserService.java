@@ -1,14 +1,25 @@
 package sf.mifi.grechko.services;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import sf.mifi.grechko.cache.CacheInvalidation;
+import sf.mifi.grechko.cache.CacheInvalidator;
+import sf.mifi.grechko.dto.CursorPage;
+import sf.mifi.grechko.dto.UserSummaryDto;
 import sf.mifi.grechko.models.User;
+import sf.mifi.grechko.repositories.CourseRepository;
 import sf.mifi.grechko.repositories.UserRepository;
+import sf.mifi.grechko.security.AuthenticatedUser;
+import sf.mifi.grechko.security.AuthenticationCache;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +29,10 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordService passwordService;
+    private final AuthenticationCache authenticationCache;
+    private final CacheInvalidator cacheInvalidator;
+    private final CourseRepository courseRepository;
+    private final PurgeService purgeService;
 
     @PreAuthorize("hasRole('ADMIN')")
     public User createUser(String login, String plainPassword, User.Role role) {
@@ -47,12 +62,24 @@ public class UserService {
             }
         }
 
-        userRepository.delete(user);
+        // Курсы преподавателя не удаляются вместе с ним (courses.teacher_id ON DELETE RESTRICT)
+        if (courseRepository.existsByTeacherId(user.getId())) {
+            throw new IllegalStateException("Нельзя удалить преподавателя, у которого есть курсы");
+        }
+
+        // Пользователь сразу скрывается и не может войти, его записи удалит фоновая очистка пачками
+        user.setDeletedAt(LocalDateTime.now());
+        invalidateAuthentication(user.getLogin());
+        purgeService.requestPurge();
     }
 
     @PreAuthorize("hasRole('ADMIN')")
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    @Transactional(readOnly = true)
+    public CursorPage<UserSummaryDto> getUsers(String cursor, Integer size, User.Role role) {
+        int pageSize = CursorPage.normalizeSize(size);
+        List<UserSummaryDto> fetched = userRepository.findSummariesAfter(
+                CursorPage.decodeCursor(cursor), role, PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(fetched, pageSize, UserSummaryDto::getId);
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -75,7 +102,9 @@ public class UserService {
         }
 
         user.setRole(newRole);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        invalidateAuthentication(user.getLogin());
+        return saved;
     }
 
     @PreAuthorize("isAuthenticated()")
@@ -91,25 +120,55 @@ public class UserService {
 
         user.setPasswdHash(passwordService.hashPassword(newPassword));
         userRepository.save(user);
+        invalidateAuthentication(user.getLogin());
     }
 
-    public User getCurrentUser() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+    /**
+     * Текущий пользователь из контекста безопасности (id, логин, роль) без обращения к БД
+     */
+    public AuthenticatedUser getCurrentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-        if (principal instanceof UserDetails) {
-            String username = ((UserDetails) principal).getUsername();
-            return userRepository.findByLogin(username)
-                    .orElseThrow(() -> new IllegalStateException("Пользователь не найден: " + username));
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal;
         }
 
         throw new IllegalStateException("Пользователь не аутентифицирован");
     }
 
+    /**
+     * Полная сущность текущего пользователя - только там, где она действительно нужна для записи
+     */
+    public User getCurrentUser() {
+        Integer id = getCurrentPrincipal().getId();
+        return userRepository.findById(Long.valueOf(id))
+                .orElseThrow(() -> new IllegalStateException("Пользователь не найден: " + id));
+    }
+
     public Integer getCurrentUserId() {
-        return getCurrentUser().getId();
+        return getCurrentPrincipal().getId();
     }
 
     public String getCurrentUserLogin() {
-        return getCurrentUser().getLogin();
+        return getCurrentPrincipal().getLogin();
+    }
+
+    /**
+     * Сбросить кэш аутентификации пользователя сейчас и повторно после коммита,
+     * чтобы параллельный запрос не успел закэшировать старые данные до фиксации транзакции.
+     * Остальные узлы сбрасывают свой кэш по сообщению после коммита
+     */
+    private void invalidateAuthentication(String login) {
+        authenticationCache.invalidate(login);
+        cacheInvalidator.publish(CacheInvalidation.EntityType.USER, login);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    authenticationCache.invalidate(login);
+                }
+            });
+        }
     }
 }
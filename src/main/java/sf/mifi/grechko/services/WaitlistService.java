@@ -0,0 +1,145 @@
+package sf.mifi.grechko.services;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import sf.mifi.grechko.models.Course;
+import sf.mifi.grechko.models.Enrollment;
+import sf.mifi.grechko.repositories.CourseEnrollmentCountRepository;
+import sf.mifi.grechko.repositories.CourseRepository;
+import sf.mifi.grechko.repositories.EnrollmentRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Перевод записей из листа ожидания в активные, когда на курсе освобождаются места.
+ * Голова очереди курса берется FOR UPDATE SKIP LOCKED, поэтому обработчиков может быть
+ * несколько (в том числе на разных экземплярах) - каждую запись переведет ровно один.
+ *
+ * Запускается сразу после коммита, освободившего место, и периодически - для всех курсов
+ * (подстраховка, если экземпляр упал до обработки)
+ */
+@Slf4j
+@Service
+public class WaitlistService {
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final CourseRepository courseRepository;
+    private final CourseEnrollmentCountRepository countRepository;
+    private final EnrollmentCountService enrollmentCountService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private final ExecutorService promotionExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "waitlist-promotion");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public WaitlistService(EnrollmentRepository enrollmentRepository,
+                           CourseRepository courseRepository,
+                           CourseEnrollmentCountRepository countRepository,
+                           EnrollmentCountService enrollmentCountService,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.enrollment.waitlist-batch-size:100}") int batchSize) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.courseRepository = courseRepository;
+        this.countRepository = countRepository;
+        this.enrollmentCountService = enrollmentCountService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * На курсе освободилось место: после коммита текущей транзакции раздать его ожидающим
+     */
+    public void requestPromotion(Integer courseId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    promotionExecutor.execute(() -> promoteSafely(courseId));
+                }
+            });
+        } else {
+            promotionExecutor.execute(() -> promoteSafely(courseId));
+        }
+    }
+
+    /**
+     * Обход всех курсов, где есть и ожидающие, и свободные места
+     *
+     * @return число переведенных записей
+     */
+    @Scheduled(cron = "${app.enrollment.waitlist-promotion-cron:0 * * * * *}")
+    public int promoteAll() {
+        int promoted = 0;
+        for (Integer courseId : countRepository.findCoursesToPromote()) {
+            promoted += promoteSafely(courseId);
+        }
+        if (promoted > 0) {
+            log.info("Лист ожидания: переведено в активные {} записей", promoted);
+        }
+        return promoted;
+    }
+
+    /**
+     * Перевести ожидающих курса в активные, пока есть места. Пачка - одна транзакция
+     */
+    public int promote(Integer courseId) {
+        int promoted = 0;
+        while (true) {
+            Integer batch = transactionTemplate.execute(status -> promoteBatch(courseId));
+            promoted += batch == null ? 0 : batch;
+            // Меньше полной пачки - места кончились или очередь пуста
+            if (batch == null || batch < batchSize) {
+                return promoted;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        promotionExecutor.shutdownNow();
+    }
+
+    private int promoteSafely(Integer courseId) {
+        try {
+            return promote(courseId);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось обработать лист ожидания курса {}: {}", courseId, e.getMessage());
+            return 0;
+        }
+    }
+
+    private int promoteBatch(Integer courseId) {
+        // Удаленный курс не виден (@SQLRestriction): его записи удалит очистка, переводить некого
+        Optional<Course> course = courseRepository.findById(courseId);
+        if (course.isEmpty()) {
+            return 0;
+        }
+        Integer capacity = course.get().getCapacity();
+        List<Enrollment> waiting = enrollmentRepository.lockWaitlistHead(courseId, PageRequest.of(0, batchSize));
+
+        int promoted = 0;
+        for (Enrollment enrollment : waiting) {
+            if (!enrollmentCountService.tryTakeSeat(courseId, capacity)) {
+                break;
+            }
+            enrollmentCountService.applyChange(courseId, Enrollment.EnrollmentStatus.WAITLISTED, null);
+            enrollment.setStatus(Enrollment.EnrollmentStatus.ACTIVE);
+            promoted++;
+        }
+        return promoted;
+    }
+}
@@ -0,0 +1,11 @@
+-- Индексы для фильтра курсов (GET /api/courses?category=&teacher=&startFrom=&startTo=&q=&sort=).
+-- Категория/преподаватель + диапазон дат начала: равенство по первой колонке, диапазон по второй
+CREATE INDEX idx_courses_category_id_start_date ON courses(category_id, start_date, id);
+CREATE INDEX idx_courses_teacher_id_start_date ON courses(teacher_id, start_date, id);
+
+-- Поиск подстроки в названии (lower(title) LIKE '%...%') - триграммный GIN-индекс
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX idx_courses_title_trgm ON courses USING GIN (lower(title) gin_trgm_ops);
+
+-- Сортировка по дате создания без фильтров
+CREATE INDEX idx_courses_created_at_id ON courses(created_at, id);
@@ -0,0 +1,26 @@
+-- Денормализованные счетчики записей на курс по статусам.
+-- Поддерживаются EnrollmentService в той же транзакции, что и изменение записи;
+-- периодическая сверка пересчитывает их по таблице enrollments
+CREATE TABLE course_enrollment_counts (
+    course_id INTEGER PRIMARY KEY,
+    active_count BIGINT NOT NULL DEFAULT 0,
+    completed_count BIGINT NOT NULL DEFAULT 0,
+    cancelled_count BIGINT NOT NULL DEFAULT 0,
+
+    CONSTRAINT fk_enrollment_counts_course
+        FOREIGN KEY (course_id)
+        REFERENCES courses(id)
+        ON DELETE CASCADE
+);
+
+-- Начальное заполнение по текущим данным
+INSERT INTO course_enrollment_counts (course_id, active_count, completed_count, cancelled_count)
+SELECT c.id,
+       COUNT(e.id) FILTER (WHERE e.status = 'ACTIVE'),
+       COUNT(e.id) FILTER (WHERE e.status = 'COMPLETED'),
+       COUNT(e.id) FILTER (WHERE e.status = 'CANCELLED')
+FROM courses c
+LEFT JOIN enrollments e ON e.course_id = c.id
+GROUP BY c.id;
+
+COMMENT ON TABLE course_enrollment_counts IS 'Число записей на курс по статусам (денормализация enrollments)';
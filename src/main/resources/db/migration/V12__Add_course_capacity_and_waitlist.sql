@@ -0,0 +1,17 @@
+-- Вместимость курса (NULL - без ограничения) и лист ожидания.
+-- Места считаются по active_count в course_enrollment_counts: запись занимает место
+-- условным UPDATE этой строки, поэтому набор сверх вместимости невозможен
+ALTER TABLE courses ADD COLUMN capacity INTEGER;
+ALTER TABLE courses ADD CONSTRAINT chk_courses_capacity_positive CHECK (capacity IS NULL OR capacity > 0);
+
+ALTER TABLE enrollments DROP CONSTRAINT IF EXISTS enrollments_status_check;
+ALTER TABLE enrollments ADD CONSTRAINT enrollments_status_check
+    CHECK (status IN ('ACTIVE', 'COMPLETED', 'CANCELLED', 'WAITLISTED'));
+
+ALTER TABLE course_enrollment_counts ADD COLUMN waitlisted_count BIGINT NOT NULL DEFAULT 0;
+
+-- Очередь ожидания курса в порядке записи; частичный индекс содержит только ожидающих
+CREATE INDEX idx_enrollments_waitlist ON enrollments(course_id, id) WHERE status = 'WAITLISTED';
+
+COMMENT ON COLUMN courses.capacity IS 'Число мест на курсе, NULL - без ограничения';
+COMMENT ON COLUMN course_enrollment_counts.waitlisted_count IS 'Число записей в листе ожидания';
@@ -0,0 +1,11 @@
+-- Мягкое удаление курсов и пользователей: строка помечается сразу и скрывается из чтения,
+-- зависимые записи удаляет фоновая очистка пачками, затем удаляется и сама строка
+ALTER TABLE courses ADD COLUMN deleted_at TIMESTAMP;
+ALTER TABLE users ADD COLUMN deleted_at TIMESTAMP;
+
+-- Очередь очистки: частичные индексы содержат только помеченные строки
+CREATE INDEX idx_courses_deleted_at ON courses(id) WHERE deleted_at IS NOT NULL;
+CREATE INDEX idx_users_deleted_at ON users(id) WHERE deleted_at IS NOT NULL;
+
+COMMENT ON COLUMN courses.deleted_at IS 'Время удаления; строка ждет фоновой очистки';
+COMMENT ON COLUMN users.deleted_at IS 'Время удаления; строка ждет фоновой очистки';
@@ -0,0 +1,20 @@
+-- chk_start_date_future проверялся при любом UPDATE строки: курс, который уже начался, нельзя было
+-- ни пометить удаленным, ни изменить. Дата начала проверяется только при вставке и при ее изменении
+ALTER TABLE courses DROP CONSTRAINT IF EXISTS chk_start_date_future;
+
+CREATE OR REPLACE FUNCTION check_course_start_date() RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.start_date IS NOT NULL AND NEW.start_date < CURRENT_DATE
+            AND (TG_OP = 'INSERT' OR NEW.start_date IS DISTINCT FROM OLD.start_date) THEN
+        RAISE EXCEPTION 'Дата начала курса в прошлом: %', NEW.start_date
+            USING ERRCODE = 'check_violation', CONSTRAINT = 'chk_start_date_future';
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_courses_start_date
+    BEFORE INSERT OR UPDATE OF start_date ON courses
+    FOR EACH ROW EXECUTE FUNCTION check_course_start_date();
+
+COMMENT ON FUNCTION check_course_start_date() IS 'Дата начала курса не в прошлом при вставке и изменении даты';
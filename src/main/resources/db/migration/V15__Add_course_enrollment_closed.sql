@@ -0,0 +1,6 @@
+-- Запись на курс закрыта: курс завершен или отменен целиком.
+-- Флаг хранится в строке счетчиков, чтобы занятие места (условный UPDATE этой строки)
+-- проверяло его под той же блокировкой
+ALTER TABLE course_enrollment_counts ADD COLUMN enrollment_closed BOOLEAN NOT NULL DEFAULT FALSE;
+
+COMMENT ON COLUMN course_enrollment_counts.enrollment_closed IS 'Запись на курс закрыта: места не выдаются';
@@ -0,0 +1,12 @@
+-- Индексы для keyset-пагинации: фильтр + id, чтобы "WHERE x = ? AND id > ? ORDER BY id LIMIT n"
+-- читал ровно одну страницу из индекса без сортировки
+CREATE INDEX idx_courses_teacher_id_id ON courses(teacher_id, id);
+CREATE INDEX idx_courses_category_id_id ON courses(category_id, id);
+CREATE INDEX idx_enrollments_user_id_id ON enrollments(user_id, id);
+CREATE INDEX idx_enrollments_course_id_id ON enrollments(course_id, id);
+
+-- Одноколоночные индексы покрываются составными (по префиксу)
+DROP INDEX IF EXISTS idx_courses_teacher_id;
+DROP INDEX IF EXISTS idx_courses_category_id;
+DROP INDEX IF EXISTS idx_enrollments_user_id;
+DROP INDEX IF EXISTS idx_enrollments_course_id;
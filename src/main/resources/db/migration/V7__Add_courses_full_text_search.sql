@@ -0,0 +1,14 @@
+-- Полнотекстовый поиск по курсам.
+-- Вектор вычисляется самой БД при вставке/обновлении; название весит больше описания.
+-- Текст разбирается и русской, и английской конфигурацией (смешанный каталог).
+ALTER TABLE courses ADD COLUMN search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('russian', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('russian', coalesce(description, '')), 'B') ||
+        setweight(to_tsvector('english', coalesce(description, '')), 'B')
+    ) STORED;
+
+CREATE INDEX idx_courses_search_vector ON courses USING GIN (search_vector);
+
+COMMENT ON COLUMN courses.search_vector IS 'Поисковый вектор по названию и описанию (генерируется)';
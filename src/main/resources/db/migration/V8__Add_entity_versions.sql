@@ -0,0 +1,12 @@
+-- Версии строк для оптимистичной блокировки и валидаторов HTTP-кэша (ETag).
+-- У категорий появляется время изменения для Last-Modified
+ALTER TABLE courses ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE categories ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE profiles ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE categories ADD COLUMN updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP;
+UPDATE categories SET updated_at = created_at WHERE created_at IS NOT NULL;
+
+COMMENT ON COLUMN courses.version IS 'Версия строки, растет при каждом изменении';
+COMMENT ON COLUMN categories.version IS 'Версия строки, растет при каждом изменении';
+COMMENT ON COLUMN profiles.version IS 'Версия строки, растет при каждом изменении';
@@ -0,0 +1,4 @@
+-- Курсы получают id из последовательности пачками по 50 (pooled-оптимизатор Hibernate, allocationSize = 50):
+-- с IDENTITY Hibernate не может группировать вставки в JDBC batch.
+-- DEFAULT nextval у колонки остается, вставки в обход Hibernate тоже получают уникальные id
+ALTER SEQUENCE courses_id_seq INCREMENT BY 50;
@@ -0,0 +1,65 @@
+package sf.mifi.grechko.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import sf.mifi.grechko.dto.CursorPage;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogResponseCacheTest {
+
+    private final CatalogResponseCache cache =
+            new CatalogResponseCache(new ObjectMapper(), new SimpleMeterRegistry(), true, 2);
+    private final Map<String, AtomicInteger> loads = new ConcurrentHashMap<>();
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    @DisplayName("После заполнения новые страницы кэшируются, вытесняется давно не запрошенная")
+    void full_ShouldEvictLeastRecentlyUsed() {
+        cache.get("a", loader("a"));
+        cache.get("b", loader("b"));
+        cache.get("a", loader("a"));    // "a" запрошена позже "b"
+        cache.get("c", loader("c"));    // кэш полон - вытесняется "b"
+
+        assertThat(cache.size()).isEqualTo(2);
+
+        cache.get("a", loader("a"));
+        cache.get("c", loader("c"));
+        assertThat(loads.get("a").get()).isEqualTo(1);
+        assertThat(loads.get("c").get()).isEqualTo(1);
+
+        cache.get("b", loader("b"));
+        assertThat(loads.get("b").get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Ключ страницы: курсор раскодирован, размер ограничен")
+    void pageKey_ShouldNormalizeCursorAndSize() {
+        assertThat(CatalogResponseCache.pageKey(null, 500))
+                .isEqualTo(CatalogResponseCache.pageKey("", CursorPage.MAX_SIZE));
+        assertThat(CatalogResponseCache.pageKey(null, null))
+                .isEqualTo(CatalogResponseCache.pageKey(null, -1));
+        assertThat(CatalogResponseCache.pageKey(CursorPage.encodeCursor(42), 10)).isEqualTo("id:42:10");
+        assertThat(CatalogResponseCache.pageKey(CursorPage.encodeOffset(40), 20)).isEqualTo("off:40:20");
+    }
+
+    private Supplier<CursorPage<?>> loader(String key) {
+        return () -> {
+            loads.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+            return new CursorPage<>(List.of(key), null);
+        };
+    }
+}
@@ -0,0 +1,155 @@
+package sf.mifi.grechko.integration.controllers;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.*;
+import org.springframework.test.context.ActiveProfiles;
+import sf.mifi.grechko.BaseTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class AuthControllerIntegrationTest extends BaseTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate template;
+
+    @Value("${app.security.login-limiter.capacity}")
+    private int loginLimiterCapacity;
+
+    private final String AdminUsername = "admin";
+    private final String AdminPassword = "admin123";
+
+    private static String accessToken;
+    private static String refreshToken;
+
+    @BeforeEach
+    void setUp() {
+        this.restTemplate = template;
+        this.baseUrl = "http://localhost:" + port;
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. POST /api/auth/login - получение токенов (админ)")
+    void login_ValidCredentials_ShouldReturnTokens() {
+        Map<String, Object> loginRequest = Map.of(
+                "login", AdminUsername,
+                "password", AdminPassword
+        );
+
+        ResponseEntity<Map> response = executePost("/api/auth/login", loginRequest, Map.class, null, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().get("tokenType")).isEqualTo("Bearer");
+        accessToken = response.getBody().get("accessToken").toString();
+        refreshToken = response.getBody().get("refreshToken").toString();
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. POST /api/auth/login - неверный пароль (ошибка 401)")
+    void login_WrongPassword_ShouldReturnUnauthorized() {
+        Map<String, Object> loginRequest = Map.of(
+                "login", AdminUsername,
+                "password", "wrong"
+        );
+
+        ResponseEntity<String> response = executePost("/api/auth/login", loginRequest, String.class, null, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. GET /api/users - доступ по access-токену (админ)")
+    void getAllUsers_BearerToken_ShouldReturnOk() {
+        ResponseEntity<String> response = executeGetWithBearer("/api/users", accessToken);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. GET /api/users - поддельный токен (ошибка 401)")
+    void getAllUsers_InvalidToken_ShouldReturnUnauthorized() {
+        ResponseEntity<String> response = executeGetWithBearer("/api/users", accessToken + "x");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. GET /api/users - refresh-токен вместо access-токена (ошибка 401)")
+    void getAllUsers_RefreshTokenAsAccess_ShouldReturnUnauthorized() {
+        ResponseEntity<String> response = executeGetWithBearer("/api/users", refreshToken);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("6. POST /api/auth/refresh - обновление токенов")
+    void refresh_ValidToken_ShouldReturnNewTokens() {
+        ResponseEntity<Map> response = executePost("/api/auth/refresh",
+                Map.of("refreshToken", refreshToken), Map.class, null, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        String newAccessToken = response.getBody().get("accessToken").toString();
+
+        ResponseEntity<String> users = executeGetWithBearer("/api/users", newAccessToken);
+        assertThat(users.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("7. POST /api/auth/refresh - access-токен вместо refresh-токена (ошибка 401)")
+    void refresh_AccessToken_ShouldReturnUnauthorized() {
+        ResponseEntity<String> response = executePost("/api/auth/refresh",
+                Map.of("refreshToken", accessToken), String.class, null, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("8. Параллельные успешные запросы по Basic сверх лимита попыток не получают 429")
+    void concurrentValidBasicRequests_ShouldNotBeThrottled() throws Exception {
+        int requests = loginLimiterCapacity * 3;
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ResponseEntity<String>>> futures = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return executeGet("/api/users", String.class, AdminUsername, AdminPassword);
+            }));
+        }
+
+        start.countDown();
+        for (Future<ResponseEntity<String>> future : futures) {
+            assertThat(future.get(60, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.OK);
+        }
+        executor.shutdown();
+    }
+
+    private ResponseEntity<String> executeGetWithBearer(String url, String token) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        return restTemplate.exchange(baseUrl + url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+}
@@ -0,0 +1,119 @@
+package sf.mifi.grechko.integration.controllers;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import sf.mifi.grechko.BaseTest;
+import sf.mifi.grechko.security.AuthenticationCache;
+
+import java.util.Map;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class AuthenticationCacheIntegrationTest extends BaseTest {
+
+    private static final int BENCHMARK_REQUESTS = 50;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate template;
+
+    @Autowired
+    private AuthenticationCache authenticationCache;
+
+    private final String AdminUsername = "admin";
+    private final String AdminPassword = "admin123";
+    private final String TestUsername = "cacheuser";
+    private final String TestPassword = "cacheuser123";
+
+    private static Integer testId;
+
+    @BeforeEach
+    void setUp() {
+        this.restTemplate = template;
+        this.baseUrl = "http://localhost:" + port;
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Бенчмарк: запросов в секунду без кэша и с кэшем аутентификации")
+    void benchmark_AuthenticatedRequestsPerSecond() {
+        // Прогрев
+        executeGet("/api/users", String.class, AdminUsername, AdminPassword);
+
+        long coldStart = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_REQUESTS; i++) {
+            authenticationCache.invalidateAll();
+            ResponseEntity<String> response = executeGet("/api/users", String.class, AdminUsername, AdminPassword);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        }
+        double coldSeconds = (System.nanoTime() - coldStart) / 1e9;
+
+        long warmStart = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_REQUESTS; i++) {
+            ResponseEntity<String> response = executeGet("/api/users", String.class, AdminUsername, AdminPassword);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        }
+        double warmSeconds = (System.nanoTime() - warmStart) / 1e9;
+
+        log.info("Кэш аутентификации: без кэша {} запросов/с, с кэшем {} запросов/с",
+                String.format("%.1f", BENCHMARK_REQUESTS / coldSeconds),
+                String.format("%.1f", BENCHMARK_REQUESTS / warmSeconds));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Смена пароля сбрасывает кэш: старый пароль больше не принимается")
+    void changePassword_ShouldInvalidateCachedCredentials() {
+        Map<String, Object> userRequest = Map.of(
+                "login", TestUsername,
+                "password", TestPassword,
+                "role", "USER"
+        );
+        ResponseEntity<Map> created = executePost("/api/users", userRequest, Map.class, AdminUsername, AdminPassword);
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.OK);
+        testId = Integer.valueOf(created.getBody().get("id").toString());
+
+        // Успешный вход кладет учетные данные в кэш
+        ResponseEntity<String> first = executeGet("/api/profiles/me", String.class, TestUsername, TestPassword);
+        assertThat(first.getStatusCode()).isNotEqualTo(HttpStatus.UNAUTHORIZED);
+
+        Map<String, Object> changeRequest = Map.of(
+                "currentPassword", TestPassword,
+                "newPassword", "cacheuser456"
+        );
+        ResponseEntity<String> changed = executePost(String.format("/api/users/%d/change-password", testId),
+                changeRequest, String.class, AdminUsername, AdminPassword);
+        assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        ResponseEntity<String> oldPassword = executeGet("/api/profiles/me", String.class, TestUsername, TestPassword);
+        assertThat(oldPassword.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+
+        ResponseEntity<String> newPassword = executeGet("/api/profiles/me", String.class, TestUsername, "cacheuser456");
+        assertThat(newPassword.getStatusCode()).isNotEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Удаление пользователя сбрасывает кэш")
+    void deleteUser_ShouldInvalidateCachedCredentials() {
+        ResponseEntity<String> deleted = executeDelete(String.format("/api/users/%d", testId),
+                String.class, AdminUsername, AdminPassword);
+        assertThat(deleted.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+        ResponseEntity<String> response = executeGet("/api/profiles/me", String.class, TestUsername, "cacheuser456");
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+}
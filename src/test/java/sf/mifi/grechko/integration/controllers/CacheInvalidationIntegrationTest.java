@@ -0,0 +1,189 @@
+package sf.mifi.grechko.integration.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import sf.mifi.grechko.App;
+import sf.mifi.grechko.BaseTest;
+
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+/**
+ * Два контекста приложения в одной JVM над одной БД изображают два узла.
+ * Запись идет через узел A, а узел B должен перестать отдавать закэшированные данные:
+ * страницы каталога, автодополнение и кэш аутентификации
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class CacheInvalidationIntegrationTest extends BaseTest {
+
+    private static final String DATABASE_URL = "jdbc:h2:mem:invalidation;DB_CLOSE_DELAY=-1;MODE=PostgreSQL";
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+    private static String urlA;
+    private static String urlB;
+
+    private final String AdminUsername = "admin";
+    private final String AdminPassword = "admin123";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static Integer teacherId;
+    private static String teacherLogin;
+    private static Integer categoryId;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode("create-drop");
+        // Схему уже создал узел A
+        nodeB = startNode("none");
+        urlA = "http://localhost:" + nodeA.getEnvironment().getProperty("local.server.port");
+        urlB = "http://localhost:" + nodeB.getEnvironment().getProperty("local.server.port");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    private static ConfigurableApplicationContext startNode(String ddlAuto) {
+        return new SpringApplicationBuilder(App.class)
+                .profiles("test")
+                // Аргументы, а не properties(): те ниже по приоритету, чем application.properties
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + DATABASE_URL,
+                        "--spring.jpa.hibernate.ddl-auto=" + ddlAuto,
+                        "--app.cache.invalidation.loopback-group=invalidation-test");
+    }
+
+    @BeforeEach
+    void setUp() {
+        this.restTemplate = new TestRestTemplate();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Новая категория на узле A видна на закэшированной странице узла B")
+    void createCategory_OnNodeA_ShouldInvalidateCatalogPageOnNodeB() throws Exception {
+        String url = "/api/categories?size=100";
+        // Дважды: второй ответ уже из кэша узла B
+        on(urlB);
+        executeGet(url, String.class, null, null);
+        assertThat(executeGet(url, String.class, null, null).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        String name = "Инвалидация " + System.nanoTime();
+        on(urlA);
+        ResponseEntity<String> created = executePost("/api/categories", Map.of("name", name),
+                String.class, AdminUsername, AdminPassword);
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.OK);
+        categoryId = objectMapper.readTree(created.getBody()).get("id").asInt();
+
+        on(urlB);
+        String body = awaitBody(url, null, null, page -> page.contains(name));
+        assertThat(body).contains(name);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Курс, созданный и удаленный на узле A, появляется и пропадает в автодополнении узла B")
+    void createAndDeleteCourse_OnNodeA_ShouldUpdateSuggestIndexOnNodeB() throws Exception {
+        teacherLogin = "inv_teacher_" + System.nanoTime();
+        on(urlA);
+        ResponseEntity<String> teacher = executePost("/api/users",
+                Map.of("login", teacherLogin, "password", "password123", "role", "TEACHER"),
+                String.class, AdminUsername, AdminPassword);
+        assertThat(teacher.getStatusCode()).isEqualTo(HttpStatus.OK);
+        teacherId = objectMapper.readTree(teacher.getBody()).get("id").asInt();
+
+        String word = "кластер" + System.nanoTime();
+        ResponseEntity<String> course = executePost("/api/courses",
+                Map.of("title", "Курс " + word, "categoryId", categoryId, "teacherId", teacherId),
+                String.class, AdminUsername, AdminPassword);
+        assertThat(course.getStatusCode()).isEqualTo(HttpStatus.OK);
+        int courseId = objectMapper.readTree(course.getBody()).get("id").asInt();
+
+        on(urlB);
+        String suggestUrl = "/api/courses/suggest?q=" + word;
+        assertThat(suggestionCount(awaitBody(suggestUrl, null, null, page -> !page.equals("[]")))).isEqualTo(1);
+
+        on(urlA);
+        assertThat(executeDelete("/api/courses/" + courseId, Void.class, AdminUsername, AdminPassword)
+                .getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+        on(urlB);
+        assertThat(suggestionCount(awaitBody(suggestUrl, null, null, page -> page.equals("[]")))).isZero();
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Смена роли на узле A сбрасывает кэш аутентификации узла B")
+    void changeRole_OnNodeA_ShouldInvalidateAuthenticationOnNodeB() {
+        on(urlB);
+        // Успешный вход кладет логин в кэш аутентификации узла B
+        assertThat(executeGet("/api/courses/my", String.class, teacherLogin, "password123").getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+
+        on(urlA);
+        assertThat(executePut("/api/users/" + teacherId + "/role?role=USER", String.class,
+                AdminUsername, AdminPassword).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        on(urlB);
+        HttpStatus status = null;
+        for (int attempt = 0; attempt < 50; attempt++) {
+            status = HttpStatus.valueOf(executeGet("/api/courses/my", String.class, teacherLogin, "password123")
+                    .getStatusCode().value());
+            if (status == HttpStatus.FORBIDDEN) {
+                break;
+            }
+            sleep();
+        }
+        assertThat(status).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    private void on(String nodeUrl) {
+        this.baseUrl = nodeUrl;
+    }
+
+    /**
+     * Сообщение применяется на узле B в фоне: ждем, пока ответ не станет ожидаемым
+     */
+    private String awaitBody(String url, String username, String password, Predicate<String> condition) {
+        String body = null;
+        for (int attempt = 0; attempt < 50; attempt++) {
+            ResponseEntity<String> response = executeGet(url, String.class, username, password);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            body = response.getBody();
+            if (body != null && condition.test(body)) {
+                break;
+            }
+            sleep();
+        }
+        return body;
+    }
+
+    private int suggestionCount(String body) throws Exception {
+        JsonNode suggestions = objectMapper.readTree(body);
+        return suggestions.size();
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
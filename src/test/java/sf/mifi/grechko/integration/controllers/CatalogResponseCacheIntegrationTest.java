@@ -0,0 +1,108 @@
+package sf.mifi.grechko.integration.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.*;
+import org.springframework.test.context.ActiveProfiles;
+import sf.mifi.grechko.BaseTest;
+
+import java.io.ByteArrayInputStream;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class CatalogResponseCacheIntegrationTest extends BaseTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate template;
+
+    private final String AdminUsername = "admin";
+    private final String AdminPassword = "admin123";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        this.restTemplate = template;
+        this.baseUrl = "http://localhost:" + port;
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. GET /api/categories - gzip при Accept-Encoding, тот же JSON и ETag без него")
+    void getCategories_AcceptGzip_ShouldReturnCompressedBody() throws Exception {
+        executePost("/api/categories", Map.of("name", "Кэш каталога " + System.nanoTime()),
+                String.class, AdminUsername, AdminPassword);
+
+        ResponseEntity<byte[]> gzipped = getBytes("/api/categories?size=100", "gzip, deflate");
+        ResponseEntity<byte[]> plain = getBytes("/api/categories?size=100", null);
+
+        assertThat(gzipped.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(gzipped.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gzipped.getHeaders().getVary().contains(HttpHeaders.ACCEPT_ENCODING)).isTrue();
+        assertThat(plain.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(plain.getHeaders().getContentType().isCompatibleWith(MediaType.APPLICATION_JSON)).isTrue();
+
+        byte[] unzipped = new GZIPInputStream(new ByteArrayInputStream(gzipped.getBody())).readAllBytes();
+        assertThat(new String(unzipped)).isEqualTo(new String(plain.getBody()));
+        assertThat(gzipped.getHeaders().getETag()).isEqualTo(plain.getHeaders().getETag());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Создание категории сразу видно в закэшированном списке")
+    void createCategory_ShouldInvalidateCachedPage() throws Exception {
+        ResponseEntity<byte[]> before = getBytes("/api/categories?size=100", null);
+        String name = "Новая категория " + System.nanoTime();
+
+        executePost("/api/categories", Map.of("name", name), String.class, AdminUsername, AdminPassword);
+
+        ResponseEntity<byte[]> after = getBytes("/api/categories?size=100", null);
+        assertThat(after.getHeaders().getETag()).isNotEqualTo(before.getHeaders().getETag());
+
+        boolean found = false;
+        String cursor = null;
+        do {
+            String url = "/api/categories?size=100" + (cursor == null ? "" : "&cursor=" + cursor);
+            JsonNode page = objectMapper.readTree(getBytes(url, null).getBody());
+            for (JsonNode item : page.get("items")) {
+                found |= name.equals(item.get("name").asText());
+            }
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null && !found);
+        assertThat(found).isTrue();
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. GET /api/categories - gzip;q=0 означает отказ от gzip")
+    void getCategories_GzipRefused_ShouldReturnPlainBody() {
+        ResponseEntity<byte[]> refused = getBytes("/api/categories?size=100", "gzip;q=0, identity");
+        ResponseEntity<byte[]> anyButGzip = getBytes("/api/categories?size=100", "*, gzip; q=0");
+        ResponseEntity<byte[]> any = getBytes("/api/categories?size=100", "*;q=0.5");
+
+        assertThat(refused.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(anyButGzip.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(any.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+    }
+
+    private ResponseEntity<byte[]> getBytes(String url, String acceptEncoding) {
+        HttpHeaders headers = new HttpHeaders();
+        if (acceptEncoding != null) {
+            headers.set(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return restTemplate.exchange(baseUrl + url, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+    }
+}
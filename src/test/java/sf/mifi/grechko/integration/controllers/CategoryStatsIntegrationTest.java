@@ -0,0 +1,177 @@
+package sf.mifi.grechko.integration.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import sf.mifi.grechko.BaseTest;
+import sf.mifi.grechko.dto.CursorPage;
+import sf.mifi.grechko.models.Category;
+import sf.mifi.grechko.models.Course;
+import sf.mifi.grechko.models.User;
+import sf.mifi.grechko.repositories.CategoryRepository;
+import sf.mifi.grechko.repositories.CourseRepository;
+import sf.mifi.grechko.repositories.UserRepository;
+import sf.mifi.grechko.services.PurgeService;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+/**
+ * GET /api/categories?withStats=true: число курсов и активных записей по категориям одним запросом;
+ * удаление категории проверяет наличие курсов без загрузки коллекции
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class CategoryStatsIntegrationTest extends BaseTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate template;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private PurgeService purgeService;
+
+    private final String AdminUsername = "admin";
+    private final String AdminPassword = "admin123";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static Integer categoryId;
+    private static Integer emptyCategoryId;
+    private static Integer deletedCourseId;
+
+    @BeforeEach
+    void setUp() {
+        this.restTemplate = template;
+        this.baseUrl = "http://localhost:" + port;
+
+        if (categoryId == null) {
+            createTestData();
+        }
+    }
+
+    private void createTestData() {
+        String suffix = String.valueOf(System.nanoTime());
+
+        User teacher = new User();
+        teacher.setLogin("cs_teacher_" + suffix);
+        teacher.setPasswdHash("-");
+        teacher.setRole(User.Role.TEACHER);
+        teacher = userRepository.save(teacher);
+
+        Category category = new Category();
+        category.setName("Статистика " + suffix);
+        category = categoryRepository.save(category);
+        categoryId = category.getId();
+
+        Category empty = new Category();
+        empty.setName("Статистика пустая " + suffix);
+        emptyCategoryId = categoryRepository.save(empty).getId();
+
+        Integer firstCourseId = null;
+        for (int i = 0; i < 3; i++) {
+            Course course = new Course();
+            course.setTitle("Курс статистики " + i + " " + suffix);
+            course.setCategory(category);
+            course.setTeacher(teacher);
+            Integer courseId = courseRepository.save(course).getId();
+            if (i == 0) {
+                firstCourseId = courseId;
+            } else {
+                deletedCourseId = courseId;
+            }
+        }
+
+        for (int i = 0; i < 4; i++) {
+            User student = new User();
+            student.setLogin("cs_student_" + i + "_" + suffix);
+            student.setPasswdHash("-");
+            student.setRole(User.Role.USER);
+            student = userRepository.save(student);
+            executePost("/api/enrollments", Map.of("userId", student.getId(), "courseId", firstCourseId),
+                    String.class, AdminUsername, AdminPassword);
+        }
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. withStats=true - курсы и активные записи по категориям, один SQL-запрос")
+    void getCategoriesWithStats_ShouldAggregateInSingleStatement() throws Exception {
+        // Курс, помеченный удаленным и еще не очищенный, не учитывается
+        Course deleted = courseRepository.findById(deletedCourseId).orElseThrow();
+        deleted.setDeletedAt(LocalDateTime.now());
+        courseRepository.save(deleted);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Курсор на категорию раньше нашей: первая строка страницы - наша категория
+        String cursor = CursorPage.encodeCursor(categoryId - 1);
+        ResponseEntity<String> response = executeGet("/api/categories?withStats=true&size=2&cursor=" + cursor,
+                String.class, null, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(statistics.getPrepareStatementCount()).as("statements").isEqualTo(1L);
+
+        JsonNode items = objectMapper.readTree(response.getBody()).get("items");
+        assertThat(items.get(0).get("id").asInt()).isEqualTo(categoryId);
+        assertThat(items.get(0).get("courseCount").asLong()).isEqualTo(2L);
+        assertThat(items.get(0).get("activeEnrollments").asLong()).isEqualTo(4L);
+        assertThat(items.get(1).get("id").asInt()).isEqualTo(emptyCategoryId);
+        assertThat(items.get(1).get("courseCount").asLong()).isEqualTo(0L);
+        assertThat(items.get(1).get("activeEnrollments").asLong()).isEqualTo(0L);
+
+        // Повтор - из кэша ответов
+        statistics.clear();
+        executeGet("/api/categories?withStats=true&size=2&cursor=" + cursor, String.class, null, null);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(0L);
+
+        // Без параметра - прежний ответ без агрегатов
+        JsonNode plain = objectMapper.readTree(executeGet("/api/categories?size=2&cursor=" + cursor,
+                String.class, null, null).getBody()).get("items");
+        assertThat(plain.get(0).has("courseCount")).isFalse();
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Удаление категории: с курсами (в том числе ждущими очистки) - ошибка, пустой - успех")
+    void deleteCategory_ShouldProbeCourses() {
+        ResponseEntity<String> withCourses = executeDelete("/api/categories/" + categoryId, String.class,
+                AdminUsername, AdminPassword);
+        assertThat(withCourses.getStatusCode().is2xxSuccessful()).isFalse();
+
+        ResponseEntity<String> empty = executeDelete("/api/categories/" + emptyCategoryId, String.class,
+                AdminUsername, AdminPassword);
+        assertThat(empty.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+        purgeService.purgeAll();
+        assertThat(courseRepository.existsAnyByCategoryId(categoryId)).isTrue();
+    }
+}
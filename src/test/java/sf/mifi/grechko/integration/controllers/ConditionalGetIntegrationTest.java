@@ -0,0 +1,149 @@
+package sf.mifi.grechko.integration.controllers;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.*;
+import org.springframework.test.context.ActiveProfiles;
+import sf.mifi.grechko.BaseTest;
+
+import java.util.Map;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ConditionalGetIntegrationTest extends BaseTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate template;
+
+    private final String AdminUsername = "admin";
+    private final String AdminPassword = "admin123";
+    private final String TestPassword = "etaguser123";
+
+    private static Integer categoryId;
+    private static Integer courseId;
+    private static String testUsername;
+
+    @BeforeEach
+    void setUp() {
+        this.restTemplate = template;
+        this.baseUrl = "http://localhost:" + port;
+
+        if (courseId == null) {
+            String suffix = String.valueOf(System.nanoTime());
+            testUsername = "etag_user_" + suffix;
+
+            Map<?, ?> teacher = executePost("/api/users",
+                    Map.of("login", "etag_teacher_" + suffix, "password", TestPassword, "role", "TEACHER"),
+                    Map.class, AdminUsername, AdminPassword).getBody();
+            executePost("/api/users", Map.of("login", testUsername, "password", TestPassword, "role", "USER"),
+                    Map.class, AdminUsername, AdminPassword);
+
+            categoryId = (Integer) executePost("/api/categories", Map.of("name", "ETag " + suffix),
+                    Map.class, AdminUsername, AdminPassword).getBody().get("id");
+            courseId = (Integer) executePost("/api/courses", Map.of(
+                            "title", "Курс ETag " + suffix,
+                            "categoryId", categoryId,
+                            "teacherId", teacher.get("id")),
+                    Map.class, AdminUsername, AdminPassword).getBody().get("id");
+        }
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. GET /api/courses/{id} - ETag, Cache-Control и 304 при актуальной копии")
+    void getCourse_IfNoneMatch_ShouldReturnNotModified() {
+        ResponseEntity<String> first = conditionalGet("/api/courses/" + courseId, null, null, null);
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        String etag = first.getHeaders().getETag();
+        assertThat(etag).isNotNull();
+        assertThat(first.getHeaders().getLastModified()).isGreaterThan(0L);
+        assertThat(first.getHeaders().getCacheControl()).contains("public");
+        assertThat(first.getHeaders().getCacheControl()).contains("s-maxage");
+
+        ResponseEntity<String> second = conditionalGet("/api/courses/" + courseId, etag, null, null);
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(second.getBody()).isNull();
+        assertThat(second.getHeaders().getETag()).isEqualTo(etag);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Изменение курса и переименование его категории меняют ETag курса")
+    void updateCourseOrCategory_ShouldChangeCourseEtag() {
+        String initial = conditionalGet("/api/courses/" + courseId, null, null, null).getHeaders().getETag();
+
+        executePut("/api/courses/" + courseId, Map.of("description", "Новое описание"),
+                String.class, AdminUsername, AdminPassword);
+        ResponseEntity<String> afterCourseUpdate = conditionalGet("/api/courses/" + courseId, initial, null, null);
+        assertThat(afterCourseUpdate.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(afterCourseUpdate.getBody()).contains("Новое описание");
+
+        String updated = afterCourseUpdate.getHeaders().getETag();
+        executePut("/api/categories/" + categoryId, Map.of("name", "ETag переименована " + System.nanoTime()),
+                String.class, AdminUsername, AdminPassword);
+        ResponseEntity<String> afterCategoryRename = conditionalGet("/api/courses/" + courseId, updated, null, null);
+        assertThat(afterCategoryRename.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(afterCategoryRename.getBody()).contains("ETag переименована");
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. GET /api/categories/{id} и список категорий - 304 по If-None-Match")
+    void getCategory_IfNoneMatch_ShouldReturnNotModified() {
+        String etag = conditionalGet("/api/categories/" + categoryId, null, null, null).getHeaders().getETag();
+        assertThat(conditionalGet("/api/categories/" + categoryId, etag, null, null).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        ResponseEntity<String> page = conditionalGet("/api/categories?size=5", null, null, null);
+        assertThat(page.getHeaders().getCacheControl()).contains("public");
+        assertThat(conditionalGet("/api/categories?size=5", page.getHeaders().getETag(), null, null).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. GET /api/profiles/me - приватный кэш, 304 до изменения профиля")
+    void getMyProfile_IfNoneMatch_ShouldReturnNotModifiedUntilUpdate() {
+        executePut("/api/profiles/me", Map.of("bio", "До"), String.class, testUsername, TestPassword);
+
+        ResponseEntity<String> first = conditionalGet("/api/profiles/me", null, testUsername, TestPassword);
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(first.getHeaders().getCacheControl()).contains("private");
+        String etag = first.getHeaders().getETag();
+
+        assertThat(conditionalGet("/api/profiles/me", etag, testUsername, TestPassword).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        executePut("/api/profiles/me", Map.of("bio", "После"), String.class, testUsername, TestPassword);
+        ResponseEntity<String> changed = conditionalGet("/api/profiles/me", etag, testUsername, TestPassword);
+        assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changed.getBody()).contains("После");
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. Профиля нет - по-прежнему 404")
+    void getProfile_Missing_ShouldReturnNotFound() {
+        ResponseEntity<String> response = conditionalGet("/api/profiles/user/999999", null, AdminUsername, AdminPassword);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    private ResponseEntity<String> conditionalGet(String url, String ifNoneMatch, String username, String password) {
+        HttpHeaders headers = username == null ? new HttpHeaders() : createHeaders(username, password, null);
+        if (ifNoneMatch != null) {
+            headers.setIfNoneMatch(ifNoneMatch);
+        }
+        return restTemplate.exchange(baseUrl + url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+}
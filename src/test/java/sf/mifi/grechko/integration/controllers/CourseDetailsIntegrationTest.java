@@ -0,0 +1,233 @@
+package sf.mifi.grechko.integration.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import sf.mifi.grechko.BaseTest;
+import sf.mifi.grechko.models.Category;
+import sf.mifi.grechko.models.Course;
+import sf.mifi.grechko.models.Profile;
+import sf.mifi.grechko.models.User;
+import sf.mifi.grechko.repositories.CategoryRepository;
+import sf.mifi.grechko.repositories.CourseRepository;
+import sf.mifi.grechko.repositories.ProfileRepository;
+import sf.mifi.grechko.repositories.UserRepository;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+/**
+ * GET /api/courses/{id}/details: все данные страницы курса одним SQL-запросом
+ * вместо четырех HTTP-вызовов
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class CourseDetailsIntegrationTest extends BaseTest {
+
+    private static final int BENCHMARK_ROUNDS = 50;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate template;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    private final String AdminUsername = "admin";
+    private final String AdminPassword = "admin123";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static Integer teacherId;
+    private static Integer categoryId;
+    private static Integer courseId;
+    private static Integer courseWithoutProfileId;
+
+    @BeforeEach
+    void setUp() {
+        this.restTemplate = template;
+        this.baseUrl = "http://localhost:" + port;
+
+        if (courseId == null) {
+            createTestData();
+        }
+    }
+
+    private void createTestData() {
+        String suffix = String.valueOf(System.nanoTime());
+
+        User teacher = new User();
+        teacher.setLogin("cd_teacher_" + suffix);
+        teacher.setPasswdHash("-");
+        teacher.setRole(User.Role.TEACHER);
+        teacher = userRepository.save(teacher);
+        teacherId = teacher.getId();
+
+        Profile profile = new Profile();
+        profile.setUser(teacher);
+        profile.setBio("Преподаю базы данных");
+        profile.setAvatarUrl("https://example.com/avatar.png");
+        profile.setEmail("cd_" + suffix + "@example.com");
+        profileRepository.save(profile);
+
+        User otherTeacher = new User();
+        otherTeacher.setLogin("cd_teacher_np_" + suffix);
+        otherTeacher.setPasswdHash("-");
+        otherTeacher.setRole(User.Role.TEACHER);
+        otherTeacher = userRepository.save(otherTeacher);
+
+        Category category = new Category();
+        category.setName("Страница курса " + suffix);
+        category = categoryRepository.save(category);
+        categoryId = category.getId();
+
+        courseId = createCourse("Курс с деталями " + suffix, category, teacher);
+        courseWithoutProfileId = createCourse("Курс без профиля " + suffix, category, otherTeacher);
+
+        for (int i = 0; i < 2; i++) {
+            User student = new User();
+            student.setLogin("cd_student_" + i + "_" + suffix);
+            student.setPasswdHash("-");
+            student.setRole(User.Role.USER);
+            student = userRepository.save(student);
+            ResponseEntity<String> enrolled = executePost("/api/enrollments",
+                    Map.of("userId", student.getId(), "courseId", courseId),
+                    String.class, AdminUsername, AdminPassword);
+            assertThat(enrolled.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        }
+    }
+
+    private Integer createCourse(String title, Category category, User teacher) {
+        Course course = new Course();
+        course.setTitle(title);
+        course.setCategory(category);
+        course.setTeacher(teacher);
+        return courseRepository.save(course).getId();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Детали курса: курс, категория, преподаватель с профилем и счетчики - один запрос")
+    void getDetails_ShouldReturnAggregateInSingleStatement() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ResponseEntity<String> response = executeGet("/api/courses/" + courseId + "/details", String.class, null, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1L);
+
+        JsonNode details = objectMapper.readTree(response.getBody());
+        assertThat(details.get("course").get("id").asInt()).isEqualTo(courseId);
+        assertThat(details.get("course").get("categoryId").asInt()).isEqualTo(categoryId);
+        assertThat(details.get("teacher").get("id").asInt()).isEqualTo(teacherId);
+        assertThat(details.get("teacher").get("bio").asText()).isEqualTo("Преподаю базы данных");
+        assertThat(details.get("teacher").has("email")).isFalse();
+        assertThat(details.get("enrollments").get("active").asLong()).isEqualTo(2L);
+        assertThat(details.get("enrollments").get("completed").asLong()).isEqualTo(0L);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Без профиля и записей - пустой профиль и нули, несуществующий курс - 404")
+    void getDetails_MissingParts_ShouldDefault() throws Exception {
+        ResponseEntity<String> response = executeGet("/api/courses/" + courseWithoutProfileId + "/details",
+                String.class, null, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JsonNode details = objectMapper.readTree(response.getBody());
+        assertThat(details.get("teacher").get("bio").isNull()).isTrue();
+        assertThat(details.get("enrollments").get("active").asLong()).isEqualTo(0L);
+
+        ResponseEntity<String> missing = executeGet("/api/courses/999999999/details", String.class, null, null);
+        assertThat(missing.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Сравнение с четырьмя отдельными вызовами: запросы к БД и p50/p99")
+    void getDetails_ComparedToSeparateCalls() {
+        List<String> separateCalls = List.of(
+                "/api/courses/" + courseId,
+                "/api/profiles/user/" + teacherId,
+                "/api/enrollments/course/" + courseId + "/active-count",
+                "/api/categories/" + categoryId);
+
+        // Прогрев: кэш аутентификации, планы запросов, JIT
+        for (int i = 0; i < 10; i++) {
+            separateCalls.forEach(url -> executeGet(url, String.class, AdminUsername, AdminPassword));
+            executeGet("/api/courses/" + courseId + "/details", String.class, AdminUsername, AdminPassword);
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long[] separate = new long[BENCHMARK_ROUNDS];
+        for (int i = 0; i < BENCHMARK_ROUNDS; i++) {
+            long start = System.nanoTime();
+            for (String url : separateCalls) {
+                assertThat(executeGet(url, String.class, AdminUsername, AdminPassword).getStatusCode())
+                        .isEqualTo(HttpStatus.OK);
+            }
+            separate[i] = System.nanoTime() - start;
+        }
+        long separateStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        long[] aggregate = new long[BENCHMARK_ROUNDS];
+        for (int i = 0; i < BENCHMARK_ROUNDS; i++) {
+            long start = System.nanoTime();
+            assertThat(executeGet("/api/courses/" + courseId + "/details", String.class, AdminUsername, AdminPassword)
+                    .getStatusCode()).isEqualTo(HttpStatus.OK);
+            aggregate[i] = System.nanoTime() - start;
+        }
+        long aggregateStatements = statistics.getPrepareStatementCount();
+
+        log.info("Страница курса, {} повторов: четыре вызова p50={} мс p99={} мс, {} запросов к БД; "
+                        + "details p50={} мс p99={} мс, {} запросов к БД", BENCHMARK_ROUNDS,
+                String.format("%.2f", percentileMillis(separate, 0.5)),
+                String.format("%.2f", percentileMillis(separate, 0.99)), separateStatements,
+                String.format("%.2f", percentileMillis(aggregate, 0.5)),
+                String.format("%.2f", percentileMillis(aggregate, 0.99)), aggregateStatements);
+
+        // Время на общей машине нестабильно, поэтому проверяем только число запросов к БД
+        assertThat(aggregateStatements).isEqualTo(BENCHMARK_ROUNDS);
+        assertThat(separateStatements).isGreaterThanOrEqualTo(4L * BENCHMARK_ROUNDS);
+    }
+
+    private static double percentileMillis(long[] nanos, double percentile) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,203 @@
+package sf.mifi.grechko.integration.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import sf.mifi.grechko.BaseTest;
+import sf.mifi.grechko.models.Category;
+import sf.mifi.grechko.models.Course;
+import sf.mifi.grechko.models.User;
+import sf.mifi.grechko.repositories.CategoryRepository;
+import sf.mifi.grechko.repositories.CourseRepository;
+import sf.mifi.grechko.repositories.UserRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class CourseFilterIntegrationTest extends BaseTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate template;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final LocalDate BASE_DATE = LocalDate.of(2090, 1, 1);
+
+    private static String suffix;
+    private static Integer categoryId;
+    private static Integer otherCategoryId;
+    private static Integer teacherId;
+    private static Integer otherTeacherId;
+
+    @BeforeEach
+    void setUp() {
+        this.restTemplate = template;
+        this.baseUrl = "http://localhost:" + port;
+
+        if (categoryId == null) {
+            suffix = String.valueOf(System.nanoTime());
+            User teacher = teacher("filter_teacher_" + suffix);
+            User otherTeacher = teacher("filter_teacher_2_" + suffix);
+            teacherId = teacher.getId();
+            otherTeacherId = otherTeacher.getId();
+
+            Category category = category("Фильтр " + suffix);
+            Category other = category("Фильтр другой " + suffix);
+            categoryId = category.getId();
+            otherCategoryId = other.getId();
+
+            // 5 курсов в категории с датами начала BASE_DATE + 0..4 месяца, 2 курса в другой категории
+            for (int i = 0; i < 5; i++) {
+                course("Java уровень " + i + " " + suffix, category, i % 2 == 0 ? teacher : otherTeacher,
+                        BASE_DATE.plusMonths(i));
+            }
+            course("Python " + suffix, other, teacher, BASE_DATE);
+            course("JAVA 100% " + suffix, other, otherTeacher, BASE_DATE.plusMonths(1));
+        }
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Категория + диапазон дат начала")
+    void filterByCategoryAndDates_ShouldReturnMatchingCourses() throws Exception {
+        List<String> titles = titles("/api/courses?category=" + categoryId
+                + "&startFrom=" + BASE_DATE.plusMonths(1) + "&startTo=" + BASE_DATE.plusMonths(3));
+
+        assertThat(titles.size()).isEqualTo(3);
+        assertThat(titles.get(0)).isEqualTo("Java уровень 1 " + suffix);
+        assertThat(titles.get(2)).isEqualTo("Java уровень 3 " + suffix);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Подстрока названия без учета регистра + преподаватель, спецсимволы LIKE экранируются")
+    void filterByTitleAndTeacher_ShouldReturnMatchingCourses() throws Exception {
+        assertThat(titles("/api/courses?q=java&teacher=" + otherTeacherId + "&startFrom=" + BASE_DATE).size())
+                .isEqualTo(3);
+        assertThat(titles("/api/courses?q=100% " + suffix).size()).isEqualTo(1);
+        assertThat(titles("/api/courses?q=_ " + suffix).size()).isEqualTo(0);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Сортировка по убыванию даты начала, обход страниц по курсору")
+    void sortByStartDateDesc_WalkPages_ShouldKeepOrder() throws Exception {
+        List<String> titles = new ArrayList<>();
+        String url = "/api/courses?category=" + categoryId + "&sort=-startDate&size=2";
+        String next = url;
+        int pages = 0;
+        while (next != null) {
+            ResponseEntity<String> response = executeGet(next, String.class, null, null);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            JsonNode page = objectMapper.readTree(response.getBody());
+            page.get("items").forEach(item -> titles.add(item.get("title").asText()));
+            next = page.get("nextCursor").isNull() ? null : url + "&cursor=" + page.get("nextCursor").asText();
+            pages++;
+        }
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(titles.size()).isEqualTo(5);
+        for (int i = 0; i < 5; i++) {
+            assertThat(titles.get(i)).isEqualTo("Java уровень " + (4 - i) + " " + suffix);
+        }
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. Новый курс сразу попадает в отфильтрованный список")
+    void filter_AfterCourseCreated_ShouldNotServeStalePage() throws Exception {
+        String url = "/api/courses?category=" + otherCategoryId;
+        assertThat(titles(url).size()).isEqualTo(2);
+
+        executePost("/api/courses/bulk", List.of(Map.of(
+                        "title", "Новый " + suffix, "categoryId", otherCategoryId, "teacherId", teacherId)),
+                String.class, "admin", "admin123");
+
+        assertThat(titles(url).size()).isEqualTo(3);
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. Неизвестная сортировка - ошибка 400")
+    void unknownSort_ShouldReturnBadRequest() {
+        ResponseEntity<String> response = executeGet("/api/courses?sort=price", String.class, null, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("6. Запросы с подстрокой названия не проходят через кэш ответов")
+    void filterByTitle_ShouldBypassResponseCache() throws Exception {
+        Counter misses = meterRegistry.get("catalog.cache.requests").tag("result", "miss").counter();
+        double before = misses.count();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(titles("/api/courses?q=" + suffix + "-" + i).size()).isEqualTo(0);
+        }
+
+        assertThat(misses.count()).isEqualTo(before);
+    }
+
+    private List<String> titles(String url) throws Exception {
+        ResponseEntity<String> response = executeGet(url, String.class, null, null);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        List<String> titles = new ArrayList<>();
+        objectMapper.readTree(response.getBody()).get("items").forEach(item -> titles.add(item.get("title").asText()));
+        return titles;
+    }
+
+    private User teacher(String login) {
+        User teacher = new User();
+        teacher.setLogin(login);
+        teacher.setPasswdHash("-");
+        teacher.setRole(User.Role.TEACHER);
+        return userRepository.save(teacher);
+    }
+
+    private Category category(String name) {
+        Category category = new Category();
+        category.setName(name);
+        return categoryRepository.save(category);
+    }
+
+    private void course(String title, Category category, User teacher, LocalDate startDate) {
+        Course course = new Course();
+        course.setTitle(title);
+        course.setCategory(category);
+        course.setTeacher(teacher);
+        course.setStartDate(startDate);
+        courseRepository.save(course);
+    }
+}
@@ -0,0 +1,181 @@
+package sf.mifi.grechko.integration.controllers;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.*;
+import org.springframework.test.context.ActiveProfiles;
+import sf.mifi.grechko.BaseTest;
+import sf.mifi.grechko.repositories.CourseRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class CourseImportIntegrationTest extends BaseTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate template;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    private final String AdminUsername = "admin";
+    private final String AdminPassword = "admin123";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static String suffix;
+    private static Integer categoryId;
+    private static Integer teacherId;
+    private static Integer studentId;
+
+    @BeforeEach
+    void setUp() {
+        this.restTemplate = template;
+        this.baseUrl = "http://localhost:" + port;
+
+        if (teacherId == null) {
+            suffix = String.valueOf(System.nanoTime());
+            teacherId = (Integer) executePost("/api/users",
+                    Map.of("login", "import_teacher_" + suffix, "password", "pass", "role", "TEACHER"),
+                    Map.class, AdminUsername, AdminPassword).getBody().get("id");
+            studentId = (Integer) executePost("/api/users",
+                    Map.of("login", "import_student_" + suffix, "password", "pass", "role", "USER"),
+                    Map.class, AdminUsername, AdminPassword).getBody().get("id");
+            categoryId = (Integer) executePost("/api/categories", Map.of("name", "Импорт " + suffix),
+                    Map.class, AdminUsername, AdminPassword).getBody().get("id");
+        }
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. POST /api/courses/bulk (JSON) - создание, дубликаты и ошибки по строкам")
+    void bulkImportJson_ShouldReportRowResults() throws Exception {
+        List<Map<String, Object>> courses = List.of(
+                course("Алгебра " + suffix, categoryId, teacherId),
+                course("Геометрия " + suffix, categoryId, teacherId),
+                course("Алгебра " + suffix, categoryId, teacherId),
+                course("Физика " + suffix, 999999, teacherId),
+                course("Химия " + suffix, categoryId, studentId),
+                Map.of("categoryId", categoryId, "teacherId", teacherId)
+        );
+
+        Map<String, Object> result = postJson(courses);
+        assertThat(result.get("total")).isEqualTo(6);
+        assertThat(result.get("created")).isEqualTo(2);
+        assertThat(result.get("duplicates")).isEqualTo(1);
+        assertThat(result.get("invalid")).isEqualTo(3);
+
+        // Повторный импорт - курс уже есть у преподавателя
+        Map<String, Object> again = postJson(List.of(course("Геометрия " + suffix, categoryId, teacherId)));
+        assertThat(again.get("duplicates")).isEqualTo(1);
+
+        // Созданный курс сразу виден в автодополнении
+        ResponseEntity<String> suggest = executeGet("/api/courses/suggest?q=Геометрия " + suffix, String.class, null, null);
+        assertThat(suggest.getBody()).contains("Геометрия " + suffix);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. POST /api/courses/bulk - вставка пакетами, а не запросом на курс")
+    void bulkImport_ManyRows_ShouldBatchInserts() throws Exception {
+        List<Map<String, Object>> courses = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            courses.add(course("Пакетный курс " + i + " " + suffix, categoryId, teacherId));
+        }
+        long before = courseRepository.count();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        Map<String, Object> result = postJson(courses);
+
+        assertThat(result.get("created")).isEqualTo(120);
+        assertThat(courseRepository.count()).isEqualTo(before + 120);
+        // Проверки категорий, преподавателей и дубликатов, выборки из последовательности и INSERT-пакеты
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(20L);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. POST /api/courses/bulk (CSV) - импорт из CSV")
+    void bulkImportCsv_ShouldCreateCourses() throws Exception {
+        String csv = "title,description,categoryId,teacherId,duration,startDate\n"
+                + "\"CSV курс, первый " + suffix + "\",Описание," + categoryId + "," + teacherId + ",8 недель,\n"
+                + "CSV курс 2 " + suffix + ",," + categoryId + "," + teacherId + ",,2999-01-01\n"
+                + "CSV курс 3 " + suffix + ",," + categoryId + "," + teacherId + ",,не дата\n"
+                + "CSV курс 4 " + suffix + ",," + categoryId + "," + teacherId + ",,2000-01-01\n";
+
+        HttpHeaders headers = createHeaders(AdminUsername, AdminPassword, new ContentType(true, "text/csv"));
+        ResponseEntity<String> response = restTemplate.exchange(baseUrl + "/api/courses/bulk", HttpMethod.POST,
+                new HttpEntity<>(csv, headers), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Map<String, Object> result = objectMapper.readValue(response.getBody(), new TypeReference<>() {});
+        assertThat(result.get("total")).isEqualTo(4);
+        assertThat(result.get("created")).isEqualTo(2);
+        assertThat(result.get("invalid")).isEqualTo(2);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. POST /api/courses/bulk - преподавателю запрещено (ошибка 403)")
+    void bulkImport_TeacherAccess_ShouldReturnForbidden() {
+        ResponseEntity<String> response = executePost("/api/courses/bulk",
+                List.of(course("Запрещенный " + suffix, categoryId, teacherId)), String.class,
+                "import_teacher_" + suffix, "pass");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. POST /api/courses/bulk - null в массиве считается ошибочной строкой, остальные импортируются")
+    void bulkImport_NullRow_ShouldBeReportedAsInvalid() throws Exception {
+        List<Map<String, Object>> courses = Arrays.asList(
+                course("Строка до пустой " + suffix, categoryId, teacherId),
+                null,
+                course("Строка после пустой " + suffix, categoryId, teacherId)
+        );
+
+        Map<String, Object> result = postJson(courses);
+        assertThat(result.get("total")).isEqualTo(3);
+        assertThat(result.get("created")).isEqualTo(2);
+        assertThat(result.get("invalid")).isEqualTo(1);
+    }
+
+    private Map<String, Object> course(String title, Integer categoryId, Integer teacherId) {
+        Map<String, Object> course = new HashMap<>();
+        course.put("title", title);
+        course.put("categoryId", categoryId);
+        course.put("teacherId", teacherId);
+        return course;
+    }
+
+    private Map<String, Object> postJson(List<Map<String, Object>> courses) throws Exception {
+        ResponseEntity<String> response = executePost("/api/courses/bulk", courses, String.class,
+                AdminUsername, AdminPassword);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return objectMapper.readValue(response.getBody(), new TypeReference<>() {});
+    }
+}
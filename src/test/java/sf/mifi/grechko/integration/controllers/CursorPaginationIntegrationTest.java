@@ -0,0 +1,113 @@
+package sf.mifi.grechko.integration.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import sf.mifi.grechko.BaseTest;
+import sf.mifi.grechko.dto.CursorPage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class CursorPaginationIntegrationTest extends BaseTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate template;
+
+    private final String AdminUsername = "admin";
+    private final String AdminPassword = "admin123";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        this.restTemplate = template;
+        this.baseUrl = "http://localhost:" + port;
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. GET /api/categories - обход всех страниц по курсору без пропусков и повторов")
+    void getCategories_WalkAllPages_ShouldReturnEachCategoryOnce() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            executePost("/api/categories", Map.of("name", "Пагинация " + i + " " + System.nanoTime()),
+                    String.class, AdminUsername, AdminPassword);
+        }
+
+        List<Integer> ids = new ArrayList<>();
+        String url = "/api/categories?size=2";
+        int pages = 0;
+        while (url != null) {
+            ResponseEntity<String> response = executeGet(url, String.class, null, null);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+            JsonNode page = objectMapper.readTree(response.getBody());
+            assertThat(page.get("items").size()).isLessThanOrEqualTo(2);
+            page.get("items").forEach(item -> ids.add(item.get("id").asInt()));
+            pages++;
+
+            String link = response.getHeaders().getFirst(HttpHeaders.LINK);
+            if (page.get("nextCursor").isNull()) {
+                assertThat(link).isNull();
+                url = null;
+            } else {
+                assertThat(link).contains("rel=\"next\"");
+                url = "/api/categories?size=2&cursor=" + page.get("nextCursor").asText();
+            }
+        }
+
+        assertThat(ids.size()).isGreaterThanOrEqualTo(5);
+        assertThat(pages).isGreaterThanOrEqualTo(3);
+        for (int i = 1; i < ids.size(); i++) {
+            assertThat(ids.get(i)).isGreaterThan(ids.get(i - 1));
+        }
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. GET /api/courses - размер страницы ограничен сверху")
+    void getCourses_HugePageSize_ShouldBeCapped() throws Exception {
+        ResponseEntity<String> response = executeGet("/api/courses?size=100000", String.class, null, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JsonNode page = objectMapper.readTree(response.getBody());
+        assertThat(page.get("items").size()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Испорченный или поддельный курсор - ошибка 400")
+    void getPages_InvalidCursor_ShouldReturnBadRequest() {
+        String notBase64 = "%%%";
+        String negativeId = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("id:-5".getBytes(StandardCharsets.UTF_8));
+        String offsetCursor = CursorPage.encodeOffset(20);
+
+        assertThat(executeGet("/api/courses?cursor=" + notBase64, String.class, null, null).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(executeGet("/api/categories?cursor=" + negativeId, String.class, null, null).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(executeGet("/api/enrollments?cursor=" + offsetCursor, String.class,
+                AdminUsername, AdminPassword).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
@@ -0,0 +1,236 @@
+package sf.mifi.grechko.integration.controllers;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import sf.mifi.grechko.BaseTest;
+import sf.mifi.grechko.dto.BulkImportResult;
+import sf.mifi.grechko.models.Category;
+import sf.mifi.grechko.models.Course;
+import sf.mifi.grechko.models.Enrollment;
+import sf.mifi.grechko.models.User;
+import sf.mifi.grechko.repositories.CategoryRepository;
+import sf.mifi.grechko.repositories.CourseRepository;
+import sf.mifi.grechko.repositories.EnrollmentRepository;
+import sf.mifi.grechko.repositories.UserRepository;
+import sf.mifi.grechko.services.EnrollmentCountService;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class EnrollmentBulkIntegrationTest extends BaseTest {
+
+    private static final int STUDENTS = 50;
+    private static final int CAPACITY = 30;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate template;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private EnrollmentCountService enrollmentCountService;
+
+    private final String AdminUsername = "admin";
+    private final String AdminPassword = "admin123";
+
+    private static Integer courseId;
+    private static Integer openCourseId;
+    private static List<Integer> studentIds;
+    private static Map<String, Object> request;
+
+    @BeforeEach
+    void setUp() {
+        this.restTemplate = template;
+        this.baseUrl = "http://localhost:" + port;
+
+        if (courseId == null) {
+            createTestData();
+        }
+    }
+
+    private void createTestData() {
+        String suffix = String.valueOf(System.nanoTime());
+
+        User teacher = new User();
+        teacher.setLogin("bulk_teacher_" + suffix);
+        teacher.setPasswdHash("-");
+        teacher.setRole(User.Role.TEACHER);
+        teacher = userRepository.save(teacher);
+
+        Category category = new Category();
+        category.setName("Массовая запись " + suffix);
+        category = categoryRepository.save(category);
+
+        Course course = new Course();
+        course.setTitle("Курс с местами " + suffix);
+        course.setCategory(category);
+        course.setTeacher(teacher);
+        course.setCapacity(CAPACITY);
+        courseId = courseRepository.save(course).getId();
+
+        Course openCourse = new Course();
+        openCourse.setTitle("Курс без ограничения " + suffix);
+        openCourse.setCategory(category);
+        openCourse.setTeacher(teacher);
+        openCourseId = courseRepository.save(openCourse).getId();
+
+        studentIds = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            User student = new User();
+            student.setLogin("bulk_student_" + i + "_" + suffix);
+            student.setPasswdHash("-");
+            student.setRole(User.Role.USER);
+            studentIds.add(userRepository.save(student).getId());
+        }
+
+        // Группа (с повтором и несуществующим пользователем) и пары на другой курс и на несуществующий
+        List<Integer> userIds = new ArrayList<>(studentIds);
+        userIds.add(studentIds.get(1));
+        userIds.add(Integer.MAX_VALUE);
+        request = Map.of(
+                "courseId", courseId,
+                "userIds", userIds,
+                "pairs", List.of(
+                        Map.of("userId", studentIds.get(0), "courseId", openCourseId),
+                        Map.of("userId", studentIds.get(1), "courseId", Integer.MAX_VALUE)));
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. POST /api/enrollments/bulk - результат по каждой паре, места раздаются до вместимости")
+    void bulkEnroll_ShouldReportEachPairAndRespectCapacity() {
+        // Один студент уже записан обычным запросом
+        ResponseEntity<String> single = executePost("/api/enrollments",
+                Map.of("userId", studentIds.get(0), "courseId", courseId), String.class, AdminUsername, AdminPassword);
+        assertThat(single.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+
+        ResponseEntity<BulkImportResult> response = executePost("/api/enrollments/bulk", request,
+                BulkImportResult.class, AdminUsername, AdminPassword);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        BulkImportResult result = response.getBody();
+        assertThat(result.getTotal()).isEqualTo(STUDENTS + 4);
+        // Все, кроме уже записанного, плюс пара на курс без ограничения
+        assertThat(result.getCreated()).isEqualTo(STUDENTS);
+        assertThat(result.getDuplicates()).isEqualTo(2);
+        assertThat(result.getInvalid()).isEqualTo(2);
+
+        List<BulkImportResult.RowResult> rows = result.getRows();
+        assertThat(rows.get(0).getStatus()).isEqualTo(BulkImportResult.RowStatus.DUPLICATE);
+        assertThat(rows.get(STUDENTS).getStatus()).isEqualTo(BulkImportResult.RowStatus.DUPLICATE);
+        assertThat(rows.get(STUDENTS + 1).getStatus()).isEqualTo(BulkImportResult.RowStatus.INVALID);
+        assertThat(rows.get(STUDENTS + 2).getKey()).isEqualTo(studentIds.get(0) + ":" + openCourseId);
+        assertThat(rows.get(STUDENTS + 2).getStatus()).isEqualTo(BulkImportResult.RowStatus.CREATED);
+        assertThat(rows.get(STUDENTS + 3).getStatus()).isEqualTo(BulkImportResult.RowStatus.INVALID);
+        // Места достаются первым по порядку, остальные - в лист ожидания
+        assertThat(rows.get(CAPACITY - 1).getMessage()).isNull();
+        assertThat(rows.get(CAPACITY).getMessage()).isNotNull();
+
+        assertThat(enrollmentCountService.getCount(courseId, Enrollment.EnrollmentStatus.ACTIVE))
+                .isEqualTo((long) CAPACITY);
+        assertThat(enrollmentCountService.getCount(courseId, Enrollment.EnrollmentStatus.WAITLISTED))
+                .isEqualTo((long) (STUDENTS - CAPACITY));
+        assertThat(enrollmentCountService.getCount(openCourseId, Enrollment.EnrollmentStatus.ACTIVE)).isEqualTo(1L);
+        assertCountersMatchTable(courseId);
+        assertCountersMatchTable(openCourseId);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Повтор того же запроса ничего не создает")
+    void bulkEnroll_Repeated_ShouldCreateNothing() {
+        ResponseEntity<BulkImportResult> response = executePost("/api/enrollments/bulk", request,
+                BulkImportResult.class, AdminUsername, AdminPassword);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getCreated()).isZero();
+        assertThat(response.getBody().getDuplicates()).isEqualTo(STUDENTS + 2);
+        assertThat(enrollmentCountService.getCount(courseId, Enrollment.EnrollmentStatus.ACTIVE))
+                .isEqualTo((long) CAPACITY);
+        assertCountersMatchTable(courseId);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Без роли ADMIN массовая запись запрещена")
+    void bulkEnroll_WithoutAdmin_ShouldBeForbidden() {
+        ResponseEntity<String> response = executePost("/api/enrollments/bulk", request, String.class, null, null);
+
+        assertThat(response.getStatusCode()).isIn(HttpStatus.UNAUTHORIZED, HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. Одиночные записи параллельно с массовой: места не теряются, лист ожидания пуст")
+    void bulkEnroll_ConcurrentWithSingles_ShouldNotWasteSeats() throws Exception {
+        Course course = new Course();
+        course.setTitle("Курс для параллельной записи " + System.nanoTime());
+        course.setCategory(courseRepository.findById(courseId).orElseThrow().getCategory());
+        course.setTeacher(courseRepository.findById(courseId).orElseThrow().getTeacher());
+        // Мест ровно столько, сколько студентов: в лист ожидания не должен попасть никто
+        course.setCapacity(STUDENTS);
+        Integer raceCourseId = courseRepository.save(course).getId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(STUDENTS / 2 + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (Integer studentId : studentIds.subList(0, STUDENTS / 2)) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return executePost("/api/enrollments", Map.of("userId", studentId, "courseId", raceCourseId),
+                        String.class, AdminUsername, AdminPassword);
+            }));
+        }
+        futures.add(executor.submit(() -> {
+            start.await();
+            return executePost("/api/enrollments/bulk", Map.of("courseId", raceCourseId, "userIds", studentIds),
+                    BulkImportResult.class, AdminUsername, AdminPassword);
+        }));
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(enrollmentCountService.getCount(raceCourseId, Enrollment.EnrollmentStatus.ACTIVE))
+                .isEqualTo((long) STUDENTS);
+        assertThat(enrollmentCountService.getCount(raceCourseId, Enrollment.EnrollmentStatus.WAITLISTED)).isZero();
+        assertCountersMatchTable(raceCourseId);
+    }
+
+    private void assertCountersMatchTable(Integer id) {
+        Map<Enrollment.EnrollmentStatus, Long> actual = new EnumMap<>(Enrollment.EnrollmentStatus.class);
+        for (Object[] row : enrollmentRepository.countByCourseIdsGroupByStatus(List.of(id))) {
+            actual.put((Enrollment.EnrollmentStatus) row[1], (Long) row[2]);
+        }
+        for (Enrollment.EnrollmentStatus status : Enrollment.EnrollmentStatus.values()) {
+            assertThat(enrollmentCountService.getCount(id, status)).as(status.name())
+                    .isEqualTo(actual.getOrDefault(status, 0L));
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package sf.mifi.grechko.integration.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import sf.mifi.grechko.BaseTest;
+import sf.mifi.grechko.models.Category;
+import sf.mifi.grechko.models.Course;
+import sf.mifi.grechko.models.Enrollment;
+import sf.mifi.grechko.models.User;
+import sf.mifi.grechko.repositories.CategoryRepository;
+import sf.mifi.grechko.repositories.CourseRepository;
+import sf.mifi.grechko.repositories.EnrollmentRepository;
+import sf.mifi.grechko.repositories.UserRepository;
+import sf.mifi.grechko.services.EnrollmentCountService;
+import sf.mifi.grechko.services.WaitlistService;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+/**
+ * Курс с ограниченным числом мест: при одновременной записи мест не выдается больше вместимости,
+ * остальные попадают в лист ожидания и переводятся в активные при освобождении мест
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class EnrollmentCapacityIntegrationTest extends BaseTest {
+
+    private static final int CAPACITY = 20;
+    private static final int STUDENTS = 120;
+    private static final int THREADS = 16;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate template;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private EnrollmentCountService enrollmentCountService;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    private final String AdminUsername = "admin";
+    private final String AdminPassword = "admin123";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static Integer courseId;
+    private static final List<Integer> studentIds = new ArrayList<>();
+    private static final Map<Integer, String> statusByEnrollment = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        this.restTemplate = template;
+        this.baseUrl = "http://localhost:" + port;
+
+        if (courseId == null) {
+            createTestData();
+        }
+    }
+
+    private void createTestData() {
+        String suffix = String.valueOf(System.nanoTime());
+
+        User teacher = new User();
+        teacher.setLogin("cap_teacher_" + suffix);
+        teacher.setPasswdHash("-");
+        teacher.setRole(User.Role.TEACHER);
+        teacher = userRepository.save(teacher);
+
+        Category category = new Category();
+        category.setName("Места на курсе " + suffix);
+        category = categoryRepository.save(category);
+
+        Course course = new Course();
+        course.setTitle("Популярный курс " + suffix);
+        course.setCategory(category);
+        course.setTeacher(teacher);
+        course.setCapacity(CAPACITY);
+        courseId = courseRepository.save(course).getId();
+
+        List<User> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            User student = new User();
+            student.setLogin("cap_student_" + i + "_" + suffix);
+            student.setPasswdHash("-");
+            student.setRole(User.Role.USER);
+            students.add(student);
+        }
+        userRepository.saveAll(students).forEach(student -> studentIds.add(student.getId()));
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Одновременная запись на один курс: ровно CAPACITY активных, остальные в листе ожидания")
+    void concurrentEnrollments_ShouldNeverOversell() throws Exception {
+        // Прогрев кэша аутентификации до замера
+        executeGet("/api/enrollments/course/" + courseId, String.class, AdminUsername, AdminPassword);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ResponseEntity<String>>> futures = new ArrayList<>();
+        for (Integer studentId : studentIds) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return executePost("/api/enrollments", Map.of("userId", studentId, "courseId", courseId),
+                        String.class, AdminUsername, AdminPassword);
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<ResponseEntity<String>> future : futures) {
+            ResponseEntity<String> response = future.get(60, TimeUnit.SECONDS);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+            JsonNode enrollment = objectMapper.readTree(response.getBody());
+            statusByEnrollment.put(enrollment.get("id").asInt(), enrollment.get("status").asText());
+        }
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        executor.shutdown();
+
+        log.info("Запись на один курс: {} запросов в {} потоков за {} с, {} запросов/с",
+                STUDENTS, THREADS, String.format("%.2f", seconds), String.format("%.0f", STUDENTS / seconds));
+
+        long active = statusByEnrollment.values().stream().filter("ACTIVE"::equals).count();
+        long waitlisted = statusByEnrollment.values().stream().filter("WAITLISTED"::equals).count();
+        assertThat(active).isEqualTo((long) CAPACITY);
+        assertThat(waitlisted).isEqualTo((long) (STUDENTS - CAPACITY));
+
+        // Счетчики и сами записи в БД сходятся
+        assertThat(enrollmentRepository.countByCourseIdAndStatus(courseId, Enrollment.EnrollmentStatus.ACTIVE))
+                .isEqualTo((long) CAPACITY);
+        assertThat(enrollmentCountService.getCount(courseId, Enrollment.EnrollmentStatus.ACTIVE))
+                .isEqualTo((long) CAPACITY);
+        assertThat(enrollmentCountService.getCount(courseId, Enrollment.EnrollmentStatus.WAITLISTED))
+                .isEqualTo((long) (STUDENTS - CAPACITY));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Отмена активной записи - место получает первый в листе ожидания")
+    void cancelActive_ShouldPromoteHeadOfWaitlist() throws Exception {
+        Integer activeId = statusByEnrollment.entrySet().stream()
+                .filter(entry -> entry.getValue().equals("ACTIVE"))
+                .map(Map.Entry::getKey)
+                .findFirst().orElseThrow();
+        Integer firstWaitingId = statusByEnrollment.entrySet().stream()
+                .filter(entry -> entry.getValue().equals("WAITLISTED"))
+                .map(Map.Entry::getKey)
+                .min(Integer::compareTo).orElseThrow();
+
+        HttpEntity<Map<String, String>> patch = new HttpEntity<>(Map.of("status", "CANCELLED"),
+                createHeaders(AdminUsername, AdminPassword, new ContentType(true, "application/json")));
+        ResponseEntity<String> cancelled = template.exchange(
+                baseUrl + "/api/enrollments/" + activeId + "/status", HttpMethod.PATCH, patch, String.class);
+        assertThat(cancelled.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        // Перевод идет в фоне после коммита
+        String status = null;
+        for (int attempt = 0; attempt < 50; attempt++) {
+            ResponseEntity<String> response = executeGet("/api/enrollments/" + firstWaitingId, String.class,
+                    AdminUsername, AdminPassword);
+            status = objectMapper.readTree(response.getBody()).get("status").asText();
+            if (status.equals("ACTIVE")) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+        assertThat(status).isEqualTo("ACTIVE");
+        assertThat(enrollmentCountService.getCount(courseId, Enrollment.EnrollmentStatus.ACTIVE))
+                .isEqualTo((long) CAPACITY);
+        assertThat(enrollmentCountService.getCount(courseId, Enrollment.EnrollmentStatus.WAITLISTED))
+                .isEqualTo((long) (STUDENTS - CAPACITY - 1));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Перевести ожидающего в активные вручную при заполненном курсе нельзя")
+    void activateWaitlisted_CourseFull_ShouldFail() {
+        Integer waitingId = enrollmentRepository.findByCourseId(courseId).stream()
+                .filter(enrollment -> enrollment.getStatus() == Enrollment.EnrollmentStatus.WAITLISTED)
+                .map(Enrollment::getId)
+                .findFirst().orElseThrow();
+
+        HttpEntity<Map<String, String>> patch = new HttpEntity<>(Map.of("status", "ACTIVE"),
+                createHeaders(AdminUsername, AdminPassword, new ContentType(true, "application/json")));
+        ResponseEntity<String> response = template.exchange(
+                baseUrl + "/api/enrollments/" + waitingId + "/status", HttpMethod.PATCH, patch, String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(enrollmentCountService.getCount(courseId, Enrollment.EnrollmentStatus.ACTIVE))
+                .isEqualTo((long) CAPACITY);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. Свободное место вручную получает только первый в листе ожидания")
+    void activateWaitlisted_NotHeadOfQueue_ShouldFail() throws Exception {
+        // Места добавлены в обход сервиса: фоновый перевод не запускается
+        Course course = courseRepository.findById(courseId).orElseThrow();
+        course.setCapacity(CAPACITY + 1);
+        courseRepository.save(course);
+
+        List<Integer> waiting = enrollmentRepository.findByCourseId(courseId).stream()
+                .filter(enrollment -> enrollment.getStatus() == Enrollment.EnrollmentStatus.WAITLISTED)
+                .map(Enrollment::getId)
+                .sorted()
+                .toList();
+
+        HttpEntity<Map<String, String>> patch = new HttpEntity<>(Map.of("status", "ACTIVE"),
+                createHeaders(AdminUsername, AdminPassword, new ContentType(true, "application/json")));
+        ResponseEntity<String> skipped = template.exchange(
+                baseUrl + "/api/enrollments/" + waiting.get(1) + "/status", HttpMethod.PATCH, patch, String.class);
+        assertThat(skipped.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+
+        ResponseEntity<String> head = template.exchange(
+                baseUrl + "/api/enrollments/" + waiting.get(0) + "/status", HttpMethod.PATCH, patch, String.class);
+        assertThat(head.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(objectMapper.readTree(head.getBody()).get("status").asText()).isEqualTo("ACTIVE");
+        assertThat(enrollmentCountService.getCount(courseId, Enrollment.EnrollmentStatus.ACTIVE))
+                .isEqualTo((long) CAPACITY + 1);
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. Лист ожидания удаленного курса не переводится в активные")
+    void promote_DeletedCourse_ShouldPromoteNothing() {
+        long waiting = enrollmentCountService.getCount(courseId, Enrollment.EnrollmentStatus.WAITLISTED);
+        assertThat(waiting).isPositive();
+
+        // Свободные места есть, но курс удален (очистка не запрошена - записи остаются)
+        Course course = courseRepository.findById(courseId).orElseThrow();
+        course.setCapacity(STUDENTS);
+        course.setDeletedAt(LocalDateTime.now());
+        courseRepository.save(course);
+
+        assertThat(waitlistService.promote(courseId)).isZero();
+        assertThat(enrollmentCountService.getCount(courseId, Enrollment.EnrollmentStatus.WAITLISTED))
+                .isEqualTo(waiting);
+        assertThat(enrollmentCountService.getCount(courseId, Enrollment.EnrollmentStatus.ACTIVE))
+                .isEqualTo((long) CAPACITY + 1);
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.http.*;
 import org.springframework.test.context.ActiveProfiles;
 import sf.mifi.grechko.BaseTest;
+import sf.mifi.grechko.dto.CursorPage;
 import sf.mifi.grechko.dto.EnrollmentDto;
 
 import java.time.LocalDate;
@@ -163,20 +164,20 @@ class EnrollmentControllerTest extends BaseTest {
         this.testEnrollmentId = createResponse.getBody().getId();
 
         // 2. Получаем все enrollments пользователя
-        ResponseEntity<EnrollmentDto[]> getResponse = executeGet(
-                "/enrollments/user/" + testUserId,
-                EnrollmentDto[].class,
+        ResponseEntity<String> getResponse = executeGet(
+                "/enrollments/user/" + testUserId + "?size=" + CursorPage.MAX_SIZE,
+                String.class,
                 adminUsername,
                 adminPassword
         );
 
         assertEquals(HttpStatus.OK, getResponse.getStatusCode());
-        assertNotNull(getResponse.getBody());
-        assertTrue(getResponse.getBody().length > 0);
+        EnrollmentDto[] items = readItems(getResponse.getBody());
+        assertTrue(items.length > 0);
 
         // Проверяем, что в списке есть наш enrollment
         boolean found = false;
-        for (EnrollmentDto enrollment : getResponse.getBody()) {
+        for (EnrollmentDto enrollment : items) {
             if (enrollment.getId().equals(testEnrollmentId)) {
                 found = true;
                 break;
@@ -205,16 +206,15 @@ class EnrollmentControllerTest extends BaseTest {
         this.testEnrollmentId = createResponse.getBody().getId();
 
         // 2. Получаем все enrollments курса
-        ResponseEntity<EnrollmentDto[]> getResponse = executeGet(
+        ResponseEntity<String> getResponse = executeGet(
                 "/enrollments/course/" + testCourseId,
-                EnrollmentDto[].class,
+                String.class,
                 adminUsername,
                 adminPassword
         );
 
         assertEquals(HttpStatus.OK, getResponse.getStatusCode());
-        assertNotNull(getResponse.getBody());
-        assertTrue(getResponse.getBody().length > 0);
+        assertTrue(readItems(getResponse.getBody()).length > 0);
     }
 
     @Test
@@ -351,6 +351,15 @@ class EnrollmentControllerTest extends BaseTest {
         assertTrue(countResponse.getBody() >= 0);
     }
 
+    // Списки возвращаются страницами: {"items": [...], "nextCursor": ...}
+    private EnrollmentDto[] readItems(String body) {
+        try {
+            return objectMapper.treeToValue(objectMapper.readTree(body).get("items"), EnrollmentDto[].class);
+        } catch (Exception e) {
+            throw new AssertionError("Не удалось разобрать страницу: " + body, e);
+        }
+    }
+
     // Переопределяем методы execute* из BaseTest для работы с текущим restTemplate
     @Override
     protected <T> ResponseEntity<T> executeGet(String url, Class<T> responseType,
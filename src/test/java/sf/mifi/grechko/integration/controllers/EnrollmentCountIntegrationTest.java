@@ -0,0 +1,184 @@
+package sf.mifi.grechko.integration.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import sf.mifi.grechko.BaseTest;
+import sf.mifi.grechko.models.Category;
+import sf.mifi.grechko.models.Course;
+import sf.mifi.grechko.models.Enrollment;
+import sf.mifi.grechko.models.User;
+import sf.mifi.grechko.repositories.CategoryRepository;
+import sf.mifi.grechko.repositories.CourseRepository;
+import sf.mifi.grechko.repositories.EnrollmentRepository;
+import sf.mifi.grechko.repositories.UserRepository;
+import sf.mifi.grechko.services.EnrollmentCountService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+/**
+ * Счетчики записей на курс: поддерживаются при создании, смене статуса и удалении записи,
+ * расхождения исправляет сверка
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class EnrollmentCountIntegrationTest extends BaseTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate template;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private EnrollmentCountService enrollmentCountService;
+
+    private final String AdminUsername = "admin";
+    private final String AdminPassword = "admin123";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static Integer firstCourseId;
+    private static Integer secondCourseId;
+    private static final List<Integer> studentIds = new ArrayList<>();
+    private static final List<Integer> enrollmentIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        this.restTemplate = template;
+        this.baseUrl = "http://localhost:" + port;
+
+        if (firstCourseId == null) {
+            createTestData();
+        }
+    }
+
+    private void createTestData() {
+        String suffix = String.valueOf(System.nanoTime());
+
+        User teacher = new User();
+        teacher.setLogin("ec_teacher_" + suffix);
+        teacher.setPasswdHash("-");
+        teacher.setRole(User.Role.TEACHER);
+        teacher = userRepository.save(teacher);
+
+        Category category = new Category();
+        category.setName("Счетчики записей " + suffix);
+        category = categoryRepository.save(category);
+
+        firstCourseId = createCourse("Первый " + suffix, category, teacher);
+        secondCourseId = createCourse("Второй " + suffix, category, teacher);
+
+        for (int i = 0; i < 3; i++) {
+            User student = new User();
+            student.setLogin("ec_student_" + i + "_" + suffix);
+            student.setPasswdHash("-");
+            student.setRole(User.Role.USER);
+            studentIds.add(userRepository.save(student).getId());
+        }
+    }
+
+    private Integer createCourse(String title, Category category, User teacher) {
+        Course course = new Course();
+        course.setTitle(title);
+        course.setCategory(category);
+        course.setTeacher(teacher);
+        return courseRepository.save(course).getId();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Создание записей увеличивает счетчик активных")
+    void createEnrollments_ShouldIncrementActiveCount() throws Exception {
+        for (Integer studentId : studentIds) {
+            ResponseEntity<String> response = executePost("/api/enrollments",
+                    Map.of("userId", studentId, "courseId", firstCourseId),
+                    String.class, AdminUsername, AdminPassword);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+            enrollmentIds.add(objectMapper.readTree(response.getBody()).get("id").asInt());
+        }
+
+        JsonNode counts = getActiveCounts(firstCourseId + "," + secondCourseId);
+        assertThat(counts.get(firstCourseId.toString()).asLong()).isEqualTo(3L);
+        assertThat(counts.get(secondCourseId.toString()).asLong()).isEqualTo(0L);
+
+        ResponseEntity<Long> single = executeGet("/api/enrollments/course/" + firstCourseId + "/active-count",
+                Long.class, null, null);
+        assertThat(single.getBody()).isEqualTo(3L);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Смена статуса и удаление записи уменьшают счетчик активных")
+    void updateAndDelete_ShouldDecrementActiveCount() throws Exception {
+        HttpEntity<Map<String, String>> patch = new HttpEntity<>(Map.of("status", "COMPLETED"),
+                createHeaders(AdminUsername, AdminPassword, new ContentType(true, "application/json")));
+        ResponseEntity<String> updated = template.exchange(
+                baseUrl + "/api/enrollments/" + enrollmentIds.get(0) + "/status", HttpMethod.PATCH, patch, String.class);
+        assertThat(updated.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        ResponseEntity<Void> deleted = executeDelete("/api/enrollments/" + enrollmentIds.get(1),
+                Void.class, AdminUsername, AdminPassword);
+        assertThat(deleted.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+        JsonNode counts = getActiveCounts(firstCourseId.toString());
+        assertThat(counts.get(firstCourseId.toString()).asLong()).isEqualTo(1L);
+        assertThat(enrollmentCountService.getCount(firstCourseId, Enrollment.EnrollmentStatus.COMPLETED))
+                .isEqualTo(1L);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Сверка исправляет записи, созданные в обход сервиса")
+    void reconcile_ShouldFixDrift() throws Exception {
+        Enrollment enrollment = new Enrollment();
+        enrollment.setUser(userRepository.findById(Long.valueOf(studentIds.get(0))).orElseThrow());
+        enrollment.setCourse(courseRepository.findById(secondCourseId).orElseThrow());
+        enrollmentRepository.save(enrollment);
+
+        assertThat(getActiveCounts(secondCourseId.toString()).get(secondCourseId.toString()).asLong())
+                .isEqualTo(0L);
+
+        assertThat(enrollmentCountService.reconcile()).isGreaterThanOrEqualTo(1);
+
+        JsonNode counts = getActiveCounts(firstCourseId + "," + secondCourseId);
+        assertThat(counts.get(firstCourseId.toString()).asLong()).isEqualTo(1L);
+        assertThat(counts.get(secondCourseId.toString()).asLong()).isEqualTo(1L);
+
+        // Повторная сверка ничего не меняет
+        assertThat(enrollmentCountService.reconcile()).isEqualTo(0);
+    }
+
+    private JsonNode getActiveCounts(String courseIds) throws Exception {
+        ResponseEntity<String> response = executeGet("/api/enrollments/active-counts?courseIds=" + courseIds,
+                String.class, null, null);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return objectMapper.readTree(response.getBody());
+    }
+}
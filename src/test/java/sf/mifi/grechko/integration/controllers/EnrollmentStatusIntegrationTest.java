@@ -0,0 +1,301 @@
+package sf.mifi.grechko.integration.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import sf.mifi.grechko.BaseTest;
+import sf.mifi.grechko.dto.BulkImportResult;
+import sf.mifi.grechko.dto.BulkStatusResult;
+import sf.mifi.grechko.models.Category;
+import sf.mifi.grechko.models.Course;
+import sf.mifi.grechko.models.Enrollment;
+import sf.mifi.grechko.models.User;
+import sf.mifi.grechko.repositories.CategoryRepository;
+import sf.mifi.grechko.repositories.CourseRepository;
+import sf.mifi.grechko.repositories.EnrollmentRepository;
+import sf.mifi.grechko.repositories.UserRepository;
+import sf.mifi.grechko.services.EnrollmentCountService;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class EnrollmentStatusIntegrationTest extends BaseTest {
+
+    // Больше двух пачек app.enrollment.status-chunk-size=50
+    private static final int CLOSED_COURSE_STUDENTS = 120;
+    private static final int CAPACITY = 10;
+    private static final int LIMITED_COURSE_STUDENTS = 15;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate template;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private EnrollmentCountService enrollmentCountService;
+
+    private final String AdminUsername = "admin";
+    private final String AdminPassword = "admin123";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static Integer closedCourseId;
+    private static Integer limitedCourseId;
+
+    @BeforeEach
+    void setUp() {
+        this.restTemplate = template;
+        this.baseUrl = "http://localhost:" + port;
+
+        if (closedCourseId == null) {
+            createTestData();
+        }
+    }
+
+    private void createTestData() {
+        String suffix = String.valueOf(System.nanoTime());
+
+        User teacher = new User();
+        teacher.setLogin("status_teacher_" + suffix);
+        teacher.setPasswdHash("-");
+        teacher.setRole(User.Role.TEACHER);
+        teacher = userRepository.save(teacher);
+
+        Category category = new Category();
+        category.setName("Смена статусов " + suffix);
+        category = categoryRepository.save(category);
+
+        Course closed = new Course();
+        closed.setTitle("Закрываемый курс " + suffix);
+        closed.setCategory(category);
+        closed.setTeacher(teacher);
+        closedCourseId = courseRepository.save(closed).getId();
+
+        Course limited = new Course();
+        limited.setTitle("Курс с местами " + suffix);
+        limited.setCategory(category);
+        limited.setTeacher(teacher);
+        limited.setCapacity(CAPACITY);
+        limitedCourseId = courseRepository.save(limited).getId();
+
+        List<Integer> studentIds = new ArrayList<>();
+        for (int i = 0; i < CLOSED_COURSE_STUDENTS; i++) {
+            User student = new User();
+            student.setLogin("status_student_" + i + "_" + suffix);
+            student.setPasswdHash("-");
+            student.setRole(User.Role.USER);
+            studentIds.add(userRepository.save(student).getId());
+        }
+
+        enroll(closedCourseId, studentIds);
+        enroll(limitedCourseId, studentIds.subList(0, LIMITED_COURSE_STUDENTS));
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. PATCH /api/enrollments/course/{id}/status - все активные записи курса завершаются пачками")
+    void closeCourse_ShouldCompleteAllActiveEnrollments() {
+        ResponseEntity<BulkStatusResult> response = patch("/api/enrollments/course/" + closedCourseId + "/status",
+                Map.of("status", "COMPLETED"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getUpdated()).isEqualTo(CLOSED_COURSE_STUDENTS);
+        assertThat(response.getBody().getSkipped()).isZero();
+        assertThat(enrollmentCountService.getCount(closedCourseId, Enrollment.EnrollmentStatus.ACTIVE)).isZero();
+        assertThat(enrollmentCountService.getCount(closedCourseId, Enrollment.EnrollmentStatus.COMPLETED))
+                .isEqualTo((long) CLOSED_COURSE_STUDENTS);
+        assertCountersMatchTable(closedCourseId);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. PATCH /api/enrollments/status - отмена по списку id, освободившиеся места уходят листу ожидания")
+    void cancelByIds_ShouldUpdateCountersAndPromoteWaitlist() throws Exception {
+        List<Integer> activeIds = new ArrayList<>();
+        for (JsonNode item : enrollmentsOf(limitedCourseId)) {
+            if (item.get("status").asText().equals("ACTIVE") && activeIds.size() < 3) {
+                activeIds.add(item.get("id").asInt());
+            }
+        }
+        List<Integer> ids = new ArrayList<>(activeIds);
+        ids.add(activeIds.get(0));
+        ids.add(Integer.MAX_VALUE);
+
+        ResponseEntity<BulkStatusResult> response = patch("/api/enrollments/status",
+                Map.of("ids", ids, "status", "CANCELLED"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getUpdated()).isEqualTo(3);
+        assertThat(response.getBody().getSkipped()).isEqualTo(1);
+
+        // Перевод из листа ожидания идет в фоне после коммита
+        long waitlisted = -1;
+        for (int attempt = 0; attempt < 50; attempt++) {
+            waitlisted = enrollmentCountService.getCount(limitedCourseId, Enrollment.EnrollmentStatus.WAITLISTED);
+            if (waitlisted == LIMITED_COURSE_STUDENTS - CAPACITY - 3) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+        assertThat(waitlisted).isEqualTo(LIMITED_COURSE_STUDENTS - CAPACITY - 3);
+        assertThat(enrollmentCountService.getCount(limitedCourseId, Enrollment.EnrollmentStatus.ACTIVE))
+                .isEqualTo((long) CAPACITY);
+        assertThat(enrollmentCountService.getCount(limitedCourseId, Enrollment.EnrollmentStatus.CANCELLED))
+                .isEqualTo(3L);
+        assertCountersMatchTable(limitedCourseId);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. В ACTIVE переводится не больше, чем осталось мест")
+    void activateWaitlisted_WhenCourseFull_ShouldSkip() {
+        ResponseEntity<BulkStatusResult> response = patch("/api/enrollments/course/" + limitedCourseId + "/status",
+                Map.of("fromStatus", "WAITLISTED", "status", "ACTIVE"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getUpdated()).isZero();
+        assertThat(response.getBody().getSkipped()).isEqualTo(LIMITED_COURSE_STUDENTS - CAPACITY - 3);
+        assertThat(enrollmentCountService.getCount(limitedCourseId, Enrollment.EnrollmentStatus.ACTIVE))
+                .isEqualTo((long) CAPACITY);
+        assertCountersMatchTable(limitedCourseId);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. Закрытие курса с листом ожидания - ожидающие отменяются, а не занимают места")
+    void closeCourse_WithWaitlist_ShouldCancelWaitlist() throws Exception {
+        long waiting = enrollmentCountService.getCount(limitedCourseId, Enrollment.EnrollmentStatus.WAITLISTED);
+        assertThat(waiting).isPositive();
+
+        ResponseEntity<BulkStatusResult> response = patch("/api/enrollments/course/" + limitedCourseId + "/status",
+                Map.of("status", "COMPLETED"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getUpdated()).isEqualTo(CAPACITY);
+        assertThat(enrollmentCountService.getCount(limitedCourseId, Enrollment.EnrollmentStatus.WAITLISTED)).isZero();
+        assertThat(enrollmentCountService.getCount(limitedCourseId, Enrollment.EnrollmentStatus.CANCELLED))
+                .isEqualTo(3L + waiting);
+
+        // Фоновый перевод из листа ожидания не должен вернуть кого-то в ACTIVE
+        Thread.sleep(500);
+        assertThat(enrollmentCountService.getCount(limitedCourseId, Enrollment.EnrollmentStatus.ACTIVE)).isZero();
+        for (JsonNode item : enrollmentsOf(limitedCourseId)) {
+            assertThat(item.get("status").asText()).isIn("COMPLETED", "CANCELLED");
+        }
+        assertCountersMatchTable(limitedCourseId);
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. Неизвестный статус - ошибка 400")
+    void unknownStatus_ShouldReturnBadRequest() {
+        HttpHeaders headers = createHeaders(AdminUsername, AdminPassword, new ContentType(true, "application/json"));
+        ResponseEntity<String> badStatus = template.exchange(
+                baseUrl + "/api/enrollments/course/" + closedCourseId + "/status", HttpMethod.PATCH,
+                new HttpEntity<>(Map.of("status", "FINISHED"), headers), String.class);
+        ResponseEntity<String> badFromStatus = template.exchange(
+                baseUrl + "/api/enrollments/course/" + closedCourseId + "/status", HttpMethod.PATCH,
+                new HttpEntity<>(Map.of("fromStatus", "FINISHED", "status", "CANCELLED"), headers), String.class);
+        ResponseEntity<String> badBulkStatus = template.exchange(
+                baseUrl + "/api/enrollments/status", HttpMethod.PATCH,
+                new HttpEntity<>(Map.of("ids", List.of(1), "status", "FINISHED"), headers), String.class);
+
+        assertThat(badStatus.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(badFromStatus.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(badBulkStatus.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("6. Запись на закрытый курс - ошибка 409, массовая запись помечает строки ошибочными")
+    void enrollToClosedCourse_ShouldReturnConflict() {
+        User student = new User();
+        student.setLogin("status_late_" + System.nanoTime());
+        student.setPasswdHash("-");
+        student.setRole(User.Role.USER);
+        Integer studentId = userRepository.save(student).getId();
+
+        ResponseEntity<String> single = executePost("/api/enrollments",
+                Map.of("userId", studentId, "courseId", closedCourseId), String.class, AdminUsername, AdminPassword);
+        assertThat(single.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+
+        ResponseEntity<BulkImportResult> bulk = executePost("/api/enrollments/bulk",
+                Map.of("courseId", closedCourseId, "userIds", List.of(studentId)), BulkImportResult.class,
+                AdminUsername, AdminPassword);
+        assertThat(bulk.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(bulk.getBody().getCreated()).isZero();
+        assertThat(bulk.getBody().getInvalid()).isEqualTo(1);
+
+        assertThat(enrollmentCountService.getCount(closedCourseId, Enrollment.EnrollmentStatus.ACTIVE)).isZero();
+        assertCountersMatchTable(closedCourseId);
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("7. Несуществующий курс - ошибка 404")
+    void unknownCourse_ShouldReturnNotFound() {
+        HttpHeaders headers = createHeaders(AdminUsername, AdminPassword, new ContentType(true, "application/json"));
+        ResponseEntity<String> response = template.exchange(
+                baseUrl + "/api/enrollments/course/" + Integer.MAX_VALUE + "/status", HttpMethod.PATCH,
+                new HttpEntity<>(Map.of("status", "COMPLETED"), headers), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    private void enroll(Integer courseId, List<Integer> userIds) {
+        ResponseEntity<BulkImportResult> response = executePost("/api/enrollments/bulk",
+                Map.of("courseId", courseId, "userIds", userIds), BulkImportResult.class, AdminUsername, AdminPassword);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getCreated()).isEqualTo(userIds.size());
+    }
+
+    private JsonNode enrollmentsOf(Integer courseId) throws Exception {
+        ResponseEntity<String> response = executeGet("/api/enrollments/course/" + courseId + "?size=100",
+                String.class, AdminUsername, AdminPassword);
+        return objectMapper.readTree(response.getBody()).get("items");
+    }
+
+    private ResponseEntity<BulkStatusResult> patch(String url, Map<String, Object> body) {
+        HttpEntity<Map<String, Object>> request = new HttpEntity<>(body,
+                createHeaders(AdminUsername, AdminPassword, new ContentType(true, "application/json")));
+        return template.exchange(baseUrl + url, HttpMethod.PATCH, request, BulkStatusResult.class);
+    }
+
+    private void assertCountersMatchTable(Integer id) {
+        Map<Enrollment.EnrollmentStatus, Long> actual = new EnumMap<>(Enrollment.EnrollmentStatus.class);
+        for (Object[] row : enrollmentRepository.countByCourseIdsGroupByStatus(List.of(id))) {
+            actual.put((Enrollment.EnrollmentStatus) row[1], (Long) row[2]);
+        }
+        for (Enrollment.EnrollmentStatus status : Enrollment.EnrollmentStatus.values()) {
+            assertThat(enrollmentCountService.getCount(id, status)).as(status.name())
+                    .isEqualTo(actual.getOrDefault(status, 0L));
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package sf.mifi.grechko.integration.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import sf.mifi.grechko.BaseTest;
+import sf.mifi.grechko.dto.BulkImportResult;
+import sf.mifi.grechko.models.Category;
+import sf.mifi.grechko.models.Course;
+import sf.mifi.grechko.models.User;
+import sf.mifi.grechko.repositories.CategoryRepository;
+import sf.mifi.grechko.repositories.CourseRepository;
+import sf.mifi.grechko.repositories.UserRepository;
+import sf.mifi.grechko.services.EnrollmentCountStream;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Последний тест останавливает поток, а закрытые клиентом подписки сервер замечает только при записи:
+// следующим классам нужен свой контекст
+@DirtiesContext
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class EnrollmentStreamIntegrationTest extends BaseTest {
+
+    private static final int STUDENTS = 20;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate template;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EnrollmentCountStream enrollmentCountStream;
+
+    private final String AdminUsername = "admin";
+    private final String AdminPassword = "admin123";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static Integer courseId;
+    private static List<Integer> studentIds;
+
+    @BeforeEach
+    void setUp() {
+        this.restTemplate = template;
+        this.baseUrl = "http://localhost:" + port;
+
+        if (courseId == null) {
+            createTestData();
+        }
+    }
+
+    private void createTestData() {
+        String suffix = String.valueOf(System.nanoTime());
+
+        User teacher = new User();
+        teacher.setLogin("stream_teacher_" + suffix);
+        teacher.setPasswdHash("-");
+        teacher.setRole(User.Role.TEACHER);
+        teacher = userRepository.save(teacher);
+
+        Category category = new Category();
+        category.setName("Поток счетчиков " + suffix);
+        category = categoryRepository.save(category);
+
+        Course course = new Course();
+        course.setTitle("Курс с подписчиками " + suffix);
+        course.setCategory(category);
+        course.setTeacher(teacher);
+        courseId = courseRepository.save(course).getId();
+
+        studentIds = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            User student = new User();
+            student.setLogin("stream_student_" + i + "_" + suffix);
+            student.setPasswdHash("-");
+            student.setRole(User.Role.USER);
+            studentIds.add(userRepository.save(student).getId());
+        }
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. GET /api/enrollments/course/{id}/stream - текущее значение сразу, затем изменения после коммита")
+    void stream_ShouldPushCountAfterCommit() throws Exception {
+        try (Subscription subscription = subscribe(courseId)) {
+            assertThat(subscription.nextCount()).isEqualTo(0L);
+
+            // Вся пачка - одна транзакция: одно событие с итоговым числом
+            ResponseEntity<BulkImportResult> response = executePost("/api/enrollments/bulk",
+                    Map.of("courseId", courseId, "userIds", studentIds), BulkImportResult.class,
+                    AdminUsername, AdminPassword);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+            assertThat(subscription.nextCount()).isEqualTo((long) STUDENTS);
+        }
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Серия удалений: не больше одного события на изменение, без повторов, последнее - итоговое число")
+    void stream_BurstOfChanges_ShouldEndWithFinalCount() throws Exception {
+        try (Subscription subscription = subscribe(courseId)) {
+            assertThat(subscription.nextCount()).isEqualTo((long) STUDENTS);
+
+            ResponseEntity<String> page = executeGet("/api/enrollments/course/" + courseId + "?size=5",
+                    String.class, AdminUsername, AdminPassword);
+            List<Integer> ids = new ArrayList<>();
+            for (JsonNode item : objectMapper.readTree(page.getBody()).get("items")) {
+                ids.add(item.get("id").asInt());
+            }
+            for (Integer id : ids) {
+                ResponseEntity<Void> deleted = executeDelete("/api/enrollments/" + id, Void.class,
+                        AdminUsername, AdminPassword);
+                assertThat(deleted.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+            }
+
+            List<Long> received = new ArrayList<>();
+            long expected = STUDENTS - ids.size();
+            while (received.isEmpty() || received.get(received.size() - 1) != expected) {
+                received.add(subscription.nextCount());
+            }
+            assertThat(received.size()).isLessThanOrEqualTo(ids.size());
+            assertThat(received).isSortedAccordingTo(Comparator.reverseOrder()).doesNotHaveDuplicates();
+        }
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Подписка на несуществующий курс - ошибка 404")
+    void stream_UnknownCourse_ShouldReturnNotFound() throws Exception {
+        HttpResponse<InputStream> response = open(Integer.MAX_VALUE);
+        response.body().close();
+
+        assertThat(response.statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. Остановка потока закрывает открытые подписки, не дожидаясь таймаута")
+    void stop_ShouldCompleteOpenSubscriptions() throws Exception {
+        try (Subscription subscription = subscribe(courseId)) {
+            subscription.nextCount();
+
+            enrollmentCountStream.stop();
+
+            assertThat(subscription.awaitClosed()).isTrue();
+        }
+    }
+
+    private Subscription subscribe(Integer id) throws Exception {
+        HttpResponse<InputStream> response = open(id);
+        assertThat(response.statusCode()).isEqualTo(200);
+        return new Subscription(response.body());
+    }
+
+    private HttpResponse<InputStream> open(Integer id) throws Exception {
+        String auth = Base64.getEncoder().encodeToString((AdminUsername + ":" + AdminPassword).getBytes());
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/enrollments/course/" + id + "/stream"))
+                .header("Authorization", "Basic " + auth)
+                .header("Accept", "text/event-stream")
+                .build();
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofInputStream());
+    }
+
+    /**
+     * Чтение событий active-count в фоне
+     */
+    private static class Subscription implements AutoCloseable {
+
+        private final InputStream body;
+        private final BlockingQueue<Long> counts = new LinkedBlockingQueue<>();
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        Subscription(InputStream body) {
+            this.body = body;
+            Thread reader = new Thread(this::read, "sse-test-reader");
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        Long nextCount() throws InterruptedException {
+            Long count = counts.poll(10, TimeUnit.SECONDS);
+            assertThat(count).as("событие active-count").isNotNull();
+            return count;
+        }
+
+        /**
+         * Сервер закрыл соединение
+         */
+        boolean awaitClosed() throws InterruptedException {
+            return closed.await(10, TimeUnit.SECONDS);
+        }
+
+        private void read() {
+            try (Scanner scanner = new Scanner(body, StandardCharsets.UTF_8)) {
+                boolean countEvent = false;
+                while (scanner.hasNextLine()) {
+                    String line = scanner.nextLine();
+                    if (line.equals("event:active-count")) {
+                        countEvent = true;
+                    } else if (countEvent && line.startsWith("data:")) {
+                        counts.add(Long.valueOf(line.substring("data:".length()).trim()));
+                        countEvent = false;
+                    }
+                }
+            } catch (RuntimeException e) {
+                // Соединение закрыто
+            } finally {
+                closed.countDown();
+            }
+        }
+
+        @Override
+        public void close() throws Exception {
+            body.close();
+        }
+    }
+}
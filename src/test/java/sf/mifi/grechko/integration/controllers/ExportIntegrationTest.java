@@ -0,0 +1,156 @@
+package sf.mifi.grechko.integration.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import sf.mifi.grechko.BaseTest;
+import sf.mifi.grechko.models.Category;
+import sf.mifi.grechko.models.Course;
+import sf.mifi.grechko.models.Enrollment;
+import sf.mifi.grechko.models.User;
+import sf.mifi.grechko.repositories.CategoryRepository;
+import sf.mifi.grechko.repositories.CourseRepository;
+import sf.mifi.grechko.repositories.EnrollmentRepository;
+import sf.mifi.grechko.repositories.UserRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ExportIntegrationTest extends BaseTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate template;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    private final String AdminUsername = "admin";
+    private final String AdminPassword = "admin123";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static Integer enrollmentId;
+
+    @BeforeEach
+    void setUp() {
+        this.restTemplate = template;
+        this.baseUrl = "http://localhost:" + port;
+
+        if (enrollmentId == null) {
+            String suffix = String.valueOf(System.nanoTime());
+
+            User teacher = new User();
+            teacher.setLogin("export_teacher_" + suffix);
+            teacher.setPasswdHash("-");
+            teacher.setRole(User.Role.TEACHER);
+            teacher = userRepository.save(teacher);
+
+            Category category = new Category();
+            category.setName("Выгрузка " + suffix);
+            category = categoryRepository.save(category);
+
+            Course course = new Course();
+            course.setTitle("Курс выгрузки " + suffix);
+            course.setCategory(category);
+            course.setTeacher(teacher);
+            course = courseRepository.save(course);
+
+            Enrollment enrollment = new Enrollment();
+            enrollment.setUser(teacher);
+            enrollment.setCourse(course);
+            enrollmentId = enrollmentRepository.save(enrollment).getId();
+        }
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. GET /api/courses/export - все курсы, по одному JSON-объекту на строку")
+    void exportCourses_Admin_ShouldStreamAllRowsAsNdjson() throws Exception {
+        ResponseEntity<String> response = executeGet("/api/courses/export", String.class, AdminUsername, AdminPassword);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType().isCompatibleWith(MediaType.APPLICATION_NDJSON)).isTrue();
+
+        String[] lines = response.getBody().split("\n");
+        assertThat((long) lines.length).isEqualTo(courseRepository.count());
+
+        Set<Integer> ids = new HashSet<>();
+        for (String line : lines) {
+            JsonNode course = objectMapper.readTree(line);
+            assertThat(course.get("title").isTextual()).isTrue();
+            ids.add(course.get("id").asInt());
+        }
+        assertThat(ids.size()).isEqualTo(lines.length);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. GET /api/enrollments/export - записи выгружаются в NDJSON")
+    void exportEnrollments_Admin_ShouldContainCreatedEnrollment() throws Exception {
+        ResponseEntity<String> response = executeGet("/api/enrollments/export", String.class, AdminUsername, AdminPassword);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().endsWith("\n")).isTrue();
+
+        boolean found = false;
+        for (String line : response.getBody().split("\n")) {
+            JsonNode enrollment = objectMapper.readTree(line);
+            found |= enrollment.get("id").asInt() == enrollmentId;
+        }
+        assertThat(found).isTrue();
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Строки выгрузки - компактный JSON без разделителей в начале, каждая завершается переводом строки")
+    void exportCourses_Admin_ShouldWriteExactNdjsonBytes() throws Exception {
+        ResponseEntity<byte[]> response = executeGet("/api/courses/export", byte[].class, AdminUsername, AdminPassword);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        String body = new String(response.getBody(), StandardCharsets.UTF_8);
+
+        // Каждая строка пересобирается в компактный JSON - байты должны совпасть полностью
+        StringBuilder expected = new StringBuilder();
+        for (String line : body.split("\n")) {
+            expected.append(objectMapper.writeValueAsString(objectMapper.readTree(line))).append('\n');
+        }
+        assertThat(body).isEqualTo(expected.toString());
+        assertThat(body.startsWith("{")).isTrue();
+        assertThat(body.contains("\n ")).isFalse();
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. Выгрузка без прав ADMIN запрещена")
+    void exportCourses_Anonymous_ShouldBeDenied() {
+        ResponseEntity<String> response = executeGet("/api/courses/export", String.class, null, null);
+
+        assertThat(response.getStatusCode().is4xxClientError()).isTrue();
+    }
+}
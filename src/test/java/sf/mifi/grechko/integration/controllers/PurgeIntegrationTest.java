@@ -0,0 +1,217 @@
+package sf.mifi.grechko.integration.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import sf.mifi.grechko.BaseTest;
+import sf.mifi.grechko.models.Category;
+import sf.mifi.grechko.models.Course;
+import sf.mifi.grechko.models.Enrollment;
+import sf.mifi.grechko.models.User;
+import sf.mifi.grechko.repositories.CategoryRepository;
+import sf.mifi.grechko.repositories.CourseRepository;
+import sf.mifi.grechko.repositories.EnrollmentRepository;
+import sf.mifi.grechko.repositories.UserRepository;
+import sf.mifi.grechko.services.EnrollmentCountService;
+import sf.mifi.grechko.services.PurgeService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Удаление курса и пользователя: строка сразу скрывается, зависимые записи
+ * удаляет фоновая очистка пачками (в тестах chunk-size=50)
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class PurgeIntegrationTest extends BaseTest {
+
+    private static final int STUDENTS = 120;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate template;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private EnrollmentCountService enrollmentCountService;
+
+    @Autowired
+    private PurgeService purgeService;
+
+    private final String AdminUsername = "admin";
+    private final String AdminPassword = "admin123";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static Integer teacherId;
+    private static Integer doomedCourseId;
+    private static Integer keptCourseId;
+    private static Integer doomedStudentId;
+
+    @BeforeEach
+    void setUp() {
+        this.restTemplate = template;
+        this.baseUrl = "http://localhost:" + port;
+
+        if (doomedCourseId == null) {
+            createTestData();
+        }
+    }
+
+    private void createTestData() {
+        String suffix = String.valueOf(System.nanoTime());
+
+        User teacher = new User();
+        teacher.setLogin("purge_teacher_" + suffix);
+        teacher.setPasswdHash("-");
+        teacher.setRole(User.Role.TEACHER);
+        teacher = userRepository.save(teacher);
+        teacherId = teacher.getId();
+
+        Category category = new Category();
+        category.setName("Очистка " + suffix);
+        category = categoryRepository.save(category);
+
+        Course doomed = createCourse("Удаляемый курс " + suffix, category, teacher);
+        Course kept = createCourse("Остающийся курс " + suffix, category, teacher);
+        doomedCourseId = doomed.getId();
+        keptCourseId = kept.getId();
+
+        List<User> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            User student = new User();
+            student.setLogin("purge_student_" + i + "_" + suffix);
+            student.setPasswdHash("-");
+            student.setRole(User.Role.USER);
+            students.add(student);
+        }
+        students = userRepository.saveAll(students);
+        doomedStudentId = students.get(0).getId();
+
+        List<Enrollment> enrollments = new ArrayList<>();
+        for (User student : students) {
+            Enrollment enrollment = new Enrollment();
+            enrollment.setUser(student);
+            enrollment.setCourse(doomed);
+            enrollments.add(enrollment);
+        }
+        Enrollment keptEnrollment = new Enrollment();
+        keptEnrollment.setUser(students.get(0));
+        keptEnrollment.setCourse(kept);
+        enrollments.add(keptEnrollment);
+        enrollmentRepository.saveAll(enrollments);
+        enrollmentCountService.reconcile();
+    }
+
+    private Course createCourse(String title, Category category, User teacher) {
+        Course course = new Course();
+        course.setTitle(title);
+        course.setCategory(category);
+        course.setTeacher(teacher);
+        return courseRepository.save(course);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Удаленный курс сразу скрыт, его записи удаляются пачками в фоне")
+    void deleteCourse_ShouldHideAndPurgeInChunks() throws Exception {
+        ResponseEntity<Void> deleted = executeDelete("/api/courses/" + doomedCourseId, Void.class,
+                AdminUsername, AdminPassword);
+        assertThat(deleted.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+        assertThat(courseRepository.findById(doomedCourseId)).isEmpty();
+        assertThat(executeGet("/api/courses/" + doomedCourseId + "/details", String.class, null, null)
+                .getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+
+        purgeService.purgeAll();
+
+        assertThat(enrollmentRepository.findByCourseId(doomedCourseId)).isEmpty();
+        assertThat(courseRepository.findDeletedIds()).doesNotContain(doomedCourseId);
+        assertThat(enrollmentRepository.findByCourseId(keptCourseId)).hasSize(1);
+
+        JsonNode status = objectMapper.readTree(executeGet("/api/admin/purge-status", String.class,
+                AdminUsername, AdminPassword).getBody());
+        assertThat(status.get("running").asBoolean()).isFalse();
+        assertThat(status.get("pendingCourses").asInt()).isEqualTo(0);
+        assertThat(status.get("purgedEnrollments").asLong()).isGreaterThanOrEqualTo(STUDENTS);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Удаленный пользователь скрыт; очистка удаляет его записи и поправляет счетчики курсов")
+    void deleteUser_ShouldHideAndPurgeEnrollments() {
+        assertThat(enrollmentCountService.getCount(keptCourseId, Enrollment.EnrollmentStatus.ACTIVE)).isEqualTo(1L);
+
+        ResponseEntity<Void> deleted = executeDelete("/api/users/" + doomedStudentId, Void.class,
+                AdminUsername, AdminPassword);
+        assertThat(deleted.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(userRepository.findById(Long.valueOf(doomedStudentId))).isEmpty();
+
+        purgeService.purgeAll();
+
+        assertThat(enrollmentRepository.findByUserId(doomedStudentId)).isEmpty();
+        assertThat(userRepository.findDeletedIds()).doesNotContain(doomedStudentId);
+        assertThat(enrollmentCountService.getCount(keptCourseId, Enrollment.EnrollmentStatus.ACTIVE)).isEqualTo(0L);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Преподавателя с курсами удалить нельзя; статус очистки - только для ADMIN")
+    void deleteTeacherWithCourses_ShouldFail() {
+        ResponseEntity<String> response = executeDelete("/api/users/" + teacherId, String.class,
+                AdminUsername, AdminPassword);
+        assertThat(response.getStatusCode().is2xxSuccessful()).isFalse();
+        assertThat(userRepository.findById(Long.valueOf(teacherId))).isPresent();
+
+        ResponseEntity<String> anonymous = executeGet("/api/admin/purge-status", String.class, null, null);
+        assertThat(anonymous.getStatusCode().is2xxSuccessful()).isFalse();
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. Логин мягко удаленного пользователя занят, пока строку не удалила очистка")
+    void deletedUserLogin_ShouldStayTakenUntilPurged() throws Exception {
+        User user = new User();
+        user.setLogin("purge_login_" + System.nanoTime());
+        user.setPasswdHash("-");
+        user.setRole(User.Role.USER);
+        // Пометка в обход сервиса: фоновая очистка не запускается и не успеет удалить строку до проверок
+        user.setDeletedAt(LocalDateTime.now());
+        userRepository.save(user);
+
+        assertThat(userRepository.existsByLogin(user.getLogin())).isTrue();
+        assertThat(userRepository.findExistingLogins(List.of(user.getLogin()))).containsExactly(user.getLogin());
+        JsonNode status = objectMapper.readTree(executeGet("/api/admin/purge-status", String.class,
+                AdminUsername, AdminPassword).getBody());
+        assertThat(status.get("pendingUsers").asLong()).isGreaterThanOrEqualTo(1L);
+
+        purgeService.purgeAll();
+
+        assertThat(userRepository.existsByLogin(user.getLogin())).isFalse();
+    }
+}
@@ -0,0 +1,157 @@
+package sf.mifi.grechko.integration.controllers;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import sf.mifi.grechko.BaseTest;
+import sf.mifi.grechko.models.Category;
+import sf.mifi.grechko.models.Course;
+import sf.mifi.grechko.models.Enrollment;
+import sf.mifi.grechko.models.User;
+import sf.mifi.grechko.repositories.CategoryRepository;
+import sf.mifi.grechko.repositories.CourseRepository;
+import sf.mifi.grechko.repositories.EnrollmentRepository;
+import sf.mifi.grechko.repositories.UserRepository;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+/**
+ * Каждый списочный эндпоинт курсов и записей должен выполнять ровно один SQL-запрос,
+ * независимо от числа строк (нет ленивых загрузок teacher/category/course на строку)
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class QueryCountIntegrationTest extends BaseTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate template;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    private final String AdminUsername = "admin";
+    private final String AdminPassword = "admin123";
+
+    private static Integer teacherId;
+    private static Integer categoryId;
+    private static Integer courseId;
+    private static Integer studentId;
+    private static Integer enrollmentId;
+
+    @BeforeEach
+    void setUp() {
+        this.restTemplate = template;
+        this.baseUrl = "http://localhost:" + port;
+
+        if (teacherId == null) {
+            createTestData();
+        }
+    }
+
+    private void createTestData() {
+        String suffix = String.valueOf(System.nanoTime());
+
+        User teacher = new User();
+        teacher.setLogin("qc_teacher_" + suffix);
+        teacher.setPasswdHash("-");
+        teacher.setRole(User.Role.TEACHER);
+        teacher = userRepository.save(teacher);
+        teacherId = teacher.getId();
+
+        Category category = new Category();
+        category.setName("Счетчик запросов " + suffix);
+        category = categoryRepository.save(category);
+        categoryId = category.getId();
+
+        for (int i = 0; i < 5; i++) {
+            Course course = new Course();
+            course.setTitle("Курс " + i + " " + suffix);
+            course.setCategory(category);
+            course.setTeacher(teacher);
+            course = courseRepository.save(course);
+            courseId = course.getId();
+
+            // Пара (пользователь, курс) уникальна: у каждой записи курса свой студент
+            for (int j = 0; j <= i; j++) {
+                User student = new User();
+                student.setLogin("qc_student_" + i + "_" + j + "_" + suffix);
+                student.setPasswdHash("-");
+                student.setRole(User.Role.USER);
+                student = userRepository.save(student);
+                studentId = student.getId();
+
+                Enrollment enrollment = new Enrollment();
+                enrollment.setUser(student);
+                enrollment.setCourse(course);
+                enrollmentId = enrollmentRepository.save(enrollment).getId();
+            }
+        }
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Курсы: список, по преподавателю, по категории и по id - один запрос")
+    void courseEndpoints_ShouldExecuteSingleStatement() {
+        // Список курсов кэшируется по (cursor, size): размер, которого нет в других тестах, дает промах
+        assertSingleStatement("/api/courses?size=97", null, null);
+        assertSingleStatement("/api/courses/teacher/" + teacherId, null, null);
+        assertSingleStatement("/api/courses/category/" + categoryId, null, null);
+        // Карточка курса: легкий запрос версии для ETag и сама проекция
+        assertStatements("/api/courses/" + courseId, 2L);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Записи: список, по пользователю, по курсу и по id - один запрос")
+    void enrollmentEndpoints_ShouldExecuteSingleStatement() {
+        // Первый запрос загружает администратора и кладет его в кэш аутентификации
+        executeGet("/api/enrollments", String.class, AdminUsername, AdminPassword);
+
+        assertSingleStatement("/api/enrollments?size=100", AdminUsername, AdminPassword);
+        assertSingleStatement("/api/enrollments/user/" + studentId, AdminUsername, AdminPassword);
+        assertSingleStatement("/api/enrollments/course/" + courseId, AdminUsername, AdminPassword);
+        assertSingleStatement("/api/enrollments/" + enrollmentId, AdminUsername, AdminPassword);
+    }
+
+    private void assertSingleStatement(String url, String username, String password) {
+        assertStatements(url, username, password, 1L);
+    }
+
+    private void assertStatements(String url, long expected) {
+        assertStatements(url, null, null, expected);
+    }
+
+    private void assertStatements(String url, String username, String password, long expected) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ResponseEntity<String> response = executeGet(url, String.class, username, password);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(statistics.getPrepareStatementCount()).as(url).isEqualTo(expected);
+    }
+}
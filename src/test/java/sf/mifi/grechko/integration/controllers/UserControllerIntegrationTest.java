@@ -13,6 +13,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
 import sf.mifi.grechko.BaseTest;
 
+import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -186,4 +187,41 @@ public class UserControllerIntegrationTest extends BaseTest {
         ResponseEntity<String> response = executeDelete(url,String.class, AdminUsername, AdminPassword);
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
     }
+
+    @Test
+    @Order(11)
+    @DisplayName("11. GET /api/users - постраничный список по курсору и фильтр по роли (админ)")
+    void getUsers_CursorPagination_ShouldReturnPages() throws JsonProcessingException {
+        ResponseEntity<String> first = executeGet("/api/users?size=1", String.class,
+                AdminUsername, AdminPassword);
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Map<String, Object> firstPage = objectMapper.readValue(first.getBody(), new TypeReference<Map<String, Object>>() {});
+        List<Map<String, Object>> firstItems = (List<Map<String, Object>>) firstPage.get("items");
+        assertThat(firstItems.size()).isEqualTo(1);
+        assertThat(firstItems.get(0).containsKey("enrollments")).isFalse();
+        assertThat(firstItems.get(0).containsKey("passwdHash")).isFalse();
+
+        // Пользователь admin уже есть, создаем еще одного, чтобы была вторая страница
+        executePost("/api/users", Map.of("login", "pageuser", "password", "pageuser123", "role", "USER"),
+                String.class, AdminUsername, AdminPassword);
+        first = executeGet("/api/users?size=1", String.class, AdminUsername, AdminPassword);
+        firstPage = objectMapper.readValue(first.getBody(), new TypeReference<Map<String, Object>>() {});
+        firstItems = (List<Map<String, Object>>) firstPage.get("items");
+        assertThat(firstPage.get("nextCursor")).isNotNull();
+
+        ResponseEntity<String> second = executeGet("/api/users?size=1&cursor=" + firstPage.get("nextCursor"),
+                String.class, AdminUsername, AdminPassword);
+        Map<String, Object> secondPage = objectMapper.readValue(second.getBody(), new TypeReference<Map<String, Object>>() {});
+        List<Map<String, Object>> secondItems = (List<Map<String, Object>>) secondPage.get("items");
+        assertThat(secondItems.size()).isEqualTo(1);
+        assertThat((Integer) secondItems.get(0).get("id")).isGreaterThan((Integer) firstItems.get(0).get("id"));
+
+        ResponseEntity<String> admins = executeGet("/api/users?role=ADMIN&size=100", String.class,
+                AdminUsername, AdminPassword);
+        Map<String, Object> adminPage = objectMapper.readValue(admins.getBody(), new TypeReference<Map<String, Object>>() {});
+        for (Map<String, Object> item : (List<Map<String, Object>>) adminPage.get("items")) {
+            assertThat(item.get("role")).isEqualTo("ADMIN");
+        }
+    }
 }
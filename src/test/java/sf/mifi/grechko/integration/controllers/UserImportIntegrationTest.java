@@ -0,0 +1,125 @@
+package sf.mifi.grechko.integration.controllers;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.*;
+import org.springframework.test.context.ActiveProfiles;
+import sf.mifi.grechko.BaseTest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class UserImportIntegrationTest extends BaseTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate template;
+
+    private final String AdminUsername = "admin";
+    private final String AdminPassword = "admin123";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        this.restTemplate = template;
+        this.baseUrl = "http://localhost:" + port;
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. POST /api/users/bulk (JSON) - создание, дубликаты и ошибки по строкам")
+    void bulkImportJson_ShouldReportRowResults() throws Exception {
+        List<Map<String, Object>> users = List.of(
+                Map.of("login", "bulk_user_1", "password", "pass1", "role", "USER"),
+                Map.of("login", "bulk_user_2", "password", "pass2", "role", "TEACHER"),
+                Map.of("login", "bulk_user_1", "password", "pass3", "role", "USER"),
+                Map.of("login", AdminUsername, "password", "pass4", "role", "USER"),
+                Map.of("login", "bulk_user_3", "role", "USER")
+        );
+
+        ResponseEntity<String> response = executePost("/api/users/bulk", users, String.class,
+                AdminUsername, AdminPassword);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Map<String, Object> result = objectMapper.readValue(response.getBody(), new TypeReference<>() {});
+        assertThat(result.get("total")).isEqualTo(5);
+        assertThat(result.get("created")).isEqualTo(2);
+        assertThat(result.get("duplicates")).isEqualTo(2);
+        assertThat(result.get("invalid")).isEqualTo(1);
+
+        // Созданный пользователь может войти
+        ResponseEntity<String> me = executeGet("/api/profiles/me", String.class, "bulk_user_2", "pass2");
+        assertThat(me.getStatusCode()).isNotEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. POST /api/users/bulk (CSV) - импорт из CSV")
+    void bulkImportCsv_ShouldCreateUsers() throws Exception {
+        String csv = "login,password,role\n"
+                + "bulk_csv_1,pass1,USER\n"
+                + "\"bulk_csv_2\",\"pa,ss2\",teacher\n"
+                + "bulk_csv_3,pass3,UNKNOWN\n"
+                + "bulk_user_1,pass4,USER\n";
+
+        HttpHeaders headers = createHeaders(AdminUsername, AdminPassword, new ContentType(true, "text/csv"));
+        ResponseEntity<String> response = restTemplate.exchange(baseUrl + "/api/users/bulk", HttpMethod.POST,
+                new HttpEntity<>(csv, headers), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Map<String, Object> result = objectMapper.readValue(response.getBody(), new TypeReference<>() {});
+        assertThat(result.get("total")).isEqualTo(4);
+        assertThat(result.get("created")).isEqualTo(2);
+        assertThat(result.get("duplicates")).isEqualTo(1);
+        assertThat(result.get("invalid")).isEqualTo(1);
+
+        ResponseEntity<String> me = executeGet("/api/profiles/me", String.class, "bulk_csv_2", "pa,ss2");
+        assertThat(me.getStatusCode()).isNotEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. POST /api/users/bulk - без прав администратора (ошибка 403)")
+    void bulkImport_UserAccess_ShouldReturnForbidden() {
+        List<Map<String, Object>> users = List.of(Map.of("login", "bulk_user_x", "password", "p", "role", "USER"));
+
+        ResponseEntity<String> response = executePost("/api/users/bulk", users, String.class,
+                "bulk_user_1", "pass1");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. POST /api/users/bulk - null в массиве считается ошибочной строкой, остальные импортируются")
+    void bulkImport_NullRow_ShouldBeReportedAsInvalid() throws Exception {
+        List<Map<String, Object>> users = Arrays.asList(
+                Map.of("login", "bulk_null_1", "password", "pass1", "role", "USER"),
+                null,
+                Map.of("login", "bulk_null_2", "password", "pass2", "role", "USER")
+        );
+
+        ResponseEntity<String> response = executePost("/api/users/bulk", users, String.class,
+                AdminUsername, AdminPassword);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Map<String, Object> result = objectMapper.readValue(response.getBody(), new TypeReference<>() {});
+        assertThat(result.get("total")).isEqualTo(3);
+        assertThat(result.get("created")).isEqualTo(2);
+        assertThat(result.get("invalid")).isEqualTo(1);
+    }
+}
@@ -0,0 +1,95 @@
+package sf.mifi.grechko.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.event.AuthenticationFailureBadCredentialsEvent;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginAttemptLimiterTest {
+
+    @Test
+    @DisplayName("Исчерпание лимита по логину блокирует логин с любого адреса")
+    void loginBucketExhausted_ShouldRejectFromAnyClient() {
+        LoginAttemptLimiter limiter = new LoginAttemptLimiter(new SimpleMeterRegistry(), true, 3, 1, 1000);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.isAllowed("victim", "10.0.0." + i)).isTrue();
+            limiter.recordFailure("victim", "10.0.0." + i);
+        }
+
+        assertThat(limiter.isAllowed("victim", "10.0.0.99")).isFalse();
+        assertThat(limiter.isAllowed("other", "10.0.0.99")).isTrue();
+        assertThat(limiter.getRejectedCount()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Исчерпание лимита по адресу блокирует адрес для любых логинов")
+    void clientBucketExhausted_ShouldRejectAnyLogin() {
+        LoginAttemptLimiter limiter = new LoginAttemptLimiter(new SimpleMeterRegistry(), true, 3, 1, 1000);
+
+        for (int i = 0; i < 3; i++) {
+            limiter.recordFailure("user" + i, "10.0.0.1");
+        }
+
+        assertThat(limiter.isAllowed("fresh", "10.0.0.1")).isFalse();
+        assertThat(limiter.isAllowed("fresh", "10.0.0.2")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Проверка лимита без неудач токены не расходует")
+    void isAllowed_ShouldNotConsumeTokens() {
+        LoginAttemptLimiter limiter = new LoginAttemptLimiter(new SimpleMeterRegistry(), true, 2, 1, 1000);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.isAllowed("user", "10.0.0.1")).isTrue();
+        }
+        limiter.recordFailure("user", "10.0.0.1");
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.isAllowed("user", "10.0.0.1")).isTrue();
+        }
+        assertThat(limiter.getRejectedCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Отказ по логину не списывает токен адреса")
+    void loginRejected_ShouldKeepClientToken() {
+        LoginAttemptLimiter limiter = new LoginAttemptLimiter(new SimpleMeterRegistry(), true, 2, 1, 1000);
+        limiter.recordFailure("victim", "10.0.0.1");
+        limiter.recordFailure("victim", "10.0.0.2");
+
+        assertThat(limiter.isAllowed("victim", "10.0.0.3")).isFalse();
+        assertThat(limiter.isAllowed("other", "10.0.0.3")).isTrue();
+        assertThat(limiter.isAllowed("other2", "10.0.0.3")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Событие неверных учетных данных списывает токены логина и адреса из деталей запроса")
+    void badCredentialsEvent_ShouldRecordFailure() {
+        LoginAttemptLimiter limiter = new LoginAttemptLimiter(new SimpleMeterRegistry(), true, 1, 1, 1000);
+        UsernamePasswordAuthenticationToken attempt = new UsernamePasswordAuthenticationToken("victim", "wrong");
+        attempt.setDetails(new WebAuthenticationDetails("10.0.0.1", null));
+
+        limiter.onBadCredentials(new AuthenticationFailureBadCredentialsEvent(
+                attempt, new BadCredentialsException("Bad credentials")));
+
+        assertThat(limiter.isAllowed("victim", "10.0.0.2")).isFalse();
+        assertThat(limiter.isAllowed("other", "10.0.0.1")).isFalse();
+        assertThat(limiter.isAllowed("other", "10.0.0.2")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Выключенный ограничитель пропускает все попытки")
+    void disabledLimiter_ShouldAllowEverything() {
+        LoginAttemptLimiter limiter = new LoginAttemptLimiter(new SimpleMeterRegistry(), false, 1, 1, 1000);
+
+        limiter.recordFailure("victim", "10.0.0.1");
+        limiter.recordFailure("victim", "10.0.0.1");
+
+        assertThat(limiter.isAllowed("victim", "10.0.0.1")).isTrue();
+    }
+}
@@ -0,0 +1,92 @@
+package sf.mifi.grechko.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginRateLimitFilterTest {
+
+    private static final int CAPACITY = 3;
+
+    private final LoginAttemptLimiter limiter = new LoginAttemptLimiter(new SimpleMeterRegistry(), true, CAPACITY, 1, 1000);
+    private final LoginRateLimitFilter filter = new LoginRateLimitFilter(limiter);
+
+    @Test
+    @DisplayName("После CAPACITY неудачных попыток следующие получают 429, не доходя до BCrypt")
+    void badLogins_ShouldBeRejectedAfterCapacity() throws Exception {
+        AtomicInteger checked = new AtomicInteger();
+        // Неудачную проверку пароля ограничитель узнает из события неверных учетных данных
+        FilterChain badPassword = (request, response) -> {
+            checked.incrementAndGet();
+            limiter.recordFailure("victim", request.getRemoteAddr());
+            ((MockHttpServletResponse) response).setStatus(401);
+        };
+
+        int tooManyRequests = 0;
+        for (int i = 0; i < CAPACITY * 3; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(basicRequest("victim", "wrong"), response, badPassword);
+            if (response.getStatus() == 429) {
+                assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isNotNull();
+                tooManyRequests++;
+            }
+        }
+
+        assertThat(checked.get()).isEqualTo(CAPACITY);
+        assertThat(tooManyRequests).isEqualTo(CAPACITY * 2);
+    }
+
+    @Test
+    @DisplayName("Параллельные успешные запросы сверх лимита не получают 429: токен на время запроса не занимается")
+    void concurrentSuccessfulLogins_ShouldNotExhaustLimit() throws Exception {
+        int requests = CAPACITY * 5;
+        CountDownLatch allArrived = new CountDownLatch(requests);
+        // Все запросы одновременно внутри цепочки фильтров
+        FilterChain goodPassword = (request, response) -> {
+            allArrived.countDown();
+            try {
+                allArrived.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        ExecutorService pool = Executors.newFixedThreadPool(requests);
+        List<Future<Integer>> statuses = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            statuses.add(pool.submit(() -> {
+                MockHttpServletResponse response = new MockHttpServletResponse();
+                filter.doFilter(basicRequest("user", "secret"), response, goodPassword);
+                return response.getStatus();
+            }));
+        }
+
+        for (Future<Integer> status : statuses) {
+            assertThat(status.get(10, TimeUnit.SECONDS)).isEqualTo(200);
+        }
+        pool.shutdownNow();
+        assertThat(allArrived.getCount()).isZero();
+        assertThat(limiter.getRejectedCount()).isZero();
+    }
+
+    private MockHttpServletRequest basicRequest(String login, String password) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        request.setRemoteAddr("10.0.0.1");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Basic " + Base64.getEncoder()
+                .encodeToString((login + ":" + password).getBytes(StandardCharsets.UTF_8)));
+        return request;
+    }
+}
@@ -0,0 +1,40 @@
+package sf.mifi.grechko.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.BadCredentialsException;
+import sf.mifi.grechko.services.PasswordService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OverloadAwareEntryPointTest {
+
+    private final OverloadAwareEntryPoint entryPoint = new OverloadAwareEntryPoint();
+
+    @Test
+    @DisplayName("Перегрузка пула хэширования - 503 с Retry-After")
+    void overloaded_ShouldReturnServiceUnavailable() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        entryPoint.commence(new MockHttpServletRequest(), response, new AuthenticationServiceException("busy",
+                new PasswordService.OverloadedException("busy", null)));
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Неверный пароль - по-прежнему 401 с WWW-Authenticate")
+    void badCredentials_ShouldReturnUnauthorized() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        entryPoint.commence(new MockHttpServletRequest(), response, new BadCredentialsException("bad"));
+
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(response.getHeader(HttpHeaders.WWW_AUTHENTICATE)).startsWith("Basic");
+    }
+}
@@ -0,0 +1,181 @@
+package sf.mifi.grechko.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import sf.mifi.grechko.dto.CourseSuggestionDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+class CourseSuggestIndexTest {
+
+    private static final String[] WORDS = {
+            "java", "spring", "основы", "программирование", "python", "анализ", "данных", "машинное",
+            "обучение", "базы", "postgresql", "алгоритмы", "структуры", "веб", "разработка", "kotlin",
+            "математика", "статистика", "сети", "безопасность", "linux", "docker", "микросервисы", "архитектура"
+    };
+
+    @Test
+    @DisplayName("Поиск по префиксам всех слов запроса, без учета регистра и ё")
+    void suggest_ShouldMatchWordPrefixes() {
+        CourseSuggestIndex index = new CourseSuggestIndex(null);
+        index.put(1, "Основы Java");
+        index.put(2, "Java для профессионалов");
+        index.put(3, "Spring Boot и Java");
+        index.put(4, "Ёмкие алгоритмы");
+
+        assertThat(index.suggest("jav", null)).extracting(CourseSuggestionDto::getId)
+                .containsExactly(2, 1, 3);
+        // Название, начинающееся с запроса, идет первым
+        assertThat(index.suggest("java", null).get(0).getId()).isEqualTo(2);
+        assertThat(index.suggest("осн JA", null)).extracting(CourseSuggestionDto::getId).containsExactly(1);
+        assertThat(index.suggest("емк", null)).extracting(CourseSuggestionDto::getId).containsExactly(4);
+        assertThat(index.suggest("python", null)).isEmpty();
+        assertThat(index.suggest("  ", null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Изменение и удаление курса обновляют индекс")
+    void putAndRemove_ShouldUpdateIndex() {
+        CourseSuggestIndex index = new CourseSuggestIndex(null);
+        index.put(1, "Основы Java");
+
+        index.put(1, "Основы Kotlin");
+        assertThat(index.suggest("java", null)).isEmpty();
+        assertThat(index.suggest("kot", null)).extracting(CourseSuggestionDto::getId).containsExactly(1);
+
+        index.remove(1);
+        assertThat(index.suggest("осн", null)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Во время перестройки поиск видит старый индекс, а изменения за это время не теряются")
+    void rebuild_ShouldSwapAndKeepConcurrentChanges() throws Exception {
+        CourseSuggestIndex index = new CourseSuggestIndex(null);
+        index.put(1, "Основы Java");
+        index.put(2, "Основы Python");
+
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Источник прочитан до изменений ниже: курса 3 в нем нет, курсы 1 и 2 - со старыми названиями
+        CompletableFuture<Void> rebuild = CompletableFuture.runAsync(() -> index.rebuild(() -> {
+            reading.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of(new CourseSuggestionDto(1, "Основы Java"), new CourseSuggestionDto(2, "Основы Python"));
+        }));
+        assertThat(reading.await(10, TimeUnit.SECONDS)).isTrue();
+
+        index.put(3, "Основы Kotlin");
+        index.put(1, "Продвинутая Java");
+        index.remove(2);
+        assertThat(index.suggest("осн", null)).extracting(CourseSuggestionDto::getId).containsExactly(3);
+
+        release.countDown();
+        rebuild.get(10, TimeUnit.SECONDS);
+
+        assertThat(index.suggest("осн", null)).extracting(CourseSuggestionDto::getId).containsExactly(3);
+        assertThat(index.suggest("прод", null)).extracting(CourseSuggestionDto::getId).containsExactly(1);
+        assertThat(index.suggest("python", null)).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Бенчмарк: память и p99 задержки на 100 000 курсов")
+    void benchmark_MemoryAndLatency() {
+        Random random = new Random(42);
+        int courses = 100_000;
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long before = runtime.totalMemory() - runtime.freeMemory();
+
+        String[] vocabulary = vocabulary(random, 5000);
+        List<CourseSuggestionDto> catalog = new ArrayList<>(courses);
+        for (int id = 1; id <= courses; id++) {
+            catalog.add(new CourseSuggestionDto(id, randomTitle(random, vocabulary)));
+        }
+        CourseSuggestIndex index = new CourseSuggestIndex(null);
+        index.load(catalog);
+        catalog = null;
+
+        System.gc();
+        long after = runtime.totalMemory() - runtime.freeMemory();
+
+        // Запросы как при наборе: префикс слова длиной от 2 символов, иногда после целого слова
+        String[] queries = new String[5_000];
+        for (int i = 0; i < queries.length; i++) {
+            String word = random.nextBoolean() ? WORDS[random.nextInt(WORDS.length)] : vocabulary[random.nextInt(vocabulary.length)];
+            String prefix = word.substring(0, 2 + random.nextInt(word.length() - 1));
+            queries[i] = random.nextInt(3) == 0 ? WORDS[random.nextInt(WORDS.length)] + " " + prefix : prefix;
+        }
+
+        // Прогрев JIT
+        for (String query : queries) {
+            index.suggest(query, null);
+        }
+
+        long[] latencies = new long[queries.length];
+        for (int i = 0; i < queries.length; i++) {
+            long start = System.nanoTime();
+            index.suggest(queries[i], null);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        long p50 = latencies[latencies.length / 2];
+        long p99 = latencies[(int) (latencies.length * 0.99)];
+
+        log.info("Индекс автодополнения: {} курсов, ~{} МБ, p50 {} мкс, p99 {} мкс",
+                courses, (after - before) / (1024 * 1024), p50 / 1000, p99 / 1000);
+
+        // Задержки только в отчете: на общей машине сборки граница в микросекундах была бы нестабильной,
+        // а миллисекундная ничего не проверяет
+        assertThat(index.size()).isEqualTo(courses);
+        List<CourseSuggestionDto> sample = index.suggest("основы", 5);
+        assertThat(sample).hasSizeLessThanOrEqualTo(5);
+    }
+
+    /**
+     * Название из 2-4 слов: реальные слова вперемешку со случайными из словаря в несколько тысяч слов
+     */
+    private String randomTitle(Random random, String[] vocabulary) {
+        StringBuilder title = new StringBuilder();
+        int words = 2 + random.nextInt(3);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                title.append(' ');
+            }
+            title.append(random.nextInt(4) == 0
+                    ? WORDS[random.nextInt(WORDS.length)]
+                    : vocabulary[random.nextInt(vocabulary.length)]);
+        }
+        return title.toString();
+    }
+
+    private String[] vocabulary(Random random, int size) {
+        String[] syllables = {"ра", "зо", "ме", "ти", "ка", "но", "ло", "ви", "де", "су", "ба", "ко", "пре", "ста", "ин"};
+        String[] vocabulary = new String[size];
+        for (int i = 0; i < size; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 2 + random.nextInt(3);
+            for (int j = 0; j < length; j++) {
+                word.append(syllables[random.nextInt(syllables.length)]);
+            }
+            vocabulary[i] = word.toString();
+        }
+        return vocabulary;
+    }
+}
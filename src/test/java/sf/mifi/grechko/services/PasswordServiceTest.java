@@ -0,0 +1,65 @@
+package sf.mifi.grechko.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordServiceTest {
+
+    @Test
+    @DisplayName("Вызовы сверх потоков и очереди пула отклоняются сразу, а не ждут")
+    void fullQueue_ShouldRejectImmediately() throws Exception {
+        // Один поток и одно место в очереди; стоимость 12 - сотни миллисекунд на проверку
+        PasswordService passwordService = new PasswordService(new SimpleMeterRegistry(), 12, 250, 10, 14, 1, 1, 10_000);
+        String hash = passwordService.hashPassword("secret");
+
+        int callers = 6;
+        ExecutorService callerPool = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> rejections = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            rejections.add(callerPool.submit(() -> {
+                start.await();
+                long begin = System.nanoTime();
+                try {
+                    passwordService.verifyPassword("secret", hash);
+                    return -1L;
+                } catch (PasswordService.OverloadedException e) {
+                    return System.nanoTime() - begin;
+                }
+            }));
+        }
+        start.countDown();
+
+        int rejected = 0;
+        for (Future<Long> rejection : rejections) {
+            long waitedNanos = rejection.get(30, TimeUnit.SECONDS);
+            if (waitedNanos >= 0) {
+                rejected++;
+                assertThat(waitedNanos).isLessThan(TimeUnit.MILLISECONDS.toNanos(100));
+            }
+        }
+        // Приняты не больше двух: один выполняется, один ждет в очереди
+        assertThat(rejected).isGreaterThanOrEqualTo(callers - 2);
+
+        callerPool.shutdownNow();
+        passwordService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Очередь по умолчанию равна числу потоков хэширования")
+    void defaultQueue_ShouldMatchThreads() {
+        PasswordService passwordService = new PasswordService(new SimpleMeterRegistry(), 4, 250, 4, 14, 2, 0, 1000);
+
+        assertThat(passwordService.verifyPassword("secret", passwordService.hashPassword("secret"))).isTrue();
+        assertThat(passwordService.getQueueCapacity()).isEqualTo(2);
+
+        passwordService.shutdown();
+    }
+}